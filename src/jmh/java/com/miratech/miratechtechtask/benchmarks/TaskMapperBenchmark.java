@@ -0,0 +1,56 @@
+package com.miratech.miratechtechtask.benchmarks;
+
+import com.miratech.miratechtechtask.dto.TaskDto;
+import com.miratech.miratechtechtask.dto.TaskStatus;
+import com.miratech.miratechtechtask.entities.Task;
+import com.miratech.miratechtechtask.mappers.TaskMapper;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of mapping a task between entity and DTO, paid once per task of every response.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskMapperBenchmark {
+
+    private TaskMapper taskMapper;
+
+    private Task task;
+
+    private TaskDto dto;
+
+    @Setup
+    public void setup() {
+        taskMapper = Mappers.getMapper(TaskMapper.class);
+        task = Task.builder()
+                .id(1L)
+                .title("Complete Project Proposal")
+                .description("Write a detailed proposal for the upcoming project deadline")
+                .status(TaskStatus.IN_PROGRESS)
+                .version(3L)
+                .build();
+        dto = TaskDto.builder()
+                .title("Complete Project Proposal")
+                .description("Write a detailed proposal for the upcoming project deadline")
+                .status(TaskStatus.IN_PROGRESS.getStatus())
+                .build();
+    }
+
+    @Benchmark
+    public TaskDto toDto() {
+        return taskMapper.toDto(task);
+    }
+
+    @Benchmark
+    public Task toEntity() {
+        return taskMapper.toEntity(dto);
+    }
+
+}
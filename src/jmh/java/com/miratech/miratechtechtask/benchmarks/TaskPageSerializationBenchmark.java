@@ -0,0 +1,100 @@
+package com.miratech.miratechtechtask.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.miratech.miratechtechtask.dto.CountMode;
+import com.miratech.miratechtechtask.dto.CountedPage;
+import com.miratech.miratechtechtask.dto.PageDto;
+import com.miratech.miratechtechtask.dto.TaskDto;
+import com.miratech.miratechtechtask.dto.TaskStatus;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Cost of writing a listing page as JSON, CBOR and Smile, and of reading it back as a client does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskPageSerializationBenchmark {
+
+    @Param({"10", "100"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+
+    private ObjectMapper cborMapper;
+
+    private ObjectMapper smileMapper;
+
+    private PageDto<TaskDto> page;
+
+    private byte[] json;
+
+    private byte[] cbor;
+
+    private byte[] smile;
+
+    @Setup
+    public void setup() throws JsonProcessingException {
+        objectMapper = new ObjectMapper();
+        cborMapper = new CBORMapper();
+        smileMapper = new SmileMapper();
+        List<TaskDto> tasks = IntStream.range(0, size)
+                .mapToObj(i -> TaskDto.builder()
+                        .id((long) i)
+                        .title("Title " + i)
+                        .description("Description of the task number " + i)
+                        .status(TaskStatus.values()[i % TaskStatus.values().length].getStatus())
+                        .version(0L)
+                        .build())
+                .toList();
+        page = PageDto.of(new CountedPage<>(tasks, PageRequest.of(0, size, Sort.by("title")), 100_000, CountMode.EXACT));
+        json = serialize();
+        cbor = serializeCbor();
+        smile = serializeSmile();
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] serializeCbor() throws JsonProcessingException {
+        return cborMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] serializeSmile() throws JsonProcessingException {
+        return smileMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public JsonNode parse() throws IOException {
+        return objectMapper.readTree(json);
+    }
+
+    @Benchmark
+    public JsonNode parseCbor() throws IOException {
+        return cborMapper.readTree(cbor);
+    }
+
+    @Benchmark
+    public JsonNode parseSmile() throws IOException {
+        return smileMapper.readTree(smile);
+    }
+
+}
@@ -0,0 +1,71 @@
+package com.miratech.miratechtechtask.benchmarks;
+
+import com.miratech.miratechtechtask.entities.Task;
+import com.miratech.miratechtechtask.services.impl.TaskSpecifications;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building the listing filter in TaskManagementServiceImpl.getAll and turning it into a criteria
+ * predicate, as TaskRepositoryCustomImpl.findSlice does for every listing. The criteria builder comes from a
+ * Hibernate session factory bootstrapped for the Task entity without a database connection.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskSpecificationBenchmark {
+
+    /**
+     * Keeps Hibernate from connecting at startup to read the JDBC metadata; the dialect is given instead.
+     */
+    private static final String USE_JDBC_METADATA_DEFAULTS = "hibernate.temp.use_jdbc_metadata_defaults";
+
+    private SessionFactory sessionFactory;
+
+    private CriteriaBuilder cb;
+
+    @Setup
+    public void setup() {
+        sessionFactory = new Configuration()
+                .addAnnotatedClass(Task.class)
+                .setProperty(AvailableSettings.DIALECT, PostgreSQLDialect.class.getName())
+                .setProperty(USE_JDBC_METADATA_DEFAULTS, "false")
+                .buildSessionFactory();
+        cb = sessionFactory.getCriteriaBuilder();
+    }
+
+    @TearDown
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    public Predicate noFilter() {
+        return toPredicate(TaskSpecifications.filter(null, null));
+    }
+
+    @Benchmark
+    public Predicate titleAndStatus() {
+        return toPredicate(TaskSpecifications.filter("Bug Fixing", "in progress"));
+    }
+
+    private Predicate toPredicate(Specification<Task> spec) {
+        CriteriaQuery<Task> query = cb.createQuery(Task.class);
+        Root<Task> root = query.from(Task.class);
+        return spec.toPredicate(root, query, cb);
+    }
+
+}
@@ -0,0 +1,67 @@
+package com.miratech.miratechtechtask.benchmarks;
+
+import com.miratech.miratechtechtask.dto.TaskDto;
+import com.miratech.miratechtechtask.dto.TaskStatus;
+import com.miratech.miratechtechtask.validators.EnumValidator;
+import com.miratech.miratechtechtask.validators.EnumValidatorImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of parsing and validating a status string, paid on every write request.
+ * The legacy benchmarks keep the previous string-splitting implementations as a baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskStatusBenchmark {
+
+    @Param({"pending", "IN TESTING", "In Testing"})
+    private String status;
+
+    private EnumValidatorImpl validator;
+
+    private List<String> legacyValues;
+
+    @Setup
+    public void setup() throws NoSuchFieldException {
+        validator = new EnumValidatorImpl();
+        validator.initialize(TaskDto.class.getDeclaredField("status").getAnnotation(EnumValidator.class));
+        legacyValues = new ArrayList<>();
+        for (TaskStatus value : TaskStatus.values()) {
+            legacyValues.add(String.join("", value.toString().toUpperCase().split("_")));
+        }
+    }
+
+    @Benchmark
+    public TaskStatus fromStatus() {
+        return TaskStatus.fromStatus(status);
+    }
+
+    @Benchmark
+    public boolean isValid() {
+        return validator.isValid(status, null);
+    }
+
+    @Benchmark
+    public TaskStatus legacyFromStatus() {
+        for (TaskStatus value : TaskStatus.values()) {
+            if (value.getStatus().equalsIgnoreCase(status)) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException();
+    }
+
+    @Benchmark
+    public boolean legacyIsValid() {
+        return legacyValues.contains(String.join("", status.toUpperCase().split(" ")));
+    }
+
+}
@@ -0,0 +1,73 @@
+package com.miratech.miratechtechtask.configs;
+
+/**
+ * Concurrency limit adapted to the observed latency by additive increase, multiplicative decrease (AIMD): every
+ * response within the latency threshold that was served while at least half of the limit was in use raises the
+ * limit by one, every slower or failed response multiplies it by the backoff factor. The limit thereby settles
+ * just below the concurrency at which the database starts queueing, rather than at the pool size.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final long latencyThreshold;
+
+    private final double backoff;
+
+    private double limit;
+
+    private int inFlight;
+
+    public AdaptiveConcurrencyLimiter(LimitProperties.Limit limit) {
+        this.minLimit = limit.minConcurrency();
+        this.maxLimit = limit.maxConcurrency();
+        this.latencyThreshold = limit.latencyThreshold().toNanos();
+        this.backoff = limit.backoff();
+        this.limit = Math.max(minLimit, Math.min(maxLimit, limit.initialConcurrency()));
+    }
+
+    /**
+     * Takes a permit unless the limit is reached.
+     */
+    public synchronized boolean tryAcquire() {
+        if (inFlight >= (int) limit) {
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+
+    /**
+     * Returns a permit and adapts the limit to the outcome of its request.
+     *
+     * @param latency Nanoseconds the request took.
+     * @param failed  Whether the request failed on the server side, which counts as overload whatever its latency.
+     */
+    public synchronized void release(long latency, boolean failed) {
+        int used = inFlight--;
+        if (failed || latency > latencyThreshold) {
+            limit = Math.max(minLimit, limit * backoff);
+        } else if (used * 2 >= limit) {
+            limit = Math.min(maxLimit, limit + 1);
+        }
+    }
+
+    /**
+     * Returns a permit without taking its request into account, for requests whose latency says nothing about
+     * the load, such as streams.
+     */
+    public synchronized void release() {
+        inFlight--;
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+}
@@ -0,0 +1,53 @@
+package com.miratech.miratechtechtask.configs;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.data.domain.Slice;
+
+import java.time.Duration;
+
+/**
+ * Enables the Spring cache abstraction. Cache provider, size and TTL of the task cache are configured
+ * through the 'spring.cache' properties, the page cache through 'tasks.cache.pages'.
+ * <p>
+ * Caching wraps the transactions, so a cache hit needs no transaction. Evicting alone would let a read that
+ * loaded a task before a write committed cache it afterwards; both caches are therefore keyed by a write
+ * generation that is only bumped once the write completes.
+ */
+@Configuration
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
+public class CacheConfig {
+
+    /**
+     * Cache of TaskDto by task ID and write generation of the ID.
+     */
+    public static final String TASKS_CACHE = "tasks";
+
+    /**
+     * Cache of task listing pages by filter, pagination and write generation.
+     */
+    public static final String TASK_PAGES_CACHE = "taskPages";
+
+    /**
+     * Registers the page cache with its own bounds. Pages are weighed by the number of tasks they hold,
+     * so the limit applies to the cached tasks rather than to the number of pages.
+     */
+    @Bean
+    public CacheManagerCustomizer<CaffeineCacheManager> taskPagesCacheCustomizer(
+            @Value("${tasks.cache.pages.max-tasks:100000}") long maxTasks,
+            @Value("${tasks.cache.pages.expire-after-write:30s}") Duration expireAfterWrite) {
+        return cacheManager -> cacheManager.registerCustomCache(TASK_PAGES_CACHE, Caffeine.newBuilder()
+                .maximumWeight(maxTasks)
+                .<Object, Object>weigher((key, page) -> ((Slice<?>) page).getNumberOfElements() + 1)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build());
+    }
+
+}
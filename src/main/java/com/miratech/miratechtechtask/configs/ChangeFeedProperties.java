@@ -0,0 +1,25 @@
+package com.miratech.miratechtechtask.configs;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Relay of the task change feed, configured through 'tasks.changes'.
+ *
+ * @param pollInterval Delay between two polls of the outbox, the added latency of the feed.
+ * @param batchSize    Maximum number of changes read by one outbox query and sent to a consumer at once.
+ * @param backlog      Batches queued for a consumer that has not received them yet; no more are read for it
+ *                     until it catches up.
+ * @param heartbeat    Idle time after which a comment is sent, keeping proxies from closing the stream. A consumer
+ *                     that has not taken a write for as long is disconnected and resumes when it reconnects.
+ * @param retention    How long changes are kept, and so how far back a consumer can resume.
+ */
+@ConfigurationProperties("tasks.changes")
+public record ChangeFeedProperties(@DefaultValue("200ms") Duration pollInterval,
+                                   @DefaultValue("500") int batchSize,
+                                   @DefaultValue("16") int backlog,
+                                   @DefaultValue("15s") Duration heartbeat,
+                                   @DefaultValue("7d") Duration retention) {
+}
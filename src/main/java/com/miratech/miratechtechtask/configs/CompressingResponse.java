@@ -0,0 +1,251 @@
+package com.miratech.miratechtechtask.configs;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.http.HttpHeaders;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Response that buffers its body until it reaches the minimum size for compression, then decides how to send
+ * it. Responses of types that are not compressed, such as event streams, are passed through from their first
+ * byte, so that their flushes take effect; the others ignore flushes while undecided. A Content-Length set
+ * meanwhile is held back and dropped once the body is compressed. A body written with non-blocking I/O is passed
+ * through from when its write listener is set.
+ */
+public class CompressingResponse extends HttpServletResponseWrapper {
+
+    private static final Set<Integer> UNCOMPRESSED_STATUSES = Set.of(
+            HttpServletResponse.SC_NO_CONTENT, HttpServletResponse.SC_PARTIAL_CONTENT,
+            HttpServletResponse.SC_NOT_MODIFIED);
+
+    private final CompressionProperties properties;
+
+    private final String coding;
+
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+    private OutputStream target;
+
+    private boolean compressed;
+
+    private Long contentLength;
+
+    private ServletOutputStream outputStream;
+
+    private PrintWriter writer;
+
+    /**
+     * @param coding Content coding accepted by the client, or null if none is.
+     */
+    public CompressingResponse(HttpServletResponse response, CompressionProperties properties, String coding) {
+        super(response);
+        this.properties = properties;
+        this.coding = coding;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() {
+        if (writer != null) {
+            throw new IllegalStateException("getWriter() has already been called");
+        }
+        if (outputStream == null) {
+            outputStream = new CompressingOutputStream();
+        }
+        return outputStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (writer == null) {
+            if (outputStream != null) {
+                throw new IllegalStateException("getOutputStream() has already been called");
+            }
+            outputStream = new CompressingOutputStream();
+            writer = new PrintWriter(new OutputStreamWriter(outputStream, getCharacterEncoding()));
+        }
+        return writer;
+    }
+
+    @Override
+    public void setContentLength(int len) {
+        setContentLengthLong(len);
+    }
+
+    @Override
+    public void setContentLengthLong(long len) {
+        if (target == null) {
+            contentLength = len;
+        } else if (!compressed) {
+            super.setContentLengthLong(len);
+        }
+    }
+
+    @Override
+    public void setHeader(String name, String value) {
+        if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            setContentLengthLong(Long.parseLong(value));
+        } else {
+            super.setHeader(name, value);
+        }
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+        if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            setContentLengthLong(Long.parseLong(value));
+        } else {
+            super.addHeader(name, value);
+        }
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        if (target != null) {
+            target.flush();
+            super.flushBuffer();
+        }
+    }
+
+    @Override
+    public void resetBuffer() {
+        super.resetBuffer();
+        buffer.reset();
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        buffer.reset();
+        contentLength = null;
+    }
+
+    /**
+     * Sends what is still buffered and ends the compressed stream, once the body is complete.
+     */
+    public void finish() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        if (target == null && buffer.size() == 0) {
+            if (contentLength != null) {
+                super.setContentLengthLong(contentLength);
+            }
+            return;
+        }
+        decide(false);
+        if (target instanceof GZIPOutputStream gzip) {
+            gzip.finish();
+        } else if (compressed) {
+            target.close();
+            return;
+        }
+        target.flush();
+    }
+
+    private boolean isCompressible() {
+        return properties.isCompressible(getContentType());
+    }
+
+    /**
+     * Chooses the target of the body, once it is large enough or complete, and sends what was buffered.
+     */
+    private void decide(boolean large) throws IOException {
+        if (target != null) {
+            return;
+        }
+        boolean compressible = isCompressible();
+        if (compressible) {
+            super.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        OutputStream out = getResponse().getOutputStream();
+        if (large && compressible && coding != null && !containsHeader(HttpHeaders.CONTENT_ENCODING)
+                && !UNCOMPRESSED_STATUSES.contains(getStatus())) {
+            super.setHeader(HttpHeaders.CONTENT_ENCODING, coding);
+            target = CompressionFilter.encoder(coding, out, properties);
+            compressed = true;
+        } else {
+            target = out;
+            if (contentLength != null) {
+                super.setContentLengthLong(contentLength);
+            }
+        }
+        buffer.writeTo(target);
+        buffer.reset();
+    }
+
+    private class CompressingOutputStream extends ServletOutputStream {
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (target == null && !isCompressible()) {
+                decide(false);
+            }
+            if (target != null) {
+                target.write(b, off, len);
+                return;
+            }
+            buffer.write(b, off, len);
+            if (buffer.size() >= properties.minResponseSize().toBytes()) {
+                decide(true);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (target != null) {
+                target.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            finish();
+        }
+
+        /**
+         * Compressed and buffered bodies are written blocking, a passed-through body is ready when the
+         * wrapped stream is.
+         */
+        @Override
+        public boolean isReady() {
+            return !(target instanceof ServletOutputStream out) || out.isReady();
+        }
+
+        /**
+         * Non-blocking writes go straight to the wrapped stream, so the body is passed through uncompressed
+         * from here on; what is buffered is sent first, still blocking.
+         */
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            try {
+                decide(false);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (!(target instanceof ServletOutputStream out)) {
+                throw new IllegalStateException("Non-blocking writes cannot follow compressed output");
+            }
+            out.setWriteListener(writeListener);
+        }
+
+    }
+
+}
@@ -0,0 +1,98 @@
+package com.miratech.miratechtechtask.configs;
+
+import com.github.luben.zstd.ZstdOutputStream;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compresses responses with the content coding negotiated by the Accept-Encoding header, zstd preferred over
+ * gzip. Only responses of the configured types reaching the minimum size are compressed, which is known once
+ * that many bytes were written; see {@link CompressingResponse}.
+ * <p>
+ * Streamed responses are written on another thread after the request thread left this filter, so their
+ * compressed stream is finished at the end of the asynchronous dispatch.
+ */
+@RequiredArgsConstructor
+public class CompressionFilter extends OncePerRequestFilter {
+
+    public static final String ZSTD = "zstd";
+
+    public static final String GZIP = "gzip";
+
+    private static final List<String> PREFERENCE = List.of(ZSTD, GZIP);
+
+    private static final String RESPONSE = CompressionFilter.class.getName() + ".response";
+
+    private final CompressionProperties properties;
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        CompressingResponse compressing;
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            compressing = (CompressingResponse) request.getAttribute(RESPONSE);
+            filterChain.doFilter(request, response);
+        } else {
+            compressing = new CompressingResponse(response, properties,
+                    negotiate(request.getHeader(HttpHeaders.ACCEPT_ENCODING)));
+            request.setAttribute(RESPONSE, compressing);
+            filterChain.doFilter(request, compressing);
+        }
+        if (compressing != null && !request.isAsyncStarted()) {
+            compressing.finish();
+        }
+    }
+
+    /**
+     * Picks the preferred content coding the client accepts, the first of {@link #PREFERENCE} for '*'.
+     *
+     * @return The content coding, or null to leave the response as it is.
+     */
+    public static String negotiate(String acceptEncoding) {
+        if (!StringUtils.hasText(acceptEncoding)) {
+            return null;
+        }
+        List<String[]> codings = Arrays.stream(acceptEncoding.split(","))
+                .map(coding -> coding.trim().toLowerCase().split("\\s*;\\s*q\\s*=\\s*"))
+                .toList();
+        return PREFERENCE.stream()
+                .filter(preferred -> codings.stream().anyMatch(coding ->
+                        (coding[0].equals(preferred) || coding[0].equals("*")) && accepted(coding)))
+                .filter(preferred -> codings.stream().noneMatch(coding -> coding[0].equals(preferred) && !accepted(coding)))
+                .findFirst()
+                .orElse(null);
+    }
+
+    private static boolean accepted(String[] coding) {
+        try {
+            return coding.length == 1 || Double.parseDouble(coding[1]) > 0;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    static OutputStream encoder(String coding, OutputStream out, CompressionProperties properties) throws IOException {
+        return coding.equals(ZSTD) ?
+                new ZstdOutputStream(out, properties.zstdLevel()) :
+                new GZIPOutputStream(out, 8192, true);
+    }
+
+}
@@ -0,0 +1,32 @@
+package com.miratech.miratechtechtask.configs;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.http.MediaType;
+import org.springframework.util.unit.DataSize;
+
+import java.util.List;
+
+/**
+ * Response compression, configured through 'tasks.compression'.
+ *
+ * @param minResponseSize Size from which a response is compressed, smaller ones gain less than they cost.
+ * @param mimeTypes       Content types that are compressed.
+ * @param zstdLevel       Compression level of zstd, 1 to 22; low levels compress faster than gzip and better.
+ */
+@ConfigurationProperties("tasks.compression")
+public record CompressionProperties(@DefaultValue("2KB") DataSize minResponseSize,
+                                    @DefaultValue({"application/json", "application/*+json", "application/x-ndjson",
+                                            "application/cbor", "application/x-jackson-smile", "text/csv",
+                                            "text/plain"}) List<MediaType> mimeTypes,
+                                    @DefaultValue("3") int zstdLevel) {
+
+    public boolean isCompressible(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        MediaType mediaType = MediaType.parseMediaType(contentType);
+        return mimeTypes.stream().anyMatch(mimeType -> mimeType.includes(mediaType));
+    }
+
+}
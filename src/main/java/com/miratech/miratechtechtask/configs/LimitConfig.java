@@ -0,0 +1,38 @@
+package com.miratech.miratechtechtask.configs;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Rate and concurrency limits of the task endpoints, configured through 'tasks.limits' and switched off with
+ * 'tasks.limits.enabled: false'.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(value = "tasks.limits.enabled", matchIfMissing = true)
+@EnableConfigurationProperties(LimitProperties.class)
+public class LimitConfig {
+
+    @Bean
+    public LoadSheddingInterceptor loadSheddingInterceptor(LimitProperties properties, MeterRegistry meterRegistry) {
+        return new LoadSheddingInterceptor(properties, meterRegistry);
+    }
+
+    @Bean
+    public WebMvcConfigurer loadShedding(LoadSheddingInterceptor loadSheddingInterceptor) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(loadSheddingInterceptor)
+                        .addPathPatterns("/miratech/tasks*", "/miratech/tasks/**");
+            }
+        };
+    }
+
+}
@@ -0,0 +1,24 @@
+package com.miratech.miratechtechtask.configs;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+
+/**
+ * Thrown when a request is shed, answered with its status and a Retry-After header.
+ */
+@Getter
+public class LimitExceededException extends RuntimeException {
+
+    private final HttpStatus status;
+
+    private final Duration retryAfter;
+
+    public LimitExceededException(String message, HttpStatus status, Duration retryAfter) {
+        super(message);
+        this.status = status;
+        this.retryAfter = retryAfter;
+    }
+
+}
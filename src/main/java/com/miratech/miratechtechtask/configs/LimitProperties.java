@@ -0,0 +1,49 @@
+package com.miratech.miratechtechtask.configs;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Load shedding in front of the task endpoints, configured through 'tasks.limits'.
+ *
+ * @param defaults       Limits of the endpoints not listed.
+ * @param endpoints      Limits per endpoint, keyed by the name of its controller method, e.g. 'getAll'. An entry
+ *                       replaces the defaults as a whole, its unset values take the built-in ones.
+ * @param trustedProxies Addresses of the proxies whose X-Client-Id header is taken to tell clients apart; clients
+ *                       connecting from anywhere else are told apart by their address alone.
+ * @param maxClients     Number of client and endpoint pairs whose token buckets are kept, the least recently used
+ *                       are dropped beyond it.
+ */
+@ConfigurationProperties("tasks.limits")
+public record LimitProperties(@DefaultValue Limit defaults,
+                              @DefaultValue Map<String, Limit> endpoints,
+                              @DefaultValue Set<String> trustedProxies,
+                              @DefaultValue("100000") long maxClients) {
+
+    public Limit limitOf(String endpoint) {
+        return endpoints.getOrDefault(endpoint, defaults);
+    }
+
+    /**
+     * @param rate               Requests per second a client can make to the endpoint in the long run.
+     * @param burst              Requests a client can make at once, the size of its token bucket.
+     * @param initialConcurrency Concurrent requests the endpoint admits before any latency was observed.
+     * @param minConcurrency     Lower bound of the adaptive concurrency limit.
+     * @param maxConcurrency     Upper bound of the adaptive concurrency limit.
+     * @param latencyThreshold   Latency above which a response is taken as a sign of overload and cuts the limit.
+     * @param backoff            Factor the limit is multiplied by on overload.
+     */
+    public record Limit(@DefaultValue("50") double rate,
+                        @DefaultValue("100") int burst,
+                        @DefaultValue("10") int initialConcurrency,
+                        @DefaultValue("1") int minConcurrency,
+                        @DefaultValue("50") int maxConcurrency,
+                        @DefaultValue("500ms") Duration latencyThreshold,
+                        @DefaultValue("0.9") double backoff) {
+    }
+
+}
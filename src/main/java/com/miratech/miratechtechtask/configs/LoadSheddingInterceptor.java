@@ -0,0 +1,133 @@
+package com.miratech.miratechtechtask.configs;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sheds load before it exhausts the connection pool. Every client has a {@link TokenBucket} per endpoint and is
+ * answered with 429 once it is empty; every endpoint has an {@link AdaptiveConcurrencyLimiter} and is answered
+ * with 503 once its limit is reached. Clients are told apart by their address, endpoints by the name of their
+ * controller method. The X-Client-Id header of {@link ReadYourWritesFilter} only counts when it is set by one of
+ * the trusted proxies: a client could otherwise escape its limit by sending a new value with every request.
+ * <p>
+ * Streamed responses hold their permit only until the stream is started, as their latency is that of the client.
+ * Rejections are counted as {@value #REJECTED}, the limits and the requests in flight are gauged as
+ * {@value #LIMIT} and {@value #IN_FLIGHT}, all tagged by endpoint.
+ */
+public class LoadSheddingInterceptor implements AsyncHandlerInterceptor {
+
+    public static final String REJECTED = "tasks.limits.rejected";
+
+    public static final String LIMIT = "tasks.limits.concurrency";
+
+    public static final String IN_FLIGHT = "tasks.limits.in.flight";
+
+    private static final String LIMITER = LoadSheddingInterceptor.class.getName() + ".limiter";
+
+    private static final String STARTED = LoadSheddingInterceptor.class.getName() + ".started";
+
+    private final LimitProperties properties;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, AdaptiveConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+
+    private final Cache<String, TokenBucket> buckets;
+
+    public LoadSheddingInterceptor(LimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.maxClients())
+                .expireAfterAccess(Duration.ofMinutes(10))
+                .build();
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod handlerMethod) || request.getDispatcherType() != DispatcherType.REQUEST) {
+            return true;
+        }
+        String endpoint = handlerMethod.getMethod().getName();
+        LimitProperties.Limit limit = properties.limitOf(endpoint);
+        Duration wait = buckets.get(clientOf(request) + " " + endpoint, key -> new TokenBucket(limit.rate(), limit.burst()))
+                .tryTake();
+        if (!wait.isZero()) {
+            reject(endpoint, "rate");
+            throw new LimitExceededException("Rate limit of " + endpoint + " exceeded",
+                    HttpStatus.TOO_MANY_REQUESTS, wait);
+        }
+        AdaptiveConcurrencyLimiter limiter = limiters.computeIfAbsent(endpoint, name -> register(name, limit));
+        if (!limiter.tryAcquire()) {
+            reject(endpoint, "concurrency");
+            throw new LimitExceededException("Concurrency limit of " + endpoint + " reached",
+                    HttpStatus.SERVICE_UNAVAILABLE, Duration.ofSeconds(1));
+        }
+        request.setAttribute(LIMITER, limiter);
+        request.setAttribute(STARTED, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getAttribute(LIMITER) instanceof AdaptiveConcurrencyLimiter limiter) {
+            request.removeAttribute(LIMITER);
+            limiter.release();
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(LIMITER) instanceof AdaptiveConcurrencyLimiter limiter) {
+            request.removeAttribute(LIMITER);
+            long latency = System.nanoTime() - (long) request.getAttribute(STARTED);
+            limiter.release(latency, ex != null || response.getStatus() >= 500);
+        }
+    }
+
+    private String clientOf(HttpServletRequest request) {
+        String address = request.getRemoteAddr();
+        String header = request.getHeader(ReadYourWritesFilter.CLIENT_HEADER);
+        if (Objects.nonNull(header) && properties.trustedProxies().contains(address)) {
+            return header;
+        }
+        return address;
+    }
+
+    private AdaptiveConcurrencyLimiter register(String endpoint, LimitProperties.Limit limit) {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(limit);
+        Gauge.builder(LIMIT, limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Adaptive concurrency limit of the endpoint")
+                .tag("endpoint", endpoint)
+                .register(meterRegistry);
+        Gauge.builder(IN_FLIGHT, limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .description("Requests of the endpoint holding a permit")
+                .tag("endpoint", endpoint)
+                .register(meterRegistry);
+        return limiter;
+    }
+
+    private void reject(String endpoint, String reason) {
+        Counter.builder(REJECTED)
+                .description("Requests shed by the rate or concurrency limit")
+                .tag("endpoint", endpoint)
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+
+}
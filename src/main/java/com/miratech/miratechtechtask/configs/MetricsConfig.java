@@ -0,0 +1,78 @@
+package com.miratech.miratechtechtask.configs;
+
+import io.micrometer.common.KeyValues;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.boot.actuate.metrics.data.DefaultRepositoryTagsProvider;
+import org.springframework.boot.actuate.metrics.data.RepositoryTagsProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.http.server.observation.ServerRequestObservationConvention;
+
+/**
+ * Tags the request, service and repository timers with the filter shape of the request (see
+ * {@link RequestMetrics#filterOf}) and counts the SQL statements of every request. Percentile histograms
+ * and the Prometheus endpoint are enabled in the 'management' properties.
+ */
+@Configuration(proxyBeanMethods = false)
+public class MetricsConfig {
+
+    @Bean
+    public RequestMetrics requestMetrics() {
+        return new RequestMetrics();
+    }
+
+    @Bean
+    public TaskServiceMetrics taskServiceMetrics(MeterRegistry meterRegistry, RequestMetrics requestMetrics) {
+        return new TaskServiceMetrics(meterRegistry, requestMetrics);
+    }
+
+    @Bean
+    public RepositoryTagsProvider repositoryTagsProvider(RequestMetrics requestMetrics) {
+        DefaultRepositoryTagsProvider defaults = new DefaultRepositoryTagsProvider();
+        return invocation -> Tags.of(defaults.repositoryTags(invocation)).and("filter", requestMetrics.filter());
+    }
+
+    /**
+     * Counts the statements prepared by Hibernate, keeping an inspector registered before.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer statementCounter(RequestMetrics requestMetrics) {
+        return properties -> {
+            Object previous = properties.get(AvailableSettings.STATEMENT_INSPECTOR);
+            properties.put(AvailableSettings.STATEMENT_INSPECTOR, (StatementInspector) sql -> {
+                requestMetrics.countStatement();
+                return previous instanceof StatementInspector inspector ? inspector.inspect(sql) : sql;
+            });
+        };
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    static class Web {
+
+        @Bean
+        public RequestMetricsFilter requestMetricsFilter(RequestMetrics requestMetrics, MeterRegistry meterRegistry) {
+            return new RequestMetricsFilter(requestMetrics, meterRegistry);
+        }
+
+        @Bean
+        public ServerRequestObservationConvention serverRequestObservationConvention() {
+            return new DefaultServerRequestObservationConvention() {
+                @Override
+                public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+                    return super.getLowCardinalityKeyValues(context)
+                            .and("filter", RequestMetrics.filterOf(context.getCarrier()));
+                }
+            };
+        }
+
+    }
+
+}
@@ -0,0 +1,65 @@
+package com.miratech.miratechtechtask.configs;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+
+/**
+ * Keeps the reads of a client on the primary database for a window after its writes, so that it does not
+ * read from a replica that has not replayed them yet. Requests are pinned to the primary per thread.
+ * <p>
+ * The window also stops cached reads from being stored for a while after any write: a value read from a
+ * lagging replica would otherwise be served to every client, including the writer, until it expires.
+ */
+public class ReadYourWrites {
+
+    private final Duration window;
+
+    private final Cache<String, Boolean> writers;
+
+    private final ThreadLocal<Boolean> pinned = new ThreadLocal<>();
+
+    private volatile long windowEnd = System.nanoTime();
+
+    /**
+     * @param window How long a client is pinned after a write; zero disables pinning, as without replicas.
+     */
+    public ReadYourWrites(Duration window) {
+        this.window = window;
+        this.writers = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .build();
+    }
+
+    public void recordWrite(String client) {
+        if (!window.isZero()) {
+            writers.put(client, Boolean.TRUE);
+            windowEnd = System.nanoTime() + window.toNanos();
+        }
+    }
+
+    public boolean wroteRecently(String client) {
+        return writers.getIfPresent(client) != null;
+    }
+
+    /**
+     * Tells whether any client wrote within the window.
+     */
+    public boolean isWindowOpen() {
+        return System.nanoTime() - windowEnd < 0;
+    }
+
+    public void pin() {
+        pinned.set(Boolean.TRUE);
+    }
+
+    public void unpin() {
+        pinned.remove();
+    }
+
+    public boolean isPinned() {
+        return pinned.get() != null;
+    }
+
+}
@@ -0,0 +1,50 @@
+package com.miratech.miratechtechtask.configs;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Pins requests to the primary database while their client is within the read-your-writes window, and opens
+ * the window after every write request. Clients are told apart by the {@value #CLIENT_HEADER} header, or by
+ * their address without it. Exports are streamed on another thread and therefore always read from a replica.
+ */
+@RequiredArgsConstructor
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    public static final String CLIENT_HEADER = "X-Client-Id";
+
+    private static final Set<String> SAFE_METHODS = Set.of(
+            HttpMethod.GET.name(), HttpMethod.HEAD.name(), HttpMethod.OPTIONS.name());
+
+    private final ReadYourWrites readYourWrites;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String client = Objects.requireNonNullElse(request.getHeader(CLIENT_HEADER), request.getRemoteAddr());
+        boolean write = !SAFE_METHODS.contains(request.getMethod());
+        if (!write && !readYourWrites.wroteRecently(client)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        readYourWrites.pin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            readYourWrites.unpin();
+            if (write) {
+                readYourWrites.recordWrite(client);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,100 @@
+package com.miratech.miratechtechtask.configs;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Routes read-only transactions to the replicas listed in 'tasks.datasource.replicas' and everything else to
+ * the primary 'spring.datasource'. Without replicas the auto-configured data source is used unchanged.
+ */
+@Configuration
+@EnableConfigurationProperties(ReplicaProperties.class)
+public class ReplicaConfig {
+
+    @Bean
+    public ReadYourWrites readYourWrites(ReplicaProperties properties) {
+        return new ReadYourWrites(properties.replicas().isEmpty() ? Duration.ZERO : properties.readYourWritesWindow());
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnProperty("tasks.datasource.replicas[0].url")
+    static class Routing {
+
+        @Bean
+        @ConfigurationProperties("spring.datasource.hikari")
+        public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+            return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        }
+
+        /**
+         * Replica pools are sized like the primary one. They are not beans, so their pool metrics are bound here.
+         */
+        @Bean
+        public ReplicaRoutingDataSource replicaDataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                                         DataSourceProperties primary,
+                                                         ReplicaProperties properties,
+                                                         ReadYourWrites readYourWrites,
+                                                         ObjectProvider<MeterRegistry> meterRegistry) {
+            int poolSize = primaryDataSource instanceof HikariDataSource hikari ? hikari.getMaximumPoolSize() : 10;
+            List<HikariDataSource> replicas = new ArrayList<>();
+            for (int i = 0; i < properties.replicas().size(); i++) {
+                ReplicaProperties.Replica replica = properties.replicas().get(i);
+                HikariDataSource dataSource = new HikariDataSource();
+                dataSource.setPoolName("replica-" + i);
+                dataSource.setJdbcUrl(replica.url());
+                dataSource.setUsername(Objects.requireNonNullElse(replica.username(), primary.determineUsername()));
+                dataSource.setPassword(Objects.requireNonNullElse(replica.password(), primary.determinePassword()));
+                dataSource.setMaximumPoolSize(poolSize);
+                dataSource.setReadOnly(true);
+                meterRegistry.ifAvailable(registry ->
+                        dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+                replicas.add(dataSource);
+            }
+            return new ReplicaRoutingDataSource(primaryDataSource, replicas, readYourWrites);
+        }
+
+        /**
+         * The data source used by JPA, JDBC and Flyway. A physical connection is only fetched when the first
+         * statement runs, by which time the transaction has marked it read-only or not.
+         */
+        @Bean
+        @Primary
+        public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                     ReplicaRoutingDataSource replicaDataSource) {
+            LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+            dataSource.setReadOnlyDataSource(replicaDataSource);
+            return dataSource;
+        }
+
+        @Bean
+        @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+        public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(ReadYourWrites readYourWrites) {
+            FilterRegistrationBean<ReadYourWritesFilter> registration =
+                    new FilterRegistrationBean<>(new ReadYourWritesFilter(readYourWrites));
+            registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+            return registration;
+        }
+
+    }
+
+}
@@ -0,0 +1,29 @@
+package com.miratech.miratechtechtask.configs;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Read replicas of the task database, configured through 'tasks.datasource'.
+ *
+ * @param replicas             Replicas that read-only transactions are spread over; none routes everything
+ *                             to the primary 'spring.datasource'.
+ * @param readYourWritesWindow How long the reads of a client stay on the primary after it wrote,
+ *                             which must exceed the replication lag.
+ */
+@ConfigurationProperties("tasks.datasource")
+public record ReplicaProperties(@DefaultValue List<Replica> replicas,
+                                @DefaultValue("5s") Duration readYourWritesWindow) {
+
+    /**
+     * @param url      JDBC URL of the replica.
+     * @param username User name, the one of the primary when not set.
+     * @param password Password, the one of the primary when not set.
+     */
+    public record Replica(String url, String username, String password) {
+    }
+
+}
@@ -0,0 +1,87 @@
+package com.miratech.miratechtechtask.configs;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.StringJoiner;
+
+/**
+ * Per-request state shared by the metrics of the web, service and repository layers: the filter shape of the
+ * request and the number of SQL statements it has prepared through Hibernate; a JDBC batch counts once. The state
+ * is bound to the request thread, so work done on another thread, such as a streamed export, is not attributed to
+ * the request.
+ */
+public class RequestMetrics {
+
+    /**
+     * Shape of requests that are not filtered, and of work done outside a request.
+     */
+    public static final String NO_FILTER = "none";
+
+    /**
+     * Query parameters that select or restrict the tasks read, in the order they appear in a shape.
+     */
+    private static final List<String> FILTER_PARAMETERS = List.of("q", "title", "status", "after", "fields");
+
+    private final ThreadLocal<Request> current = new ThreadLocal<>();
+
+    /**
+     * Describes which filters a request uses, regardless of their values, e.g. 'title+status'. The number
+     * of shapes is bounded, so they are safe as metric tags.
+     *
+     * @param request The HTTP request.
+     * @return The names of the filter parameters present, joined by '+', or {@value #NO_FILTER}.
+     */
+    public static String filterOf(HttpServletRequest request) {
+        StringJoiner shape = new StringJoiner("+");
+        shape.setEmptyValue(NO_FILTER);
+        for (String parameter : FILTER_PARAMETERS) {
+            if (Objects.nonNull(request.getParameter(parameter))) {
+                shape.add(parameter);
+            }
+        }
+        return shape.toString();
+    }
+
+    public void begin(HttpServletRequest request) {
+        current.set(new Request(filterOf(request)));
+    }
+
+    /**
+     * @return The number of statements the request has prepared.
+     */
+    public int end() {
+        Request request = current.get();
+        current.remove();
+        return Objects.isNull(request) ? 0 : request.statements;
+    }
+
+    /**
+     * @return The filter shape of the current request, or {@value #NO_FILTER} outside a request.
+     */
+    public String filter() {
+        Request request = current.get();
+        return Objects.isNull(request) ? NO_FILTER : request.filter;
+    }
+
+    public void countStatement() {
+        Request request = current.get();
+        if (Objects.nonNull(request)) {
+            request.statements++;
+        }
+    }
+
+    private static final class Request {
+
+        private final String filter;
+
+        private int statements;
+
+        private Request(String filter) {
+            this.filter = filter;
+        }
+
+    }
+
+}
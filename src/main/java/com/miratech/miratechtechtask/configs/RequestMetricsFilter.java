@@ -0,0 +1,50 @@
+package com.miratech.miratechtechtask.configs;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * Records the number of SQL statements prepared by every request as the {@value #STATEMENTS} summary, tagged like
+ * the request timer by method and URI pattern, plus the filter shape.
+ */
+@RequiredArgsConstructor
+public class RequestMetricsFilter extends OncePerRequestFilter {
+
+    public static final String STATEMENTS = "tasks.request.statements";
+
+    private final RequestMetrics requestMetrics;
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        requestMetrics.begin(request);
+        String filter = requestMetrics.filter();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            int statements = requestMetrics.end();
+            Object uri = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            DistributionSummary.builder(STATEMENTS)
+                    .description("SQL statements prepared by Hibernate per request")
+                    .baseUnit("statements")
+                    .tag("method", request.getMethod())
+                    .tag("uri", Objects.isNull(uri) ? "UNKNOWN" : uri.toString())
+                    .tag("filter", filter)
+                    .register(meterRegistry)
+                    .record(statements);
+        }
+    }
+
+}
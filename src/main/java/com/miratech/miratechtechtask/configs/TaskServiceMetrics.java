@@ -0,0 +1,47 @@
+package com.miratech.miratechtechtask.configs;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+/**
+ * Times every call of the task service as {@value #TIMER}, tagged by operation, filter shape and exception.
+ * Runs outside the cache and the transaction, so the time includes cache hits, commit and entity mapping;
+ * the queries alone are timed by the repository metrics.
+ */
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class TaskServiceMetrics {
+
+    public static final String TIMER = "tasks.service";
+
+    private final MeterRegistry meterRegistry;
+
+    private final RequestMetrics requestMetrics;
+
+    @Around("execution(* com.miratech.miratechtechtask.services.TaskManagementService.*(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String exception = "none";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(TIMER)
+                    .description("Calls of the task service")
+                    .tag("operation", joinPoint.getSignature().getName())
+                    .tag("filter", requestMetrics.filter())
+                    .tag("exception", exception)
+                    .register(meterRegistry));
+        }
+    }
+
+}
@@ -0,0 +1,47 @@
+package com.miratech.miratechtechtask.configs;
+
+import java.time.Duration;
+
+/**
+ * Token bucket refilled continuously at a fixed rate, the rate limit of one client on one endpoint.
+ */
+public class TokenBucket {
+
+    private final double tokensPerNano;
+
+    private final double capacity;
+
+    private double tokens;
+
+    private long refilledAt = System.nanoTime();
+
+    /**
+     * @param rate     Tokens added per second.
+     * @param capacity Maximum number of tokens, the bucket starts full.
+     */
+    public TokenBucket(double rate, int capacity) {
+        if (rate <= 0 || capacity < 1) {
+            throw new IllegalArgumentException("Invalid token bucket: rate " + rate + ", capacity " + capacity);
+        }
+        this.tokensPerNano = rate / Duration.ofSeconds(1).toNanos();
+        this.capacity = capacity;
+        this.tokens = capacity;
+    }
+
+    /**
+     * Takes a token if there is one.
+     *
+     * @return Zero when a token was taken, otherwise the time until the next one is available.
+     */
+    public synchronized Duration tryTake() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+        refilledAt = now;
+        if (tokens >= 1) {
+            tokens--;
+            return Duration.ZERO;
+        }
+        return Duration.ofNanos((long) Math.ceil((1 - tokens) / tokensPerNano));
+    }
+
+}
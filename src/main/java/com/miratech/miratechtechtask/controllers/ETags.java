@@ -0,0 +1,78 @@
+package com.miratech.miratechtechtask.controllers;
+
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Conversion between task versions and entity tags.
+ */
+public final class ETags {
+
+    private static final String ANY = "*";
+
+    private static final String WEAK_PREFIX = "W/";
+
+    private static final char QUOTE = '"';
+
+    private static final char SEPARATOR = ',';
+
+    private ETags() {
+    }
+
+    /**
+     * Creates a strong entity tag from a task version.
+     *
+     * @param version The task version.
+     * @return The quoted entity tag.
+     */
+    public static String of(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Extracts the expected task versions from an If-Match header, a comma-separated list of entity tags.
+     * If-Match compares tags strongly, so weak tags never match and are skipped, as are tags this service
+     * never issued.
+     *
+     * @param ifMatch The If-Match header value, may be null.
+     * @return The versions of which the task must have one, null if any version is acceptable,
+     * or an empty set if no tag of the header can match.
+     */
+    public static Set<Long> expectedVersions(String ifMatch) {
+        if (Objects.isNull(ifMatch) || ifMatch.isBlank() || ANY.equals(ifMatch.trim())) {
+            return null;
+        }
+        Set<Long> versions = new HashSet<>();
+        int i = 0;
+        while (i < ifMatch.length()) {
+            char c = ifMatch.charAt(i);
+            if (c == SEPARATOR || Character.isWhitespace(c)) {
+                i++;
+                continue;
+            }
+            boolean weak = ifMatch.startsWith(WEAK_PREFIX, i);
+            int open = weak ? i + WEAK_PREFIX.length() : i;
+            if (open == ifMatch.length() || ifMatch.charAt(open) != QUOTE) {
+                // not an entity tag, skipped up to the next list element
+                int separator = ifMatch.indexOf(SEPARATOR, open);
+                i = separator < 0 ? ifMatch.length() : separator + 1;
+                continue;
+            }
+            int close = ifMatch.indexOf(QUOTE, open + 1);
+            if (close < 0) {
+                break;
+            }
+            if (!weak) {
+                try {
+                    versions.add(Long.valueOf(ifMatch.substring(open + 1, close)));
+                } catch (NumberFormatException e) {
+                    // not a version, cannot match
+                }
+            }
+            i = close + 1;
+        }
+        return versions;
+    }
+
+}
@@ -1,9 +1,17 @@
 package com.miratech.miratechtechtask.controllers;
 
+import com.miratech.miratechtechtask.configs.LimitExceededException;
+import com.miratech.miratechtechtask.dto.BadRequestException;
 import com.miratech.miratechtechtask.dto.ErrorDetails;
+import com.miratech.miratechtechtask.services.TaskChangesExpiredException;
+import com.miratech.miratechtechtask.services.TaskHasSubtasksException;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.OptimisticLockException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
@@ -12,6 +20,7 @@ import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExcep
 
 
 @ControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class ExceptionsHandler extends ResponseEntityExceptionHandler {
 
     @ResponseStatus(HttpStatus.NOT_FOUND)
@@ -25,4 +34,66 @@ public class ExceptionsHandler extends ResponseEntityExceptionHandler {
         return new ResponseEntity<>(errorDetails, HttpStatus.NOT_FOUND);
     }
 
+    @ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+    @ExceptionHandler(OptimisticLockException.class)
+    public ResponseEntity<ErrorDetails> preconditionFailed(OptimisticLockException exception, WebRequest webRequest) {
+        ErrorDetails errorDetails = new ErrorDetails(
+                exception.getMessage(),
+                HttpStatus.PRECONDITION_FAILED
+        );
+        return new ResponseEntity<>(errorDetails, HttpStatus.PRECONDITION_FAILED);
+    }
+
+    @ResponseStatus(HttpStatus.CONFLICT)
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorDetails> conflict(ObjectOptimisticLockingFailureException exception, WebRequest webRequest) {
+        ErrorDetails errorDetails = new ErrorDetails(
+                exception.getMessage(),
+                HttpStatus.CONFLICT
+        );
+        return new ResponseEntity<>(errorDetails, HttpStatus.CONFLICT);
+    }
+
+    @ResponseStatus(HttpStatus.CONFLICT)
+    @ExceptionHandler(TaskHasSubtasksException.class)
+    public ResponseEntity<ErrorDetails> hasSubtasks(TaskHasSubtasksException exception, WebRequest webRequest) {
+        ErrorDetails errorDetails = new ErrorDetails(
+                exception.getMessage(),
+                HttpStatus.CONFLICT
+        );
+        return new ResponseEntity<>(errorDetails, HttpStatus.CONFLICT);
+    }
+
+    @ResponseStatus(HttpStatus.GONE)
+    @ExceptionHandler(TaskChangesExpiredException.class)
+    public ResponseEntity<ErrorDetails> changesExpired(TaskChangesExpiredException exception, WebRequest webRequest) {
+        ErrorDetails errorDetails = new ErrorDetails(
+                exception.getMessage(),
+                HttpStatus.GONE
+        );
+        return new ResponseEntity<>(errorDetails, HttpStatus.GONE);
+    }
+
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    @ExceptionHandler(BadRequestException.class)
+    public ResponseEntity<ErrorDetails> badRequest(BadRequestException exception, WebRequest webRequest) {
+        ErrorDetails errorDetails = new ErrorDetails(
+                exception.getMessage(),
+                HttpStatus.BAD_REQUEST
+        );
+        return new ResponseEntity<>(errorDetails, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(LimitExceededException.class)
+    public ResponseEntity<ErrorDetails> limitExceeded(LimitExceededException exception, WebRequest webRequest) {
+        ErrorDetails errorDetails = new ErrorDetails(
+                exception.getMessage(),
+                exception.getStatus()
+        );
+        long retryAfter = Math.max(1, (exception.getRetryAfter().toMillis() + 999) / 1000);
+        return ResponseEntity.status(exception.getStatus())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter))
+                .body(errorDetails);
+    }
+
 }
@@ -0,0 +1,47 @@
+package com.miratech.miratechtechtask.controllers;
+
+import com.miratech.miratechtechtask.dto.BadRequestException;
+import com.miratech.miratechtechtask.dto.ErrorDetails;
+import com.miratech.miratechtechtask.services.TaskHasSubtasksException;
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.OptimisticLockException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Error responses of {@link ReactiveTaskController}, matching those of {@link ExceptionsHandler}.
+ */
+@ControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveExceptionsHandler {
+
+    @ResponseStatus(HttpStatus.NOT_FOUND)
+    @ExceptionHandler(EntityNotFoundException.class)
+    public ResponseEntity<ErrorDetails> notFound(EntityNotFoundException exception) {
+        return new ResponseEntity<>(new ErrorDetails(exception.getMessage(), HttpStatus.NOT_FOUND), HttpStatus.NOT_FOUND);
+    }
+
+    @ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+    @ExceptionHandler(OptimisticLockException.class)
+    public ResponseEntity<ErrorDetails> preconditionFailed(OptimisticLockException exception) {
+        return new ResponseEntity<>(new ErrorDetails(exception.getMessage(), HttpStatus.PRECONDITION_FAILED),
+                HttpStatus.PRECONDITION_FAILED);
+    }
+
+    @ResponseStatus(HttpStatus.CONFLICT)
+    @ExceptionHandler(TaskHasSubtasksException.class)
+    public ResponseEntity<ErrorDetails> hasSubtasks(TaskHasSubtasksException exception) {
+        return new ResponseEntity<>(new ErrorDetails(exception.getMessage(), HttpStatus.CONFLICT), HttpStatus.CONFLICT);
+    }
+
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    @ExceptionHandler(BadRequestException.class)
+    public ResponseEntity<ErrorDetails> badRequest(BadRequestException exception) {
+        return new ResponseEntity<>(new ErrorDetails(exception.getMessage(), HttpStatus.BAD_REQUEST), HttpStatus.BAD_REQUEST);
+    }
+
+}
@@ -0,0 +1,185 @@
+package com.miratech.miratechtechtask.controllers;
+
+import com.miratech.miratechtechtask.dto.PageDto;
+import com.miratech.miratechtechtask.dto.TaskDto;
+import com.miratech.miratechtechtask.dto.TaskSortKey;
+import com.miratech.miratechtechtask.dto.TaskStatus;
+import com.miratech.miratechtechtask.dto.UpdateStatusDto;
+import com.miratech.miratechtechtask.services.ReactiveTaskManagementService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Non-blocking variant of {@link TaskController} with the same paths, parameters and responses,
+ * served instead of it when the application runs with the 'reactive' profile.
+ */
+@RestController
+@Log4j2
+@RequiredArgsConstructor
+@RequestMapping("miratech")
+@Validated
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveTaskController {
+
+    private final ReactiveTaskManagementService taskService;
+
+    /**
+     * Retrieves a page of tasks.
+     *
+     * @param sort Keys to sort by (id, title, status), each optionally followed by asc or desc.
+     * @return A page of TaskDto objects with the exact total count.
+     */
+    @Operation(summary = "Get all tasks")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Return all present tasks"),
+            @ApiResponse(responseCode = "400", description = "Sort key or direction is unknown")
+    })
+    @GetMapping("tasks")
+    public Mono<PageDto<TaskDto>> getAll(@Min(0) @RequestParam(value = "page", required = false, defaultValue = "0") @Valid Integer page,
+                                         @Min(1) @RequestParam(value = "offset", required = false, defaultValue = "10") @Valid Integer offset,
+                                         @RequestParam(value = "title", required = false) String title,
+                                         @RequestParam(value = "status", required = false) String status,
+                                         @RequestParam(value = "sort", required = false, defaultValue = "title") List<String> sort) {
+        Pageable pageable = PageRequest.of(page, offset,
+                TaskSortKey.toSort(sort));
+        return taskService.getAll(pageable, title, status).map(PageDto::of);
+    }
+
+    /**
+     * Streams all matching tasks as newline-delimited JSON. Selected instead of {@link #getAll} when the
+     * client accepts application/x-ndjson; rows are read only as fast as the client consumes them.
+     *
+     * @param title  Title of the task to filter by (optional).
+     * @param status Status of the task to filter by (optional).
+     * @return The tasks ordered by title and ID.
+     */
+    @Operation(summary = "Stream all tasks")
+    @ApiResponse(responseCode = "200", description = "Stream all present tasks")
+    @GetMapping(value = "tasks", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<TaskDto> stream(@RequestParam(value = "title", required = false) String title,
+                                @RequestParam(value = "status", required = false) String status) {
+        return taskService.stream(title, status);
+    }
+
+    /**
+     * Retrieves a task by its ID.
+     *
+     * @param id The ID of the task to retrieve.
+     * @return The task tagged with its version, or an empty 304 response when If-None-Match holds the current tag.
+     */
+    @Operation(summary = "Receive task by ID")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Task is returned"),
+            @ApiResponse(responseCode = "304", description = "Task has not been modified"),
+            @ApiResponse(responseCode = "404", description = "Task with the specified ID not found")
+    })
+    @GetMapping("tasks/{id}")
+    public Mono<ResponseEntity<TaskDto>> getById(@PathVariable("id") Long id) {
+        return taskService.getById(id).map(task -> tagged(ResponseEntity.ok(), task));
+    }
+
+    /**
+     * Create a new task.
+     *
+     * @param dto The TaskDto containing the details of the task to be created.
+     * @return TaskDto containing the created task, with HTTP status responseCode 201 (Created).
+     */
+    @Operation(summary = "Create a new task")
+    @ApiResponses({
+            @ApiResponse(responseCode = "201", description = "Task created successfully"),
+            @ApiResponse(responseCode = "400", description = "Parent task not found")
+    })
+    @PostMapping("tasks")
+    public Mono<ResponseEntity<TaskDto>> create(@RequestBody @Valid TaskDto dto) {
+        return taskService.create(dto).map(task -> tagged(ResponseEntity.status(HttpStatus.CREATED), task));
+    }
+
+    /**
+     * Updates an existing task by its ID.
+     *
+     * @param id      The ID of the task to update.
+     * @param dto     The TaskDto object representing the updated task data; the parent must stay the same or be
+     *                absent to move the task to the top level, other moves are made through the servlet API.
+     * @param ifMatch Strong entity tags, one of which the task must currently have (optional).
+     * @return The TaskDto object representing the updated task.
+     */
+    @Operation(summary = "Update task by ID")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Task updated successfully"),
+            @ApiResponse(responseCode = "400", description = "Task would be moved under another parent"),
+            @ApiResponse(responseCode = "404", description = "Task with the specified ID not found"),
+            @ApiResponse(responseCode = "412", description = "Task has been modified since the If-Match tag")
+    })
+    @PutMapping("tasks/{id}")
+    public Mono<ResponseEntity<TaskDto>> updateById(@PathVariable("id") Long id, @RequestBody @Valid TaskDto dto,
+                                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return taskService.update(id, dto, ETags.expectedVersions(ifMatch)).map(task -> tagged(ResponseEntity.ok(), task));
+    }
+
+    /**
+     * Update the status of a task by its ID.
+     *
+     * @param id        The ID of the task to update.
+     * @param statusDto The new status of the task.
+     * @param ifMatch   Strong entity tags, one of which the task must currently have (optional).
+     * @return The updated TaskDto representing the task with the new status.
+     */
+    @Operation(summary = "Update task status by ID")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Task status updated successfully"),
+            @ApiResponse(responseCode = "404", description = "Task with the specified ID not found"),
+            @ApiResponse(responseCode = "412", description = "Task has been modified since the If-Match tag")
+    })
+    @PatchMapping("tasks/{id}")
+    public Mono<ResponseEntity<TaskDto>> updateStatus(@PathVariable("id") Long id, @RequestBody @Valid UpdateStatusDto statusDto,
+                                                      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return Mono.defer(() -> taskService.updateStatus(id, TaskStatus.fromStatus(statusDto.status()), ETags.expectedVersions(ifMatch)))
+                .map(task -> tagged(ResponseEntity.ok(), task));
+    }
+
+    /**
+     * Deletes a task by its ID.
+     *
+     * @param id      The ID of the task to delete.
+     * @param ifMatch Strong entity tags, one of which the task must currently have (optional).
+     */
+    @Operation(summary = "Delete task by ID")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Task deleted successfully"),
+            @ApiResponse(responseCode = "404", description = "Task with the specified ID not found"),
+            @ApiResponse(responseCode = "409", description = "Task has subtasks"),
+            @ApiResponse(responseCode = "412", description = "Task has been modified since the If-Match tag")
+    })
+    @DeleteMapping("tasks/{id}")
+    public Mono<Void> deleteById(@PathVariable("id") Long id,
+                                 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return taskService.deleteById(id, ETags.expectedVersions(ifMatch));
+    }
+
+    /**
+     * Adds the version of the task as ETag. For GET requests WebFlux compares it with If-None-Match
+     * and answers 304 without a body when they match.
+     */
+    private static ResponseEntity<TaskDto> tagged(ResponseEntity.BodyBuilder builder, TaskDto task) {
+        return builder.eTag(ETags.of(task.getVersion())).body(task);
+    }
+
+}
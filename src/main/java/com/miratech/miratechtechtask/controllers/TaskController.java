@@ -1,8 +1,20 @@
 package com.miratech.miratechtechtask.controllers;
 
+import com.miratech.miratechtechtask.dto.BadRequestException;
+import com.miratech.miratechtechtask.dto.CountMode;
+import com.miratech.miratechtechtask.dto.CursorPage;
+import com.miratech.miratechtechtask.dto.FileFormat;
+import com.miratech.miratechtechtask.dto.PageDto;
+import com.miratech.miratechtechtask.dto.TaskBatchDto;
+import com.miratech.miratechtechtask.dto.TaskBatchResultDto;
 import com.miratech.miratechtechtask.dto.TaskDto;
+import com.miratech.miratechtechtask.dto.TaskField;
+import com.miratech.miratechtechtask.dto.TaskRollupDto;
+import com.miratech.miratechtechtask.dto.TaskSortKey;
 import com.miratech.miratechtechtask.dto.TaskStatus;
+import com.miratech.miratechtechtask.dto.TaskTreeDto;
 import com.miratech.miratechtechtask.dto.UpdateStatusDto;
+import com.miratech.miratechtechtask.services.TaskChangeFeed;
 import com.miratech.miratechtechtask.services.TaskManagementService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -11,57 +23,307 @@ import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
-import org.springframework.data.domain.Page;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 /**
  * Simple CRUD RESTful API for managing tasks
  */
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @Log4j2
 @RequiredArgsConstructor
 @RequestMapping("miratech")
 @Validated
 public class TaskController {
 
+    public static final String FORMAT_UNSUPPORTED_PARAMETER = "Parameter '%s' cannot be combined with '%s'";
+
     private final TaskManagementService taskService;
 
+    private final TaskChangeFeed taskChangeFeed;
+
     /**
      * Retrieves all tasks.
      *
+     * @param count How the total number of tasks is computed: exact, estimated or none.
+     * @param sort  Keys to sort by (id, title, status), each optionally followed by asc or desc.
+     *              The ID is always appended as the tiebreaker.
      * @return A list of TaskDto objects representing all tasks.
      */
     @Operation(summary = "Get all tasks")
-    @ApiResponse(responseCode = "200", description = "Return all present tasks")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Return all present tasks"),
+            @ApiResponse(responseCode = "400", description = "Sort key or direction is unknown")
+    })
     @GetMapping("tasks")
-    public Page<TaskDto> getAll(@Min(0) @RequestParam(value = "page", required = false, defaultValue = "0") @Valid Integer page,
-                                @Min(1) @RequestParam(value = "offset", required = false, defaultValue = "10") @Valid Integer offset,
-                                @RequestParam(value = "title", required = false) String title,
-                                @RequestParam(value = "status", required = false) String status) {
+    public PageDto<TaskDto> getAll(@Min(0) @RequestParam(value = "page", required = false, defaultValue = "0") @Valid Integer page,
+                                   @Min(1) @RequestParam(value = "offset", required = false, defaultValue = "10") @Valid Integer offset,
+                                   @RequestParam(value = "title", required = false) String title,
+                                   @RequestParam(value = "status", required = false) String status,
+                                   @RequestParam(value = "count", required = false, defaultValue = "exact") String count,
+                                   @RequestParam(value = "sort", required = false, defaultValue = "title") List<String> sort) {
+        Pageable pageable = PageRequest.of(page, offset,
+                TaskSortKey.toSort(sort));
+        return PageDto.of(taskService.getAll(pageable, title, status, CountMode.fromValue(count)));
+    }
+
+    /**
+     * Retrieves a page of tasks restricted to some of their fields. Selected instead of {@link #getAll}
+     * whenever the 'fields' parameter is present; the parameters of {@link #getAll} apply unchanged.
+     *
+     * @param fields Fields to return (id, title, description, status, parentId, version), comma-separated.
+     * @return A page of tasks holding the requested fields only.
+     */
+    @Operation(summary = "Get all tasks with selected fields")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Return the requested fields of all present tasks"),
+            @ApiResponse(responseCode = "400", description = "Field or sort key is unknown")
+    })
+    @GetMapping(value = "tasks", params = {"fields", "!q", "!after"})
+    public PageDto<Map<String, Object>> getAllFields(@Min(0) @RequestParam(value = "page", required = false, defaultValue = "0") @Valid Integer page,
+                                                     @Min(1) @RequestParam(value = "offset", required = false, defaultValue = "10") @Valid Integer offset,
+                                                     @RequestParam(value = "title", required = false) String title,
+                                                     @RequestParam(value = "status", required = false) String status,
+                                                     @RequestParam(value = "count", required = false, defaultValue = "exact") String count,
+                                                     @RequestParam(value = "sort", required = false, defaultValue = "title") List<String> sort,
+                                                     @RequestParam(value = "fields") List<String> fields) {
         Pageable pageable = PageRequest.of(page, offset,
-                Sort.by("title"));
-        return taskService.getAll(pageable, title, status);
+                TaskSortKey.toSort(sort));
+        return PageDto.of(taskService.getAllFields(pageable, title, status, CountMode.fromValue(count),
+                TaskField.parse(fields)));
+    }
+
+    /**
+     * Searches tasks. Selected instead of {@link #getAll} whenever the 'q' parameter is present. Results are
+     * ordered by relevance and hold all fields, so 'sort', 'fields' and 'after' are rejected.
+     *
+     * @param q     Words to find in title or description (web search syntax: quotes, 'or', '-'),
+     *              or part of the title.
+     * @param count How the total number of tasks is computed: exact, estimated or none.
+     * @return A page of matching TaskDto objects, most relevant first.
+     */
+    @Operation(summary = "Search tasks")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Return matching tasks by relevance"),
+            @ApiResponse(responseCode = "400", description = "Search query is blank or combined with sort, fields or after")
+    })
+    @GetMapping(value = "tasks", params = "q")
+    public PageDto<TaskDto> search(@RequestParam(value = "q") String q,
+                                   @Min(0) @RequestParam(value = "page", required = false, defaultValue = "0") @Valid Integer page,
+                                   @Min(1) @RequestParam(value = "offset", required = false, defaultValue = "10") @Valid Integer offset,
+                                   @RequestParam(value = "title", required = false) String title,
+                                   @RequestParam(value = "status", required = false) String status,
+                                   @RequestParam(value = "count", required = false, defaultValue = "exact") String count,
+                                   WebRequest webRequest) {
+        rejectParameters(webRequest, "q", "sort", "fields", "after");
+        return PageDto.of(taskService.search(q, PageRequest.of(page, offset), title, status,
+                CountMode.fromValue(count)));
+    }
+
+    /**
+     * Retrieves tasks using keyset pagination. Selected instead of {@link #getAll} whenever the 'after'
+     * parameter is present; an empty value requests the first slice. Slices have a fixed order, all fields
+     * and no total, so 'sort', 'fields', 'count' and 'page' are rejected.
+     *
+     * @param after  Opaque cursor from the 'next' field of the previous slice.
+     * @param offset Maximum number of tasks in the slice.
+     * @param title  Title of the task to filter by (optional).
+     * @param status Status of the task to filter by (optional).
+     * @return A slice of TaskDto objects ordered by title and ID, without total count.
+     */
+    @Operation(summary = "Get tasks after cursor")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Return the next slice of tasks"),
+            @ApiResponse(responseCode = "400", description = "Cursor is malformed or combined with sort, fields, count or page")
+    })
+    @GetMapping(value = "tasks", params = {"after", "!q"})
+    public CursorPage<TaskDto> getAllAfter(@RequestParam(value = "after") String after,
+                                           @Min(1) @RequestParam(value = "offset", required = false, defaultValue = "10") @Valid Integer offset,
+                                           @RequestParam(value = "title", required = false) String title,
+                                           @RequestParam(value = "status", required = false) String status,
+                                           WebRequest webRequest) {
+        rejectParameters(webRequest, "after", "sort", "fields", "count", "page");
+        return taskService.getAllAfter(after, offset, title, status);
+    }
+
+    /**
+     * Exports all tasks as a download, streamed while they are read from the database.
+     *
+     * @param title  Title of the task to filter by (optional).
+     * @param status Status of the task to filter by (optional).
+     * @param format Format of the export: ndjson or csv.
+     * @return The matching tasks ordered by ID.
+     */
+    @Operation(summary = "Export all tasks")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Return all matching tasks as NDJSON or CSV"),
+            @ApiResponse(responseCode = "400", description = "Format or status is unknown")
+    })
+    @GetMapping("tasks:export")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(value = "title", required = false) String title,
+                                                        @RequestParam(value = "status", required = false) String status,
+                                                        @RequestParam(value = "format", required = false, defaultValue = "ndjson") String format) {
+        FileFormat fileFormat = FileFormat.fromValue(format);
+        if (Objects.nonNull(status)) {
+            // fail with 400 before the response is committed
+            TaskStatus.fromStatus(status);
+        }
+        return ResponseEntity.ok()
+                .contentType(fileFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename("tasks." + fileFormat.getExtension()).build().toString())
+                .body(out -> taskService.export(title, status, fileFormat, out));
+    }
+
+    /**
+     * Imports new tasks from an NDJSON or CSV request body, selected by its content type. Tasks are loaded
+     * in chunks while the body is read, and the progress of every chunk is streamed back as NDJSON. Imported
+     * tasks get new IDs, so a parent ID must name an existing task; lines naming a missing parent are rejected.
+     *
+     * @param contentType Content type of the body: application/x-ndjson or text/csv.
+     * @param body        The tasks to import; CSV needs a header naming the title, description and status columns,
+     *                    and may have a parentId column.
+     * @return One progress line per chunk with the counts and rejected lines.
+     */
+    @Operation(summary = "Import tasks")
+    @ApiResponse(responseCode = "200", description = "Progress of every loaded chunk")
+    @PostMapping(value = "tasks:import", consumes = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv"},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> importTasks(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                             InputStream body) {
+        FileFormat fileFormat = FileFormat.fromMediaType(MediaType.parseMediaType(contentType));
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(out -> taskService.importTasks(fileFormat, body, out));
+    }
+
+    /**
+     * Streams the mutations of tasks as Server-Sent Events, replacing polling of the task list. Every event
+     * is named created, updated or deleted and carries the change with the task state after it. Changes are
+     * published once committed, in a total order that a consumer resumes from the ID of its last event, as long
+     * as the changes following it are retained; otherwise it has to read the tasks again.
+     *
+     * @param lastEventId ID of the last event received, sent by SSE clients when they reconnect (optional).
+     * @param after       Offset to resume after when the header is absent (optional); without either,
+     *                    only changes made from now on are sent.
+     * @return The event stream.
+     */
+    @Operation(summary = "Stream task changes")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Stream of task changes"),
+            @ApiResponse(responseCode = "400", description = "Offset is malformed"),
+            @ApiResponse(responseCode = "410", description = "Offset is older than the retained changes")
+    })
+    @GetMapping(value = "tasks/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter changes(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+                              @RequestParam(value = "after", required = false) String after) {
+        return taskChangeFeed.subscribe(Objects.nonNull(lastEventId) ? lastEventId : after);
     }
 
     /**
      * Retrieves a task by its ID.
      *
      * @param id The ID of the task to retrieve.
-     * @return The TaskDto object representing the task with the specified ID.
+     * @return The TaskDto object representing the task with the specified ID, tagged with its version.
+     * An empty 304 response is sent instead when the If-None-Match header holds the current tag.
      */
     @Operation(summary = "Receive task by ID")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Task is returned"),
+            @ApiResponse(responseCode = "304", description = "Task has not been modified"),
             @ApiResponse(responseCode = "404", description = "Task with the specified ID not found")
     })
     @GetMapping("tasks/{id}")
-    public TaskDto getById(@PathVariable("id") Long id) {
-        return taskService.getById(id);
+    public ResponseEntity<TaskDto> getById(@PathVariable("id") Long id) {
+        return tagged(ResponseEntity.ok(), taskService.getById(id));
+    }
+
+    /**
+     * Retrieves some fields of a task by its ID. Selected instead of {@link #getById} whenever the 'fields'
+     * parameter is present. The response carries no entity tag, as it is not the full representation.
+     *
+     * @param id     The ID of the task to retrieve.
+     * @param fields Fields to return (id, title, description, status, parentId, version), comma-separated.
+     * @return The requested fields of the task.
+     */
+    @Operation(summary = "Receive selected fields of task by ID")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Requested fields of the task are returned"),
+            @ApiResponse(responseCode = "400", description = "Field is unknown"),
+            @ApiResponse(responseCode = "404", description = "Task with the specified ID not found")
+    })
+    @GetMapping(value = "tasks/{id}", params = "fields")
+    public Map<String, Object> getFieldsById(@PathVariable("id") Long id,
+                                             @RequestParam(value = "fields") List<String> fields) {
+        return taskService.getFieldsById(id, TaskField.parse(fields));
+    }
+
+    /**
+     * Retrieves a task with its subtasks in one query.
+     *
+     * @param id    The ID of the task to retrieve.
+     * @param depth Levels of subtasks to return, 0 for the task alone; all levels when absent.
+     * @return The task with its subtasks nested under 'subtasks', ordered by ID.
+     */
+    @Operation(summary = "Receive task with its subtasks")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Task and its subtasks are returned"),
+            @ApiResponse(responseCode = "400", description = "Depth is negative"),
+            @ApiResponse(responseCode = "404", description = "Task with the specified ID not found")
+    })
+    @GetMapping("tasks/{id}/subtree")
+    public TaskTreeDto getSubtree(@PathVariable("id") Long id,
+                                  @RequestParam(value = "depth", required = false) Integer depth) {
+        return taskService.getSubtree(id, depth);
+    }
+
+    /**
+     * Retrieves the ancestors of a task in one query.
+     *
+     * @param id The ID of the task whose ancestors to retrieve.
+     * @return The ancestors from the top-level task down to the parent, empty for a top-level task.
+     */
+    @Operation(summary = "Receive ancestors of task")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Ancestors of the task are returned"),
+            @ApiResponse(responseCode = "404", description = "Task with the specified ID not found")
+    })
+    @GetMapping("tasks/{id}/ancestors")
+    public List<TaskDto> getAncestors(@PathVariable("id") Long id) {
+        return taskService.getAncestors(id);
+    }
+
+    /**
+     * Counts the statuses of a task and all its subtasks in one query.
+     *
+     * @param id The ID of the task at the root of the subtree.
+     * @return The number of tasks per status and the status of the subtree as a whole.
+     */
+    @Operation(summary = "Receive status rollup of task and its subtasks")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Status rollup is returned"),
+            @ApiResponse(responseCode = "404", description = "Task with the specified ID not found")
+    })
+    @GetMapping("tasks/{id}/rollup")
+    public TaskRollupDto getRollup(@PathVariable("id") Long id) {
+        return taskService.getRollup(id);
     }
 
     /**
@@ -71,28 +333,34 @@ public class TaskController {
      * @return TaskDto containing the created task if successful, with HTTP status responseCode 201 (Created).
      */
     @Operation(summary = "Create a new task")
-    @ApiResponse(responseCode = "201", description = "Task created successfully")
+    @ApiResponses({
+            @ApiResponse(responseCode = "201", description = "Task created successfully"),
+            @ApiResponse(responseCode = "400", description = "Parent task not found")
+    })
     @PostMapping("tasks")
-    @ResponseStatus(HttpStatus.CREATED)
-    public TaskDto create(@RequestBody @Valid TaskDto dto) {
-        return taskService.create(dto);
+    public ResponseEntity<TaskDto> create(@RequestBody @Valid TaskDto dto) {
+        return tagged(ResponseEntity.status(HttpStatus.CREATED), taskService.create(dto));
     }
 
     /**
      * Updates an existing task by its ID.
      *
-     * @param id  The ID of the task to update.
-     * @param dto The TaskDto object representing the updated task data.
+     * @param id      The ID of the task to update.
+     * @param dto     The TaskDto object representing the updated task data.
+     * @param ifMatch Strong entity tags, one of which the task must currently have (optional).
      * @return The TaskDto object representing the updated task.
      */
     @Operation(summary = "Update task by ID")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Task updated successfully"),
-            @ApiResponse(responseCode = "404", description = "Task with the specified ID not found")
+            @ApiResponse(responseCode = "400", description = "Parent task not found or is a subtask of the task"),
+            @ApiResponse(responseCode = "404", description = "Task with the specified ID not found"),
+            @ApiResponse(responseCode = "412", description = "Task has been modified since the If-Match tag")
     })
     @PutMapping("tasks/{id}")
-    public TaskDto updateById(@PathVariable("id") Long id, @RequestBody @Valid TaskDto dto) {
-        return taskService.update(id, dto);
+    public ResponseEntity<TaskDto> updateById(@PathVariable("id") Long id, @RequestBody @Valid TaskDto dto,
+                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return tagged(ResponseEntity.ok(), taskService.update(id, dto, ETags.expectedVersions(ifMatch)));
     }
 
     /**
@@ -100,31 +368,77 @@ public class TaskController {
      *
      * @param id        The ID of the task to update.
      * @param statusDto The new status of the task.
+     * @param ifMatch   Strong entity tags, one of which the task must currently have (optional).
      * @return The updated TaskDto representing the task with the new status.
      */
     @Operation(summary = "Update task status by ID")
     @ApiResponses({
             @ApiResponse(responseCode = "204", description = "Task status updated successfully"),
-            @ApiResponse(responseCode = "404", description = "Task with the specified ID not found")
+            @ApiResponse(responseCode = "404", description = "Task with the specified ID not found"),
+            @ApiResponse(responseCode = "412", description = "Task has been modified since the If-Match tag")
     })
     @PatchMapping("tasks/{id}")
-    public TaskDto updateStatus(@PathVariable("id") Long id, @RequestBody @Valid UpdateStatusDto statusDto) {
-        return taskService.updateStatus(id, TaskStatus.fromStatus(statusDto.status()));
+    public ResponseEntity<TaskDto> updateStatus(@PathVariable("id") Long id, @RequestBody @Valid UpdateStatusDto statusDto,
+                                                @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return tagged(ResponseEntity.ok(),
+                taskService.updateStatus(id, TaskStatus.fromStatus(statusDto.status()), ETags.expectedVersions(ifMatch)));
     }
 
     /**
      * Deletes a task by its ID.
      *
-     * @param id The ID of the task to delete.
+     * @param id      The ID of the task to delete.
+     * @param ifMatch Strong entity tags, one of which the task must currently have (optional).
      */
     @Operation(summary = "Delete task by ID")
     @ApiResponses({
             @ApiResponse(responseCode = "204", description = "Task deleted successfully"),
-            @ApiResponse(responseCode = "404", description = "Task with the specified ID not found")
+            @ApiResponse(responseCode = "404", description = "Task with the specified ID not found"),
+            @ApiResponse(responseCode = "409", description = "Task has subtasks"),
+            @ApiResponse(responseCode = "412", description = "Task has been modified since the If-Match tag")
     })
     @DeleteMapping("tasks/{id}")
-    public void deleteById(@PathVariable("id") Long id) {
-        taskService.deleteById(id);
+    public void deleteById(@PathVariable("id") Long id,
+                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        taskService.deleteById(id, ETags.expectedVersions(ifMatch));
+    }
+
+    /**
+     * Applies a batch of task mutations in a single transaction.
+     *
+     * @param batch The creates, updates, status changes and deletes to apply.
+     * @return The result of every item, in request order.
+     */
+    @Operation(summary = "Create, update and delete tasks in batch")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Batch applied, see per-item results"),
+            @ApiResponse(responseCode = "400", description = "Batch contains an invalid item")
+    })
+    @PostMapping("tasks:batch")
+    public TaskBatchResultDto batch(@RequestBody @Valid TaskBatchDto batch) {
+        return taskService.batch(batch);
+    }
+
+    /**
+     * Adds the version of the task as ETag. For GET requests Spring MVC compares it with If-None-Match
+     * and answers 304 without a body when they match.
+     */
+    private static ResponseEntity<TaskDto> tagged(ResponseEntity.BodyBuilder builder, TaskDto task) {
+        return builder.eTag(ETags.of(task.getVersion())).body(task);
+    }
+
+    /**
+     * Rejects the parameters a listing mode does not support, rather than ignoring them.
+     *
+     * @param mode  The parameter selecting the mode.
+     * @param names The parameters the mode does not support.
+     */
+    private static void rejectParameters(WebRequest webRequest, String mode, String... names) {
+        for (String name : names) {
+            if (Objects.nonNull(webRequest.getParameter(name))) {
+                throw new BadRequestException(String.format(FORMAT_UNSUPPORTED_PARAMETER, name, mode));
+            }
+        }
     }
 
 }
@@ -0,0 +1,13 @@
+package com.miratech.miratechtechtask.dto;
+
+/**
+ * Thrown when a client sends a malformed or unknown argument, such as a cursor, sort key, field, status or query.
+ * Answered with 400; any other {@link IllegalArgumentException} is a bug and answered with 500.
+ */
+public class BadRequestException extends IllegalArgumentException {
+
+    public BadRequestException(String message) {
+        super(message);
+    }
+
+}
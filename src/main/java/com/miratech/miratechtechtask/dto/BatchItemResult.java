@@ -0,0 +1,25 @@
+package com.miratech.miratechtechtask.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Outcome of a single item of a task batch.
+ *
+ * @param id      ID of the affected task.
+ * @param status  Status the item would have received as a standalone request.
+ * @param task    The task after the mutation, absent for deletes and failures.
+ * @param message Reason of a failure.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BatchItemResult(Long id, HttpStatus status, TaskDto task, String message) {
+
+    public static BatchItemResult success(HttpStatus status, TaskDto task) {
+        return new BatchItemResult(task.getId(), status, task, null);
+    }
+
+    public static BatchItemResult failure(Long id, HttpStatus status, String message) {
+        return new BatchItemResult(id, status, null, message);
+    }
+
+}
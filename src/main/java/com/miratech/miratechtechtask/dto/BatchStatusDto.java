@@ -0,0 +1,10 @@
+package com.miratech.miratechtechtask.dto;
+
+import com.miratech.miratechtechtask.validators.EnumValidator;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.Builder;
+
+@Builder
+public record BatchStatusDto(@NotNull Long id, @NotBlank @EnumValidator(enumClazz = TaskStatus.class) String status) {
+}
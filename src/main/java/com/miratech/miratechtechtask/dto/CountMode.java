@@ -0,0 +1,29 @@
+package com.miratech.miratechtechtask.dto;
+
+/**
+ * Strategy for computing the total number of elements of a task page.
+ */
+public enum CountMode {
+    /**
+     * Runs a count query with the same filter as the page query.
+     */
+    EXACT,
+    /**
+     * Reads the row estimate of the PostgreSQL planner instead of counting.
+     */
+    ESTIMATED,
+    /**
+     * Skips counting; the total only reflects whether a next page exists.
+     */
+    NONE;
+
+    public static CountMode fromValue(String value) {
+        for (CountMode mode : values()) {
+            if (mode.name().equalsIgnoreCase(value)) {
+                return mode;
+            }
+        }
+        throw new BadRequestException("No count mode: " + value);
+    }
+
+}
@@ -0,0 +1,26 @@
+package com.miratech.miratechtechtask.dto;
+
+import lombok.Getter;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+/**
+ * Page that reports how its total number of elements was obtained.
+ * Unless the count mode is {@link CountMode#EXACT}, the total is only reliable on the last page;
+ * on other pages it is an estimate or a lower bound that keeps 'last' and 'totalPages' consistent.
+ *
+ * @param <T> Type of the page items.
+ */
+@Getter
+public class CountedPage<T> extends PageImpl<T> {
+
+    private final CountMode countMode;
+
+    public CountedPage(List<T> content, Pageable pageable, long total, CountMode countMode) {
+        super(content, pageable, total);
+        this.countMode = countMode;
+    }
+
+}
@@ -0,0 +1,15 @@
+package com.miratech.miratechtechtask.dto;
+
+import java.util.List;
+
+/**
+ * Slice of results fetched by keyset pagination. Carries no total count.
+ *
+ * @param content Items of the slice.
+ * @param size    Requested slice size.
+ * @param hasNext Whether more items follow this slice.
+ * @param next    Cursor token for the next slice, or null if this is the last one.
+ * @param <T>     Type of the items.
+ */
+public record CursorPage<T>(List<T> content, int size, boolean hasNext, String next) {
+}
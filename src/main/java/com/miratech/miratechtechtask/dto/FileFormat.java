@@ -0,0 +1,47 @@
+package com.miratech.miratechtechtask.dto;
+
+import lombok.Getter;
+import org.springframework.http.MediaType;
+
+/**
+ * File formats of the task export and import.
+ */
+@Getter
+public enum FileFormat {
+    /**
+     * One JSON task per line.
+     */
+    NDJSON(MediaType.APPLICATION_NDJSON, "ndjson"),
+    /**
+     * RFC 4180 CSV with a header line.
+     */
+    CSV(new MediaType("text", "csv"), "csv");
+
+    private final MediaType mediaType;
+
+    private final String extension;
+
+    FileFormat(MediaType mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public static FileFormat fromValue(String value) {
+        for (FileFormat format : values()) {
+            if (format.name().equalsIgnoreCase(value)) {
+                return format;
+            }
+        }
+        throw new BadRequestException("No file format: " + value);
+    }
+
+    public static FileFormat fromMediaType(MediaType mediaType) {
+        for (FileFormat format : values()) {
+            if (format.mediaType.equalsTypeAndSubtype(mediaType)) {
+                return format;
+            }
+        }
+        throw new BadRequestException("No file format for media type: " + mediaType);
+    }
+
+}
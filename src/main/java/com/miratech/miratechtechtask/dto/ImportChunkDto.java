@@ -0,0 +1,21 @@
+package com.miratech.miratechtechtask.dto;
+
+import java.util.List;
+
+/**
+ * Progress of a task import, reported after every loaded chunk.
+ *
+ * @param chunk         Number of the chunk, starting at 1.
+ * @param lastLine      Number of the last input line of the chunk.
+ * @param imported      Tasks loaded by the chunk.
+ * @param rejected      Lines of the chunk that were not loaded.
+ * @param totalImported Tasks loaded so far.
+ * @param totalRejected Lines rejected so far.
+ */
+public record ImportChunkDto(int chunk,
+                             long lastLine,
+                             long imported,
+                             List<RejectedLine> rejected,
+                             long totalImported,
+                             long totalRejected) {
+}
@@ -0,0 +1,43 @@
+package com.miratech.miratechtechtask.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+
+/**
+ * Page of results as returned by the API. Unlike a serialized {@link Page}, it does not echo the pageable
+ * of the request, and its fields are part of the API, unaffected by Spring Data upgrades.
+ *
+ * @param content       Items of the page.
+ * @param number        Zero-based number of the page.
+ * @param size          Requested page size.
+ * @param totalElements Total number of items, see {@link CountedPage} for how it was obtained.
+ * @param totalPages    Total number of pages.
+ * @param first         Whether this is the first page.
+ * @param last          Whether this is the last page.
+ * @param sort          Applied sort orders, each as 'property,direction' like the 'sort' parameter.
+ * @param countMode     How the total was obtained, absent for pages that do not report it.
+ * @param <T>           Type of the page items.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record PageDto<T>(List<T> content, int number, int size, long totalElements, int totalPages,
+                         boolean first, boolean last, List<String> sort, CountMode countMode) {
+
+    public static <T> PageDto<T> of(Page<T> page) {
+        return new PageDto<>(
+                page.getContent(),
+                page.getNumber(),
+                page.getSize(),
+                page.getTotalElements(),
+                page.getTotalPages(),
+                page.isFirst(),
+                page.isLast(),
+                page.getSort().stream()
+                        .map(order -> order.getProperty() + "," + order.getDirection().name().toLowerCase())
+                        .toList(),
+                page instanceof CountedPage<T> counted ? counted.getCountMode() : null
+        );
+    }
+
+}
@@ -0,0 +1,10 @@
+package com.miratech.miratechtechtask.dto;
+
+/**
+ * Line of a task import that was not loaded.
+ *
+ * @param line    Number of the line in the input, starting at 1; for CSV the line the record starts on.
+ * @param message Reason of the rejection.
+ */
+public record RejectedLine(long line, String message) {
+}
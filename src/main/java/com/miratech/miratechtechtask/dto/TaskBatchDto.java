@@ -0,0 +1,37 @@
+package com.miratech.miratechtechtask.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Builder;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Batch of task mutations applied in a single transaction. Omitted sections are treated as empty.
+ *
+ * @param create Tasks to create.
+ * @param update Tasks to update, identified by their ID.
+ * @param status Status changes.
+ * @param delete IDs of the tasks to delete.
+ */
+@Builder
+public record TaskBatchDto(@Size(max = TaskBatchDto.MAX_ITEMS) List<@Valid @NotNull TaskDto> create,
+                           @Size(max = TaskBatchDto.MAX_ITEMS) List<@Valid @NotNull TaskDto> update,
+                           @Size(max = TaskBatchDto.MAX_ITEMS) List<@Valid @NotNull BatchStatusDto> status,
+                           @Size(max = TaskBatchDto.MAX_ITEMS) List<@NotNull Long> delete) {
+
+    /**
+     * Maximum number of items per section, keeps IN lists below the PostgreSQL bind parameter limit.
+     */
+    public static final int MAX_ITEMS = 10_000;
+
+    public TaskBatchDto {
+        create = Objects.requireNonNullElse(create, List.of());
+        update = Objects.requireNonNullElse(update, List.of());
+        status = Objects.requireNonNullElse(status, List.of());
+        delete = Objects.requireNonNullElse(delete, List.of());
+    }
+
+}
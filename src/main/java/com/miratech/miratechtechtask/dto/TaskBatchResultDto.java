@@ -0,0 +1,12 @@
+package com.miratech.miratechtechtask.dto;
+
+import java.util.List;
+
+/**
+ * Per-item results of a {@link TaskBatchDto}, in the order of the request items.
+ */
+public record TaskBatchResultDto(List<BatchItemResult> create,
+                                 List<BatchItemResult> update,
+                                 List<BatchItemResult> status,
+                                 List<BatchItemResult> delete) {
+}
@@ -0,0 +1,15 @@
+package com.miratech.miratechtechtask.dto;
+
+import java.time.Instant;
+
+/**
+ * A mutation of a task as published in the change feed.
+ *
+ * @param offset Position of the change, to resume the feed after it.
+ * @param type   Kind of the mutation: created, updated or deleted.
+ * @param taskId ID of the mutated task.
+ * @param task   State of the task after the mutation; for deletes the last state before it.
+ * @param time   Time the mutating transaction started.
+ */
+public record TaskChangeDto(String offset, String type, Long taskId, TaskDto task, Instant time) {
+}
@@ -0,0 +1,51 @@
+package com.miratech.miratechtechtask.dto;
+
+/**
+ * Position in the task change feed, exchanged with clients as the SSE event ID. Changes are ordered by the
+ * transaction that made them and then by their ID within it.
+ *
+ * @param tx ID of the transaction of the last change received.
+ * @param id ID of the last change received.
+ */
+public record TaskChangeOffset(long tx, long id) implements Comparable<TaskChangeOffset> {
+
+    /**
+     * Position before the first change.
+     */
+    public static final TaskChangeOffset START = new TaskChangeOffset(0, 0);
+
+    private static final char SEPARATOR = '-';
+
+    /**
+     * Decodes an offset previously produced by {@link #encode()}.
+     *
+     * @param offset The offset, as sent in the ID of an event.
+     * @return The decoded offset.
+     * @throws BadRequestException if the offset is malformed.
+     */
+    public static TaskChangeOffset decode(String offset) {
+        try {
+            int separator = offset.indexOf(SEPARATOR);
+            return new TaskChangeOffset(Long.parseLong(offset.substring(0, separator)),
+                    Long.parseLong(offset.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new BadRequestException("Invalid change offset: " + offset);
+        }
+    }
+
+    @Override
+    public int compareTo(TaskChangeOffset other) {
+        int byTx = Long.compare(tx, other.tx);
+        return byTx != 0 ? byTx : Long.compare(id, other.id);
+    }
+
+    /**
+     * Encodes the offset for the ID of an event.
+     *
+     * @return The offset to resume after, as 'Last-Event-ID' header or 'after' parameter.
+     */
+    public String encode() {
+        return tx + String.valueOf(SEPARATOR) + id;
+    }
+
+}
@@ -0,0 +1,18 @@
+package com.miratech.miratechtechtask.dto;
+
+import com.miratech.miratechtechtask.validators.Labeled;
+
+/**
+ * Kind of mutation recorded in the task change feed.
+ */
+public enum TaskChangeType implements Labeled {
+    CREATED,
+    UPDATED,
+    DELETED;
+
+    @Override
+    public String label() {
+        return name().toLowerCase();
+    }
+
+}
@@ -0,0 +1,55 @@
+package com.miratech.miratechtechtask.dto;
+
+import com.miratech.miratechtechtask.entities.Task;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Keyset position of a task in the (title, id) ordering, exchanged with clients as an opaque token.
+ *
+ * @param title Title of the last task returned.
+ * @param id    ID of the last task returned, used as a tiebreaker between equal titles.
+ */
+public record TaskCursor(String title, Long id) {
+
+    private static final char SEPARATOR = ':';
+
+    /**
+     * Creates a cursor pointing at the given task.
+     *
+     * @param task The last task of a slice.
+     * @return The cursor positioned after the task.
+     */
+    public static TaskCursor of(Task task) {
+        return new TaskCursor(task.getTitle(), task.getId());
+    }
+
+    /**
+     * Decodes a token previously produced by {@link #encode()}.
+     *
+     * @param token The opaque cursor token.
+     * @return The decoded cursor.
+     * @throws BadRequestException if the token is malformed.
+     */
+    public static TaskCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            return new TaskCursor(raw.substring(separator + 1), Long.valueOf(raw.substring(0, separator)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new BadRequestException("Invalid cursor: " + token);
+        }
+    }
+
+    /**
+     * Encodes the cursor into a URL-safe opaque token.
+     *
+     * @return The token to pass as the 'after' parameter.
+     */
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((id + String.valueOf(SEPARATOR) + title).getBytes(StandardCharsets.UTF_8));
+    }
+
+}
@@ -1,9 +1,12 @@
 package com.miratech.miratechtechtask.dto;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import com.miratech.miratechtechtask.entities.Task;
 import com.miratech.miratechtechtask.validators.EnumValidator;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
 import lombok.*;
 
 import java.io.Serializable;
@@ -21,12 +24,23 @@ public class TaskDto implements Serializable {
     private Long id;
 
     @NotBlank
+    @Size(max = 50)
     private String title;
 
     @NotBlank
+    @Size(max = 255)
     private String description;
 
     @EnumValidator(enumClazz = TaskStatus.class)
     private String status;
 
+    /**
+     * ID of the parent task, absent for a top-level task.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long parentId;
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
+
 }
@@ -0,0 +1,60 @@
+package com.miratech.miratechtechtask.dto;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Task fields a response can be restricted to with the 'fields' parameter. Only the requested fields are
+ * selected from the database and serialized.
+ */
+public enum TaskField {
+    ID("id"),
+    TITLE("title"),
+    DESCRIPTION("description"),
+    STATUS("status"),
+    PARENT_ID("parentId"),
+    VERSION("version");
+
+    private final String property;
+
+    TaskField(String property) {
+        this.property = property;
+    }
+
+    public String property() {
+        return property;
+    }
+
+    public static TaskField fromValue(String value) {
+        for (TaskField field : values()) {
+            if (field.property.equalsIgnoreCase(value)) {
+                return field;
+            }
+        }
+        throw new BadRequestException("No task field: " + value);
+    }
+
+    /**
+     * Parses fields parameters such as 'id,title,status'.
+     *
+     * @param values Fields parameter values; a value may hold several comma-separated fields.
+     * @return The fields in declaration order, never empty.
+     * @throws BadRequestException If a field is unknown or none is given.
+     */
+    public static Set<TaskField> parse(List<String> values) {
+        Set<TaskField> fields = EnumSet.noneOf(TaskField.class);
+        for (String value : values) {
+            for (String token : value.split(",")) {
+                if (!token.isBlank()) {
+                    fields.add(fromValue(token.trim()));
+                }
+            }
+        }
+        if (fields.isEmpty()) {
+            throw new BadRequestException("At least one task field is required");
+        }
+        return fields;
+    }
+
+}
@@ -0,0 +1,48 @@
+package com.miratech.miratechtechtask.dto;
+
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Statuses of a task and all its subtasks, taken together.
+ *
+ * @param id       ID of the task at the root of the subtree.
+ * @param total    Number of tasks in the subtree, the root included.
+ * @param statuses Number of tasks per status, every status listed.
+ * @param status   Status of the subtree as a whole: completed when every task is, in testing when the others
+ *                 are in testing, to do or pending when none has been started, in progress otherwise.
+ */
+public record TaskRollupDto(Long id, long total, Map<String, Long> statuses, String status) {
+
+    private static final Set<TaskStatus> TESTED = EnumSet.of(TaskStatus.COMPLETED, TaskStatus.IN_TESTING);
+
+    private static final Set<TaskStatus> NOT_STARTED = EnumSet.of(TaskStatus.PENDING, TaskStatus.TO_DO);
+
+    /**
+     * @param counts Number of tasks per status present in the subtree, not empty.
+     */
+    public static TaskRollupDto of(Long id, Map<TaskStatus, Long> counts) {
+        Map<String, Long> statuses = new LinkedHashMap<>();
+        for (TaskStatus status : TaskStatus.values()) {
+            statuses.put(status.getStatus(), counts.getOrDefault(status, 0L));
+        }
+        Set<TaskStatus> present = counts.keySet();
+        TaskStatus status;
+        if (present.equals(Set.of(TaskStatus.COMPLETED))) {
+            status = TaskStatus.COMPLETED;
+        } else if (TESTED.containsAll(present)) {
+            status = TaskStatus.IN_TESTING;
+        } else if (present.equals(Set.of(TaskStatus.TO_DO))) {
+            status = TaskStatus.TO_DO;
+        } else if (NOT_STARTED.containsAll(present)) {
+            status = TaskStatus.PENDING;
+        } else {
+            status = TaskStatus.IN_PROGRESS;
+        }
+        long total = counts.values().stream().mapToLong(Long::longValue).sum();
+        return new TaskRollupDto(id, total, statuses, status.getStatus());
+    }
+
+}
@@ -0,0 +1,72 @@
+package com.miratech.miratechtechtask.dto;
+
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Properties task listings can be sorted by. Each one is indexed together with the ID, which is appended
+ * to every sort as the tiebreaker so that paging stays stable while tasks are inserted.
+ */
+public enum TaskSortKey {
+    ID,
+    TITLE,
+    /**
+     * Sorts in the declaration order of the database enum, not alphabetically.
+     */
+    STATUS;
+
+    public String property() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    public static TaskSortKey fromValue(String value) {
+        for (TaskSortKey key : values()) {
+            if (key.name().equalsIgnoreCase(value)) {
+                return key;
+            }
+        }
+        throw new BadRequestException("No sort key: " + value);
+    }
+
+    /**
+     * Parses sort parameters such as 'status', 'title,desc' or 'status,asc,title,desc': each key may be
+     * followed by its direction, ascending by default. Unless sorted by ID already, the ID is appended in
+     * the direction of the last key, so descending sorts are served by scanning an index backwards.
+     *
+     * @param values Sort parameter values; a value may hold several comma-separated tokens.
+     * @return The sort, never unsorted.
+     * @throws BadRequestException If a key is not sortable or a direction is misplaced.
+     */
+    public static Sort toSort(List<String> values) {
+        List<Sort.Order> orders = new ArrayList<>();
+        boolean byId = false;
+        for (String value : values) {
+            for (String token : value.split(",")) {
+                token = token.trim();
+                if (token.isEmpty()) {
+                    continue;
+                }
+                if (token.equalsIgnoreCase("asc") || token.equalsIgnoreCase("desc")) {
+                    if (orders.isEmpty()) {
+                        throw new BadRequestException("Sort direction without key: " + token);
+                    }
+                    Sort.Order last = orders.remove(orders.size() - 1);
+                    orders.add(last.with(Sort.Direction.fromString(token)));
+                    continue;
+                }
+                TaskSortKey key = fromValue(token);
+                byId |= key == ID;
+                orders.add(Sort.Order.asc(key.property()));
+            }
+        }
+        if (!byId) {
+            Sort.Direction direction = orders.isEmpty() ? Sort.Direction.ASC : orders.get(orders.size() - 1).getDirection();
+            orders.add(Sort.Order.by(ID.property()).with(direction));
+        }
+        return Sort.by(orders);
+    }
+
+}
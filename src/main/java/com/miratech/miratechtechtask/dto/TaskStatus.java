@@ -1,28 +1,38 @@
 package com.miratech.miratechtechtask.dto;
 
+import com.miratech.miratechtechtask.validators.CaseInsensitiveLookup;
+import com.miratech.miratechtechtask.validators.Labeled;
 import lombok.Getter;
 
+import java.util.Objects;
+
 @Getter
-public enum TaskStatus {
+public enum TaskStatus implements Labeled {
     PENDING("pending"),
     COMPLETED("completed"),
     IN_PROGRESS("in progress"),
     TO_DO("to do"),
     IN_TESTING("in testing");
 
+    private static final CaseInsensitiveLookup<TaskStatus> BY_STATUS = CaseInsensitiveLookup.of(TaskStatus.class);
+
     private final String status;
 
     TaskStatus(String status) {
         this.status = status;
     }
 
+    @Override
+    public String label() {
+        return status;
+    }
+
     public static TaskStatus fromStatus(String status) {
-        for (TaskStatus enumValue : values()) {
-            if (enumValue.getStatus().equalsIgnoreCase(status)) {
-                return enumValue;
-            }
+        TaskStatus taskStatus = BY_STATUS.get(status);
+        if (Objects.isNull(taskStatus)) {
+            throw new BadRequestException("No enum constant with status: " + status);
         }
-        throw new IllegalArgumentException("No enum constant with status: " + status);
+        return taskStatus;
     }
 
 }
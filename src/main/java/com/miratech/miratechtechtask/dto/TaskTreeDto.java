@@ -0,0 +1,14 @@
+package com.miratech.miratechtechtask.dto;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+
+import java.util.List;
+
+/**
+ * A task with its subtasks, nested level by level.
+ *
+ * @param task     The task, its fields written inline.
+ * @param subtasks Direct subtasks ordered by ID, empty for a leaf or below the requested depth.
+ */
+public record TaskTreeDto(@JsonUnwrapped TaskDto task, List<TaskTreeDto> subtasks) {
+}
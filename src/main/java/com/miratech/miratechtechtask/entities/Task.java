@@ -13,8 +13,15 @@ import org.hibernate.dialect.PostgreSQLEnumJdbcType;
 @Data
 @Table(name = "task")
 public class Task {
+
+    /**
+     * Number of IDs reserved by one call of the ID sequence, which increments by this value.
+     */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "task_id_seq")
+    @SequenceGenerator(name = "task_id_seq", sequenceName = "task_id_seq", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @Column(nullable = false)
@@ -28,4 +35,13 @@ public class Task {
     @Column(nullable = false)
     private TaskStatus status;
 
+    /**
+     * ID of the task this one is a subtask of, null for a top-level task.
+     */
+    private Long parentId;
+
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
 }
@@ -0,0 +1,56 @@
+package com.miratech.miratechtechtask.entities;
+
+import com.miratech.miratechtechtask.dto.TaskChangeType;
+import com.miratech.miratechtechtask.dto.TaskStatus;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.JdbcType;
+import org.hibernate.dialect.PostgreSQLEnumJdbcType;
+
+import java.time.Instant;
+
+/**
+ * Outbox entry of a task mutation with a snapshot of the task. Entries are written by native statements in
+ * the mutating transaction and only ever read through JPA.
+ */
+@Entity
+@Immutable
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Table(name = "task_change")
+public class TaskChange {
+
+    @Id
+    private Long id;
+
+    /**
+     * ID of the writing transaction, read as a number from its PostgreSQL xid8.
+     */
+    @Column(name = "tx_id", nullable = false)
+    private Long txId;
+
+    @Column(nullable = false)
+    private Long taskId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private TaskChangeType type;
+
+    private String title;
+
+    private String description;
+
+    @Enumerated(EnumType.STRING)
+    @JdbcType(PostgreSQLEnumJdbcType.class)
+    private TaskStatus status;
+
+    private Long parentId;
+
+    private Long version;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+}
@@ -1,12 +1,15 @@
 package com.miratech.miratechtechtask.mappers;
 
+import com.miratech.miratechtechtask.dto.TaskChangeDto;
+import com.miratech.miratechtechtask.dto.TaskChangeOffset;
 import com.miratech.miratechtechtask.dto.TaskDto;
 import com.miratech.miratechtechtask.dto.TaskStatus;
 import com.miratech.miratechtechtask.entities.Task;
+import com.miratech.miratechtechtask.entities.TaskChange;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
-import org.mapstruct.ValueMapping;
-import org.mapstruct.ValueMappings;
+
+import java.util.Objects;
 
 /**
  * Mapper interface for converting between Task and TaskDto objects.
@@ -21,6 +24,7 @@ public interface TaskMapper {
      * @return The corresponding Task entity.
      */
     @Mapping(target = "id", ignore = true)
+    @Mapping(target = "version", ignore = true)
     Task toEntity(TaskDto taskDto);
 
     /**
@@ -31,33 +35,36 @@ public interface TaskMapper {
      */
     TaskDto toDto(Task task);
 
+    /**
+     * Converts an outbox entry to the change published in the feed.
+     *
+     * @param change The TaskChange entity to be converted.
+     * @return The corresponding TaskChangeDto, carrying the task snapshot as a TaskDto.
+     */
+    default TaskChangeDto toChangeDto(TaskChange change) {
+        TaskDto task = new TaskDto(change.getTaskId(), change.getTitle(), change.getDescription(),
+                mapTaskStatusToString(change.getStatus()), change.getParentId(), change.getVersion());
+        return new TaskChangeDto(new TaskChangeOffset(change.getTxId(), change.getId()).encode(),
+                change.getType().label(), change.getTaskId(), task, change.getCreatedAt());
+    }
+
     /**
      * Maps a TaskStatus enum value to a string representation.
      *
      * @param status The TaskStatus enum value to be mapped.
      * @return The string representation of the TaskStatus.
      */
-    @ValueMappings({
-            @ValueMapping(source = "PENDING", target = "pending"),
-            @ValueMapping(source = "COMPLETED", target = "completed"),
-            @ValueMapping(source = "IN_PROGRESS", target = "in progress"),
-            @ValueMapping(source = "TO_DO", target = "to do"),
-            @ValueMapping(source = "IN_TESTING", target = "in testing")
-    })
-    String mapTaskStatusToString(TaskStatus status);
+    default String mapTaskStatusToString(TaskStatus status) {
+        return Objects.isNull(status) ? null : status.getStatus();
+    }
 
     /**
-     * Maps a string representation of TaskStatus to the corresponding enum value.
+     * Maps a string representation of TaskStatus to the corresponding enum value, ignoring case.
      *
      * @param status The string representation of TaskStatus.
      * @return The corresponding TaskStatus enum value.
      */
-    @ValueMappings({
-            @ValueMapping(source = "pending", target = "PENDING"),
-            @ValueMapping(source = "completed", target = "COMPLETED"),
-            @ValueMapping(source = "in progress", target = "IN_PROGRESS"),
-            @ValueMapping(source = "to do", target = "TO_DO"),
-            @ValueMapping(source = "in testing", target = "IN_TESTING")
-    })
-    TaskStatus mapStringToTaskStatus(String status);
+    default TaskStatus mapStringToTaskStatus(String status) {
+        return Objects.isNull(status) ? null : TaskStatus.fromStatus(status);
+    }
 }
@@ -0,0 +1,242 @@
+package com.miratech.miratechtechtask.repositories;
+
+import com.miratech.miratechtechtask.dto.TaskChangeType;
+import com.miratech.miratechtechtask.dto.TaskSortKey;
+import com.miratech.miratechtechtask.dto.TaskStatus;
+import com.miratech.miratechtechtask.entities.Task;
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.domain.Sort;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.StringJoiner;
+
+/**
+ * Non-blocking access to the task table over R2DBC, used by the reactive variant of the API.
+ * Statements mirror the native queries of {@link TaskRepository}; the status enum is cast to and from text
+ * so that no driver codec is needed for task_status_type. A task can be created under an existing parent, which
+ * the foreign key checks; an update keeps the parent or moves the task to the top level, as neither can make a
+ * cycle. Moves under another parent are left to the servlet API, which locks the hierarchy to check for cycles.
+ * <p>
+ * Writes record their change in the outbox, like {@link TaskChangeRepository#append}, within the same statement:
+ * a data-modifying CTE is atomic, so no transaction manager is needed.
+ */
+@Repository
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveTaskRepository {
+
+    /**
+     * Rows fetched from the server per round trip when streaming, so that a slow subscriber holds back the query.
+     */
+    static final int FETCH_SIZE = 256;
+
+    private static final String COLUMNS = "id, title, description, CAST(status AS TEXT) AS status, parent_id, version";
+
+    private static final String SQL_VERSIONS = "(CAST(:versions AS BIGINT[]) IS NULL OR version = ANY(:versions))";
+
+    private static final String SQL_CHANGED = " RETURNING id, title, description, status, parent_id, version), ";
+
+    private static final String SQL_RECORD_CHANGE = "change AS (INSERT INTO task_change " +
+            "(task_id, type, title, description, status, parent_id, version) " +
+            "SELECT id, :type, title, description, status, parent_id, version FROM changed) ";
+
+    private final DatabaseClient databaseClient;
+
+    /**
+     * Finds tasks in the given order.
+     *
+     * @param title  Title of the task to filter by (optional).
+     * @param status Status of the task to filter by (optional).
+     * @param sort   Order of the tasks; only the properties of {@link TaskSortKey} are accepted.
+     * @param offset Number of tasks to skip.
+     * @param limit  Maximum number of tasks, or null for all of them.
+     * @return The tasks, emitted as the subscriber requests them.
+     */
+    public Flux<Task> findAll(String title, TaskStatus status, Sort sort, long offset, Integer limit) {
+        StringBuilder sql = new StringBuilder("SELECT ").append(COLUMNS).append(" FROM task")
+                .append(where(title, status))
+                .append(orderBy(sort))
+                .append(" OFFSET :offset");
+        if (Objects.nonNull(limit)) {
+            sql.append(" LIMIT :limit");
+        }
+        DatabaseClient.GenericExecuteSpec spec = bindFilter(databaseClient.sql(sql.toString()), title, status)
+                .bind("offset", offset)
+                .filter(statement -> statement.fetchSize(FETCH_SIZE));
+        if (Objects.nonNull(limit)) {
+            spec = spec.bind("limit", limit);
+        }
+        return spec.map(ReactiveTaskRepository::toTask).all();
+    }
+
+    /**
+     * Counts tasks matching the filter.
+     *
+     * @param title  Title of the task to filter by (optional).
+     * @param status Status of the task to filter by (optional).
+     * @return The number of matching tasks.
+     */
+    public Mono<Long> count(String title, TaskStatus status) {
+        return bindFilter(databaseClient.sql("SELECT COUNT(*) FROM task" + where(title, status)), title, status)
+                .map(row -> row.get(0, Long.class))
+                .one();
+    }
+
+    public Mono<Task> findById(Long id) {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM task WHERE id = :id")
+                .bind("id", id)
+                .map(ReactiveTaskRepository::toTask)
+                .one();
+    }
+
+    public Mono<Boolean> existsById(Long id) {
+        return databaseClient.sql("SELECT EXISTS (SELECT 1 FROM task WHERE id = :id)")
+                .bind("id", id)
+                .map(row -> row.get(0, Boolean.class))
+                .one();
+    }
+
+    /**
+     * Inserts a task with the next value of the ID sequence and records its creation.
+     *
+     * @param task The task to insert, its ID and version are ignored. A missing parent fails the foreign key.
+     * @return The inserted task.
+     */
+    public Mono<Task> insert(Task task) {
+        return bindParentId(recorded(TaskChangeType.CREATED, "INSERT INTO task " +
+                        "(id, title, description, status, parent_id, version) VALUES (nextval('task_id_seq'), " +
+                        ":title, :description, CAST(:status AS task_status_type), :parentId, 0)",
+                "SELECT " + COLUMNS + " FROM changed"), task.getParentId())
+                .bind("title", task.getTitle())
+                .bind("description", task.getDescription())
+                .bind("status", task.getStatus().name())
+                .map(ReactiveTaskRepository::toTask)
+                .one();
+    }
+
+    /**
+     * Updates all fields of a task, increments its version and records the update. The parent is only set if it
+     * stays the same or is null, which moves the task to the top level.
+     *
+     * @return The updated task, or empty if no task has the ID, the parent and, when given, one of the versions.
+     */
+    public Mono<Task> updateById(Long id, String title, String description, TaskStatus status, Long parentId,
+                                 Long[] versions) {
+        return bindParentId(bindVersions(recorded(TaskChangeType.UPDATED, "UPDATE task SET title = :title, " +
+                        "description = :description, status = CAST(:status AS task_status_type), " +
+                        "parent_id = :parentId, version = version + 1 WHERE id = :id AND " + SQL_VERSIONS +
+                        " AND (CAST(:parentId AS BIGINT) IS NULL OR parent_id = :parentId)",
+                "SELECT " + COLUMNS + " FROM changed"), versions), parentId)
+                .bind("id", id)
+                .bind("title", title)
+                .bind("description", description)
+                .bind("status", status.name())
+                .map(ReactiveTaskRepository::toTask)
+                .one();
+    }
+
+    /**
+     * Updates the status of a task, increments its version and records the update.
+     *
+     * @return The updated task, or empty if no task has the ID and, when given, one of the versions.
+     */
+    public Mono<Task> updateStatusById(Long id, TaskStatus status, Long[] versions) {
+        return bindVersions(recorded(TaskChangeType.UPDATED, "UPDATE task SET " +
+                        "status = CAST(:status AS task_status_type), version = version + 1 " +
+                        "WHERE id = :id AND " + SQL_VERSIONS,
+                "SELECT " + COLUMNS + " FROM changed"), versions)
+                .bind("id", id)
+                .bind("status", status.name())
+                .map(ReactiveTaskRepository::toTask)
+                .one();
+    }
+
+    /**
+     * Deletes a task and records the deletion with its last state.
+     *
+     * @return The number of deleted tasks, 0 if no task has the ID and, when given, one of the versions.
+     */
+    public Mono<Long> removeById(Long id, Long[] versions) {
+        return bindVersions(recorded(TaskChangeType.DELETED, "DELETE FROM task " +
+                        "WHERE id = :id AND " + SQL_VERSIONS,
+                "SELECT COUNT(*) FROM changed"), versions)
+                .bind("id", id)
+                .map(row -> row.get(0, Long.class))
+                .one();
+    }
+
+    /**
+     * Wraps a data-modifying statement so that the rows it changes are also recorded in the outbox.
+     *
+     * @param type      Type of the recorded change.
+     * @param statement The INSERT, UPDATE or DELETE, without RETURNING clause.
+     * @param select    The result of the statement, selected from the changed rows.
+     */
+    private DatabaseClient.GenericExecuteSpec recorded(TaskChangeType type, String statement, String select) {
+        return databaseClient.sql("WITH changed AS (" + statement + SQL_CHANGED + SQL_RECORD_CHANGE + select)
+                .bind("type", type.name());
+    }
+
+    /**
+     * Renders the ORDER BY clause. Properties are checked against the sort keys, which are column names.
+     */
+    private static String orderBy(Sort sort) {
+        StringJoiner orderBy = new StringJoiner(", ", " ORDER BY ", "").setEmptyValue("");
+        for (Sort.Order order : sort) {
+            orderBy.add(TaskSortKey.fromValue(order.getProperty()).property() + " " + order.getDirection().name());
+        }
+        return orderBy.toString();
+    }
+
+    private static String where(String title, TaskStatus status) {
+        List<String> conditions = new ArrayList<>();
+        if (Objects.nonNull(title)) {
+            conditions.add("title = :title");
+        }
+        if (Objects.nonNull(status)) {
+            conditions.add("status = CAST(:status AS task_status_type)");
+        }
+        return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bindFilter(DatabaseClient.GenericExecuteSpec spec,
+                                                                String title, TaskStatus status) {
+        if (Objects.nonNull(title)) {
+            spec = spec.bind("title", title);
+        }
+        if (Objects.nonNull(status)) {
+            spec = spec.bind("status", status.name());
+        }
+        return spec;
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bindVersions(DatabaseClient.GenericExecuteSpec spec,
+                                                                  Long[] versions) {
+        return Objects.isNull(versions) ? spec.bindNull("versions", Long[].class) : spec.bind("versions", versions);
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bindParentId(DatabaseClient.GenericExecuteSpec spec,
+                                                                  Long parentId) {
+        return Objects.isNull(parentId) ? spec.bindNull("parentId", Long.class) : spec.bind("parentId", parentId);
+    }
+
+    private static Task toTask(Readable row) {
+        return Task.builder()
+                .id(row.get("id", Long.class))
+                .title(row.get("title", String.class))
+                .description(row.get("description", String.class))
+                .status(TaskStatus.valueOf(row.get("status", String.class)))
+                .parentId(row.get("parent_id", Long.class))
+                .version(row.get("version", Long.class))
+                .build();
+    }
+
+}
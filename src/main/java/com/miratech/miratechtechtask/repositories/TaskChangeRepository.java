@@ -0,0 +1,95 @@
+package com.miratech.miratechtechtask.repositories;
+
+import com.miratech.miratechtechtask.dto.TaskChangeType;
+import com.miratech.miratechtechtask.entities.TaskChange;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Outbox of task mutations. Changes become visible to {@link #findCommittedAfter} once no transaction that
+ * is older than theirs is still running, so reading them in order never skips a change committed later.
+ * Reads are not read-only so that they see the snapshot of the primary, never a replica.
+ */
+public interface TaskChangeRepository extends JpaRepository<TaskChange, Long> {
+
+    String SQL_SELECT = "SELECT id, CAST(CAST(tx_id AS TEXT) AS BIGINT) AS tx_id, task_id, type, title, description, " +
+            "status, parent_id, version, created_at FROM {h-schema}task_change ";
+
+    String SQL_COMMITTED = "tx_id < pg_snapshot_xmin(pg_current_snapshot()) ";
+
+    /**
+     * Records a mutation of the given tasks with their current state, in one statement. Must run in the
+     * transaction of the mutation, after it and before a delete.
+     *
+     * @param type Name of the {@link TaskChangeType} constant.
+     * @param ids  IDs of the mutated tasks; missing tasks are skipped.
+     * @return The number of recorded changes.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO {h-schema}task_change (task_id, type, title, description, status, parent_id, version) " +
+            "SELECT id, :type, title, description, status, parent_id, version FROM {h-schema}task WHERE id IN (:ids) " +
+            "ORDER BY id", nativeQuery = true)
+    int append(@Param("type") String type, @Param("ids") Collection<Long> ids);
+
+    /**
+     * Same as {@link #append}, but binds the IDs as a single array parameter, for the thousands of tasks
+     * inserted by one import chunk.
+     *
+     * @param type Name of the {@link TaskChangeType} constant.
+     * @param ids  IDs of the mutated tasks; missing tasks are skipped.
+     * @return The number of recorded changes.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO {h-schema}task_change (task_id, type, title, description, status, parent_id, version) " +
+            "SELECT id, :type, title, description, status, parent_id, version FROM {h-schema}task WHERE id = ANY(:ids) " +
+            "ORDER BY id", nativeQuery = true)
+    int appendAll(@Param("type") String type, @Param("ids") Long[] ids);
+
+    /**
+     * Reads the committed changes following an offset.
+     *
+     * @param tx    Transaction of the offset.
+     * @param id    Change ID of the offset.
+     * @param limit Maximum number of changes.
+     * @return The changes in feed order.
+     */
+    @Transactional
+    @Query(value = SQL_SELECT + "WHERE (tx_id, id) > (CAST(CAST(:tx AS TEXT) AS XID8), :id) AND " + SQL_COMMITTED +
+            "ORDER BY tx_id, id LIMIT :limit", nativeQuery = true)
+    List<TaskChange> findCommittedAfter(@Param("tx") long tx, @Param("id") long id, @Param("limit") int limit);
+
+    /**
+     * @return The last committed change, the current end of the feed.
+     */
+    @Transactional
+    @Query(value = SQL_SELECT + "WHERE " + SQL_COMMITTED + "ORDER BY tx_id DESC, id DESC LIMIT 1", nativeQuery = true)
+    Optional<TaskChange> findLastCommitted();
+
+    /**
+     * @return The first retained change, committed or not; consumers at an earlier offset may have missed changes.
+     */
+    @Transactional
+    @Query(value = SQL_SELECT + "ORDER BY tx_id, id LIMIT 1", nativeQuery = true)
+    Optional<TaskChange> findFirst();
+
+    /**
+     * Deletes the changes recorded before the given time, except the last committed one, so that
+     * {@link #findFirst} still tells how far back the feed goes when no change is recent.
+     *
+     * @return The number of deleted changes.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM {h-schema}task_change WHERE created_at < :before AND id <> " +
+            "(SELECT id FROM {h-schema}task_change ORDER BY tx_id DESC, id DESC LIMIT 1)", nativeQuery = true)
+    int deleteOlderThan(@Param("before") Instant before);
+
+}
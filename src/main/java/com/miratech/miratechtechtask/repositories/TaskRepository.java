@@ -1,11 +1,161 @@
 package com.miratech.miratechtechtask.repositories;
 
+import com.miratech.miratechtechtask.dto.TaskStatus;
 import com.miratech.miratechtechtask.entities.Task;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+
+public interface TaskRepository extends JpaRepository<Task, Long>, JpaSpecificationExecutor<Task>,
+        TaskRepositoryCustom {
+
+    String SQL_COLUMNS = "id, title, description, status, parent_id, version";
+
+    /**
+     * Precondition of a conditional write: the task has one of the :versions, or any version if they are null.
+     */
+    String SQL_VERSIONS = "(CAST(:versions AS BIGINT[]) IS NULL OR version = ANY(CAST(:versions AS BIGINT[]))) ";
+
+    /**
+     * Walks down from a task to its subtasks, level by level. The path of IDs orders the tasks depth first and
+     * stops the walk at a cycle, which concurrent moves of tasks can still create.
+     */
+    String SQL_SUBTREE = "WITH RECURSIVE subtree AS (" +
+            "SELECT " + SQL_COLUMNS + ", 0 AS depth, ARRAY[id] AS path FROM {h-schema}task WHERE id = :id " +
+            "UNION ALL " +
+            "SELECT t.id, t.title, t.description, t.status, t.parent_id, t.version, s.depth + 1, s.path || t.id " +
+            "FROM {h-schema}task t JOIN subtree s ON t.parent_id = s.id " +
+            "WHERE s.depth < :depth AND t.id <> ALL (s.path)) ";
+
+    /**
+     * Walks up from a task to its top-level ancestor, guarded against cycles like {@link #SQL_SUBTREE}.
+     */
+    String SQL_ANCESTORS = "WITH RECURSIVE ancestors AS (" +
+            "SELECT " + SQL_COLUMNS + ", 0 AS depth, ARRAY[id] AS path FROM {h-schema}task WHERE id = :id " +
+            "UNION ALL " +
+            "SELECT t.id, t.title, t.description, t.status, t.parent_id, t.version, a.depth + 1, a.path || t.id " +
+            "FROM {h-schema}task t JOIN ancestors a ON t.id = a.parent_id " +
+            "WHERE t.id <> ALL (a.path)) ";
+
+    /**
+     * {@link #SQL_ANCESTORS} of the task given as :parentId.
+     */
+    String SQL_PARENT_ANCESTORS = "WITH RECURSIVE ancestors AS (" +
+            "SELECT id, parent_id, ARRAY[id] AS path FROM {h-schema}task WHERE id = :parentId " +
+            "UNION ALL " +
+            "SELECT t.id, t.parent_id, a.path || t.id " +
+            "FROM {h-schema}task t JOIN ancestors a ON t.id = a.parent_id " +
+            "WHERE t.id <> ALL (a.path)) ";
 
-public interface TaskRepository extends JpaRepository<Task, Long>, JpaSpecificationExecutor<Task> {
     List<Task> findByTitle(String title);
+
+    @Query("select t.id from Task t where t.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Overwrites all fields of a task and reads the updated row back in the same statement.
+     *
+     * @param status   Name of the {@link TaskStatus} constant.
+     * @param parentId ID of the new parent, or null to make the task a top-level one.
+     * @param versions Expected current versions, or null to update any version.
+     * @return The updated task, empty if the task does not exist or has another version.
+     */
+    @Transactional
+    @Query(value = "UPDATE {h-schema}task SET title = :title, description = :description, " +
+            "status = CAST(:status AS {h-schema}task_status_type), parent_id = :parentId, version = version + 1 " +
+            "WHERE id = :id AND " + SQL_VERSIONS +
+            "RETURNING *", nativeQuery = true)
+    Optional<Task> updateById(@Param("id") Long id,
+                              @Param("title") String title,
+                              @Param("description") String description,
+                              @Param("status") String status,
+                              @Param("parentId") Long parentId,
+                              @Param("versions") Long[] versions);
+
+    /**
+     * Sets the status of a task and reads the updated row back in the same statement.
+     *
+     * @param status   Name of the {@link TaskStatus} constant.
+     * @param versions Expected current versions, or null to update any version.
+     * @return The updated task, empty if the task does not exist or has another version.
+     */
+    @Transactional
+    @Query(value = "UPDATE {h-schema}task SET status = CAST(:status AS {h-schema}task_status_type), " +
+            "version = version + 1 " +
+            "WHERE id = :id AND " + SQL_VERSIONS +
+            "RETURNING *", nativeQuery = true)
+    Optional<Task> updateStatusById(@Param("id") Long id, @Param("status") String status,
+                                    @Param("versions") Long[] versions);
+
+    /**
+     * Deletes a task in one statement.
+     *
+     * @param versions Expected current versions, or null to delete any version.
+     * @return The number of deleted rows, 0 if the task does not exist or has another version.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "DELETE FROM {h-schema}task WHERE id = :id AND " + SQL_VERSIONS, nativeQuery = true)
+    int removeById(@Param("id") Long id, @Param("versions") Long[] versions);
+
+    /**
+     * Reads a task and its subtasks in one statement.
+     *
+     * @param depth Levels of subtasks to read, 0 for the task alone.
+     * @return The task followed by its subtasks depth first, siblings ordered by ID; empty if the task does not exist.
+     */
+    @Query(value = SQL_SUBTREE + "SELECT " + SQL_COLUMNS + " FROM subtree ORDER BY path", nativeQuery = true)
+    List<Task> findSubtree(@Param("id") Long id, @Param("depth") int depth);
+
+    /**
+     * Reads a task and its ancestors in one statement.
+     *
+     * @return The top-level ancestor first and the task itself last; empty if the task does not exist.
+     */
+    @Query(value = SQL_ANCESTORS + "SELECT " + SQL_COLUMNS + " FROM ancestors ORDER BY depth DESC", nativeQuery = true)
+    List<Task> findAncestors(@Param("id") Long id);
+
+    /**
+     * @return The IDs of a task and its ancestors, the task first; empty if the task does not exist.
+     */
+    @Query(value = SQL_ANCESTORS + "SELECT id FROM ancestors ORDER BY depth", nativeQuery = true)
+    List<Long> findAncestorIds(@Param("id") Long id);
+
+    /**
+     * Locks a task and the ancestors a new parent has, in ID order so that concurrent moves wait for each other
+     * rather than deadlock. The lock is the one an update of the row takes, which does not hold off the insert of
+     * subtasks. The ancestors are those seen when the statement started and may have changed by the time the
+     * locks are granted; read them again with {@link #findAncestorIds} to check.
+     *
+     * @param id       ID of the task to move.
+     * @param parentId ID of its new parent.
+     * @return The IDs locked.
+     */
+    @Query(value = SQL_PARENT_ANCESTORS + "SELECT id FROM {h-schema}task " +
+            "WHERE id = :id OR id IN (SELECT id FROM ancestors) ORDER BY id FOR NO KEY UPDATE", nativeQuery = true)
+    List<Long> lockForMove(@Param("id") Long id, @Param("parentId") Long parentId);
+
+    /**
+     * Locks the given tasks against deletion until the transaction ends, as a reference to them does.
+     *
+     * @return The IDs of the tasks that exist.
+     */
+    @Query(value = "SELECT id FROM {h-schema}task WHERE id IN (:ids) FOR KEY SHARE", nativeQuery = true)
+    List<Long> lockExistingIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Counts the tasks of a subtree, the root included, by status in one statement.
+     *
+     * @return A count per status present in the subtree; empty if the task does not exist.
+     */
+    @Query(value = SQL_SUBTREE + "SELECT CAST(status AS TEXT) AS status, COUNT(*) AS count FROM subtree " +
+            "GROUP BY status", nativeQuery = true)
+    List<TaskStatusCount> countSubtreeByStatus(@Param("id") Long id, @Param("depth") int depth);
 }
@@ -0,0 +1,111 @@
+package com.miratech.miratechtechtask.repositories;
+
+import com.miratech.miratechtechtask.dto.TaskField;
+import com.miratech.miratechtechtask.dto.TaskStatus;
+import com.miratech.miratechtechtask.entities.Task;
+import jakarta.persistence.Tuple;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Task queries that cannot be expressed through derived or annotated repository methods.
+ */
+public interface TaskRepositoryCustom {
+
+    /**
+     * Number of rows fetched per round trip by {@link #streamAll}.
+     */
+    int STREAM_FETCH_SIZE = 1000;
+
+    /**
+     * Retrieves a page of tasks without issuing a count query.
+     *
+     * @param spec     Filter of the tasks.
+     * @param pageable Pagination information.
+     * @return A slice of tasks that knows whether a next page exists.
+     */
+    Slice<Task> findSlice(Specification<Task> spec, Pageable pageable);
+
+    /**
+     * Retrieves a page of tasks selecting only the given fields. No entities are loaded, so columns that
+     * were not requested are neither read nor hydrated.
+     *
+     * @param spec     Filter of the tasks.
+     * @param pageable Pagination information.
+     * @param fields   Fields to select.
+     * @return A slice of tuples whose elements are aliased by {@link TaskField#property()}.
+     */
+    Slice<Tuple> findFields(Specification<Task> spec, Pageable pageable, Set<TaskField> fields);
+
+    /**
+     * Retrieves the given fields of a task.
+     *
+     * @param id     The ID of the task.
+     * @param fields Fields to select.
+     * @return The tuple whose elements are aliased by {@link TaskField#property()}, empty if the task does not exist.
+     */
+    Optional<Tuple> findFieldsById(Long id, Set<TaskField> fields);
+
+    /**
+     * Estimates the number of tasks matching the filter from PostgreSQL planner statistics.
+     *
+     * @param q      Search query, see {@link #search} (optional).
+     * @param title  Title of the task to filter by (optional).
+     * @param status Status of the task to filter by (optional).
+     * @return The estimated number of matching tasks.
+     */
+    long estimateCount(String q, String title, TaskStatus status);
+
+    /**
+     * Searches tasks whose title or description match the query as full text (web search syntax, English stemming),
+     * or whose title contains the query. Served by the GIN indexes on the search column and on title trigrams.
+     *
+     * @param q      The search query.
+     * @param title  Title of the task to filter by (optional).
+     * @param status Status of the task to filter by (optional).
+     * @param offset Number of matching tasks to skip.
+     * @param limit  Maximum number of tasks.
+     * @return The matching tasks, best ranked first.
+     */
+    List<Task> search(String q, String title, TaskStatus status, long offset, int limit);
+
+    /**
+     * Counts the tasks matched by {@link #search}.
+     *
+     * @param q      The search query.
+     * @param title  Title of the task to filter by (optional).
+     * @param status Status of the task to filter by (optional).
+     * @return The number of matching tasks.
+     */
+    long countSearch(String q, String title, TaskStatus status);
+
+    /**
+     * Streams all tasks matching the filter through a server-side cursor. Must be consumed within a transaction
+     * and closed afterwards; tasks are detached as they are read, so the persistence context does not grow.
+     *
+     * @param spec Filter of the tasks.
+     * @param sort Order of the tasks.
+     * @return The matching tasks, read from the database in batches of {@link #STREAM_FETCH_SIZE}.
+     */
+    Stream<Task> streamAll(Specification<Task> spec, Sort sort);
+
+    /**
+     * Inserts new tasks with a single PostgreSQL COPY, which is atomic: either all tasks are inserted or none.
+     * IDs are reserved from the task sequence in blocks of {@link Task#ID_ALLOCATION_SIZE}, the same way
+     * Hibernate's pooled optimizer does, so they never collide with IDs assigned by JPA. The reserved IDs are
+     * set on the tasks; as with JPA, they are only valid once the transaction commits.
+     *
+     * @param tasks The tasks to insert; their IDs and versions are ignored. Their parents must exist, otherwise
+     *              the foreign key fails the whole COPY.
+     * @return The number of inserted tasks.
+     */
+    long copyIn(List<Task> tasks);
+
+}
@@ -0,0 +1,295 @@
+package com.miratech.miratechtechtask.repositories;
+
+import com.miratech.miratechtechtask.dto.TaskField;
+import com.miratech.miratechtechtask.dto.TaskStatus;
+import com.miratech.miratechtechtask.entities.Task;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.HibernateHints;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+@RequiredArgsConstructor
+public class TaskRepositoryCustomImpl implements TaskRepositoryCustom {
+
+    private static final String SQL_RELTUPLES = "SELECT CAST(reltuples AS BIGINT) FROM pg_class " +
+            "WHERE oid = to_regclass(:table)";
+
+    private static final String SQL_EXPLAIN = "EXPLAIN SELECT 1 FROM {h-schema}task";
+
+    private static final String SQL_TS_QUERY = "websearch_to_tsquery('english', :q)";
+
+    private static final String SQL_SEARCH = "SELECT id, title, description, status, parent_id, version FROM {h-schema}task";
+
+    /**
+     * Full-text rank, weighted towards title matches by the search column, plus trigram similarity of the title
+     * so that titles matched only by substring are ranked too; id keeps the order of equal ranks stable.
+     */
+    private static final String SQL_SEARCH_ORDER = " ORDER BY ts_rank(search, " + SQL_TS_QUERY + ") + " +
+            "{h-schema}similarity(title, :q) DESC, id";
+
+    private static final String SQL_COUNT = "SELECT COUNT(*) FROM {h-schema}task";
+
+    private static final Pattern LIKE_SPECIAL = Pattern.compile("[\\\\%_]");
+
+    private static final Pattern PLAN_ROWS = Pattern.compile("rows=(\\d+)");
+
+    private static final String SQL_RESERVE_IDS = "SELECT nextval('%s') FROM generate_series(1, ?)";
+
+    private static final String SQL_COPY = "COPY %s (id, title, description, status, parent_id, version) " +
+            "FROM STDIN WITH (FORMAT csv)";
+
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public Slice<Task> findSlice(Specification<Task> spec, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Task> query = cb.createQuery(Task.class);
+        Root<Task> root = query.from(Task.class);
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (Objects.nonNull(predicate)) {
+            query.where(predicate);
+        }
+        query.select(root).orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+
+        List<Task> tasks = entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize() + 1)
+                .getResultList();
+        boolean hasNext = tasks.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? tasks.subList(0, pageable.getPageSize()) : tasks, pageable, hasNext);
+    }
+
+    @Override
+    public Slice<Tuple> findFields(Specification<Task> spec, Pageable pageable, Set<TaskField> fields) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Task> root = query.from(Task.class);
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (Objects.nonNull(predicate)) {
+            query.where(predicate);
+        }
+        query.multiselect(selections(root, fields)).orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+
+        List<Tuple> tuples = entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize() + 1)
+                .getResultList();
+        boolean hasNext = tuples.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? tuples.subList(0, pageable.getPageSize()) : tuples, pageable, hasNext);
+    }
+
+    @Override
+    public Optional<Tuple> findFieldsById(Long id, Set<TaskField> fields) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Task> root = query.from(Task.class);
+        query.multiselect(selections(root, fields)).where(cb.equal(root.get("id"), id));
+        return entityManager.createQuery(query).getResultStream().findFirst();
+    }
+
+    private static List<Selection<?>> selections(Root<Task> root, Set<TaskField> fields) {
+        List<Selection<?>> selections = new ArrayList<>(fields.size());
+        for (TaskField field : fields) {
+            selections.add(root.get(field.property()).alias(field.property()));
+        }
+        return selections;
+    }
+
+    @Override
+    public long estimateCount(String q, String title, TaskStatus status) {
+        if (Objects.isNull(q) && Objects.isNull(title) && Objects.isNull(status)) {
+            long reltuples = ((Number) entityManager.createNativeQuery(SQL_RELTUPLES)
+                    .setParameter("table", qualifiedTableName())
+                    .getSingleResult()).longValue();
+            // reltuples is -1 until the table has been vacuumed or analyzed for the first time
+            if (reltuples >= 0) {
+                return reltuples;
+            }
+        }
+        Query explain = bindFilter(entityManager.createNativeQuery(SQL_EXPLAIN + where(q, title, status)), q, title, status);
+        Matcher matcher = PLAN_ROWS.matcher((String) explain.getResultList().get(0));
+        return matcher.find() ? Long.parseLong(matcher.group(1)) : 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Task> search(String q, String title, TaskStatus status, long offset, int limit) {
+        return bindFilter(entityManager.createNativeQuery(SQL_SEARCH + where(q, title, status) + SQL_SEARCH_ORDER, Task.class),
+                q, title, status)
+                .setFirstResult((int) offset)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public long countSearch(String q, String title, TaskStatus status) {
+        return ((Number) bindFilter(entityManager.createNativeQuery(SQL_COUNT + where(q, title, status)), q, title, status)
+                .getSingleResult()).longValue();
+    }
+
+    /**
+     * Builds the WHERE clause of the native queries. The search condition is a disjunction of the full-text
+     * match and a substring match on title, which PostgreSQL answers with a bitmap OR of the two GIN indexes.
+     */
+    private static String where(String q, String title, TaskStatus status) {
+        List<String> conditions = new ArrayList<>();
+        if (Objects.nonNull(q)) {
+            conditions.add("(search @@ " + SQL_TS_QUERY + " OR title ILIKE :pattern)");
+        }
+        if (Objects.nonNull(title)) {
+            conditions.add("title = :title");
+        }
+        if (Objects.nonNull(status)) {
+            conditions.add("status = CAST(:status AS {h-schema}task_status_type)");
+        }
+        return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+    }
+
+    private static Query bindFilter(Query query, String q, String title, TaskStatus status) {
+        if (Objects.nonNull(q)) {
+            query.setParameter("q", q);
+            query.setParameter("pattern", "%" + LIKE_SPECIAL.matcher(q).replaceAll("\\\\$0") + "%");
+        }
+        if (Objects.nonNull(title)) {
+            query.setParameter("title", title);
+        }
+        if (Objects.nonNull(status)) {
+            query.setParameter("status", status.name());
+        }
+        return query;
+    }
+
+    @Override
+    public Stream<Task> streamAll(Specification<Task> spec, Sort sort) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Task> query = cb.createQuery(Task.class);
+        Root<Task> root = query.from(Task.class);
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (Objects.nonNull(predicate)) {
+            query.where(predicate);
+        }
+        query.select(root).orderBy(QueryUtils.toOrders(sort, root, cb));
+
+        // PostgreSQL only honours the fetch size with a cursor when auto-commit is off, i.e. inside a transaction
+        return entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream()
+                .map(task -> {
+                    entityManager.detach(task);
+                    return task;
+                });
+    }
+
+    @Override
+    public long copyIn(List<Task> tasks) {
+        if (tasks.isEmpty()) {
+            return 0;
+        }
+        return jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            List<Long> ids = new ArrayList<>(tasks.size());
+            try (PreparedStatement statement = connection.prepareStatement(
+                    String.format(SQL_RESERVE_IDS, qualifiedName("task_id_seq")))) {
+                while (ids.size() < tasks.size()) {
+                    int blocks = (tasks.size() - ids.size() + Task.ID_ALLOCATION_SIZE - 1) / Task.ID_ALLOCATION_SIZE;
+                    statement.setInt(1, blocks);
+                    try (ResultSet resultSet = statement.executeQuery()) {
+                        while (resultSet.next()) {
+                            // a sequence value reserves the IDs up to and including itself, never below 1: the
+                            // first value of a fresh sequence is 1 and then reserves only itself, a short block
+                            // made up for by reserving more
+                            long last = resultSet.getLong(1);
+                            for (long id = Math.max(last - Task.ID_ALLOCATION_SIZE + 1, 1); id <= last; id++) {
+                                ids.add(id);
+                            }
+                        }
+                    }
+                }
+            }
+            PGCopyOutputStream copy = new PGCopyOutputStream(connection.unwrap(PGConnection.class),
+                    String.format(SQL_COPY, qualifiedTableName()), COPY_BUFFER_SIZE);
+            try {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(copy, StandardCharsets.UTF_8));
+                for (int i = 0; i < tasks.size(); i++) {
+                    Task task = tasks.get(i);
+                    task.setId(ids.get(i));
+                    writer.write(String.valueOf(task.getId()));
+                    writer.write(',');
+                    writeCsvField(writer, task.getTitle());
+                    writer.write(',');
+                    writeCsvField(writer, task.getDescription());
+                    writer.write(',');
+                    writer.write(task.getStatus().name());
+                    writer.write(',');
+                    if (Objects.nonNull(task.getParentId())) {
+                        // an unquoted empty field is NULL
+                        writer.write(String.valueOf(task.getParentId()));
+                    }
+                    writer.write(",0\n");
+                }
+                writer.flush();
+                return copy.endCopy();
+            } catch (IOException e) {
+                if (copy.isActive()) {
+                    copy.cancelCopy();
+                }
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private String qualifiedTableName() {
+        return qualifiedName("task");
+    }
+
+    private String qualifiedName(String name) {
+        Object schema = entityManager.getEntityManagerFactory().getProperties().get("hibernate.default_schema");
+        return Objects.isNull(schema) ? name : schema + "." + name;
+    }
+
+}
@@ -0,0 +1,17 @@
+package com.miratech.miratechtechtask.repositories;
+
+import com.miratech.miratechtechtask.dto.TaskStatus;
+
+/**
+ * Number of tasks with a status, as aggregated by {@link TaskRepository#countSubtreeByStatus}.
+ */
+public interface TaskStatusCount {
+
+    /**
+     * @return Name of the {@link TaskStatus} constant.
+     */
+    String getStatus();
+
+    long getCount();
+
+}
@@ -0,0 +1,81 @@
+package com.miratech.miratechtechtask.services;
+
+import com.miratech.miratechtechtask.dto.TaskDto;
+import com.miratech.miratechtechtask.dto.TaskStatus;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Set;
+
+/**
+ * Non-blocking counterpart of {@link TaskManagementService}. Errors are signalled with the same exceptions.
+ */
+public interface ReactiveTaskManagementService {
+
+    /**
+     * Retrieves a page of tasks based on the provided criteria.
+     *
+     * @param pageable Pagination information.
+     * @param title    Title of the task to filter by (optional).
+     * @param status   Status of the task to filter by (optional).
+     * @return A page of TaskDto objects with the exact total count.
+     */
+    Mono<Page<TaskDto>> getAll(Pageable pageable, String title, String status);
+
+    /**
+     * Streams all tasks matching the criteria, ordered by title and ID. Rows are read from the database
+     * as the subscriber requests them.
+     *
+     * @param title  Title of the task to filter by (optional).
+     * @param status Status of the task to filter by (optional).
+     * @return The matching tasks.
+     */
+    Flux<TaskDto> stream(String title, String status);
+
+    /**
+     * Retrieves a task by its unique identifier.
+     *
+     * @param id The unique identifier of the task.
+     * @return The TaskDto object corresponding to the given ID.
+     */
+    Mono<TaskDto> getById(Long id);
+
+    /**
+     * Creates a new task.
+     *
+     * @param dto The TaskDto object representing the new task.
+     * @return The created TaskDto object.
+     */
+    Mono<TaskDto> create(TaskDto dto);
+
+    /**
+     * Updates an existing task.
+     *
+     * @param id               The unique identifier of the task to be updated.
+     * @param dto              The TaskDto object representing the updated task details.
+     * @param expectedVersions The versions of which the task must have one, or null to skip the check.
+     * @return The updated TaskDto object.
+     */
+    Mono<TaskDto> update(Long id, TaskDto dto, Set<Long> expectedVersions);
+
+    /**
+     * Updates the status of a task.
+     *
+     * @param id               The unique identifier of the task whose status is to be updated.
+     * @param status           The new status for the task.
+     * @param expectedVersions The versions of which the task must have one, or null to skip the check.
+     * @return The updated TaskDto object.
+     */
+    Mono<TaskDto> updateStatus(Long id, TaskStatus status, Set<Long> expectedVersions);
+
+    /**
+     * Deletes a task by its unique identifier.
+     *
+     * @param id               The unique identifier of the task to be deleted.
+     * @param expectedVersions The versions of which the task must have one, or null to skip the check.
+     * @return Completes once the task is deleted.
+     */
+    Mono<Void> deleteById(Long id, Set<Long> expectedVersions);
+}
@@ -0,0 +1,21 @@
+package com.miratech.miratechtechtask.services;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Push feed of task mutations, fed from the change outbox written with every mutation.
+ */
+public interface TaskChangeFeed {
+
+    /**
+     * Subscribes to the changes following an offset. Each change is sent as an event named after its type,
+     * with its offset as event ID, so that a client reconnecting with 'Last-Event-ID' resumes where it stopped.
+     *
+     * @param after Offset of the last change received, or null to receive the changes made from now on.
+     * @return The emitter of the event stream.
+     * @throws com.miratech.miratechtechtask.dto.BadRequestException if the offset is malformed.
+     * @throws TaskChangesExpiredException if changes following the offset may have expired.
+     */
+    SseEmitter subscribe(String after);
+
+}
@@ -0,0 +1,13 @@
+package com.miratech.miratechtechtask.services;
+
+/**
+ * Thrown when the change feed is resumed from an offset older than the retained changes, some of which the
+ * consumer would miss; it has to read the tasks again and subscribe anew.
+ */
+public class TaskChangesExpiredException extends RuntimeException {
+
+    public TaskChangesExpiredException(String message) {
+        super(message);
+    }
+
+}
@@ -0,0 +1,12 @@
+package com.miratech.miratechtechtask.services;
+
+/**
+ * Thrown when a task is deleted while other tasks are still its subtasks; subtasks are never deleted along.
+ */
+public class TaskHasSubtasksException extends RuntimeException {
+
+    public TaskHasSubtasksException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+}
@@ -1,10 +1,25 @@
 package com.miratech.miratechtechtask.services;
 
+import com.miratech.miratechtechtask.dto.CountMode;
+import com.miratech.miratechtechtask.dto.CursorPage;
+import com.miratech.miratechtechtask.dto.FileFormat;
+import com.miratech.miratechtechtask.dto.TaskBatchDto;
+import com.miratech.miratechtechtask.dto.TaskBatchResultDto;
 import com.miratech.miratechtechtask.dto.TaskDto;
+import com.miratech.miratechtechtask.dto.TaskField;
+import com.miratech.miratechtechtask.dto.TaskRollupDto;
 import com.miratech.miratechtechtask.dto.TaskStatus;
+import com.miratech.miratechtechtask.dto.TaskTreeDto;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 /**
  * Service interface for managing tasks.
  */
@@ -13,12 +28,73 @@ public interface TaskManagementService {
     /**
      * Retrieves a page of tasks based on the provided criteria.
      *
-     * @param pageable Pagination information.
-     * @param title    Title of the task to filter by (optional).
-     * @param status   Status of the task to filter by (optional).
+     * @param pageable  Pagination information.
+     * @param title     Title of the task to filter by (optional).
+     * @param status    Status of the task to filter by (optional).
+     * @param countMode How the total number of tasks is obtained.
      * @return A page of TaskDto objects.
      */
-    Page<TaskDto> getAll(Pageable pageable, String title, String status);
+    Page<TaskDto> getAll(Pageable pageable, String title, String status, CountMode countMode);
+
+    /**
+     * Retrieves a page of tasks restricted to the given fields; the others are not read from the database.
+     *
+     * @param pageable  Pagination information.
+     * @param title     Title of the task to filter by (optional).
+     * @param status    Status of the task to filter by (optional).
+     * @param countMode How the total number of tasks is obtained.
+     * @param fields    Fields to retrieve.
+     * @return A page of tasks as maps from field name to value, holding the requested fields only.
+     */
+    Page<Map<String, Object>> getAllFields(Pageable pageable, String title, String status, CountMode countMode,
+                                           Set<TaskField> fields);
+
+    /**
+     * Searches tasks by full text of title and description, and by substring of title.
+     *
+     * @param q         The search query, in web search syntax.
+     * @param pageable  Pagination information; the sort is ignored, tasks are ordered by relevance.
+     * @param title     Title of the task to filter by (optional).
+     * @param status    Status of the task to filter by (optional).
+     * @param countMode How the total number of tasks is obtained.
+     * @return A page of matching TaskDto objects, best ranked first.
+     */
+    Page<TaskDto> search(String q, Pageable pageable, String title, String status, CountMode countMode);
+
+    /**
+     * Retrieves a slice of tasks ordered by title and ID, starting after the given cursor.
+     *
+     * @param after  Opaque cursor returned with the previous slice, or empty for the first slice.
+     * @param size   Maximum number of tasks in the slice.
+     * @param title  Title of the task to filter by (optional).
+     * @param status Status of the task to filter by (optional).
+     * @return A slice of TaskDto objects with the cursor of the next slice.
+     */
+    CursorPage<TaskDto> getAllAfter(String after, int size, String title, String status);
+
+    /**
+     * Writes all tasks matching the criteria to the output stream, ordered by ID. Tasks are read through a
+     * database cursor and written one by one, so memory use does not depend on the number of tasks.
+     *
+     * @param title  Title of the task to filter by (optional).
+     * @param status Status of the task to filter by (optional).
+     * @param format Format of the export.
+     * @param out    Stream to write the export to, closed when done.
+     * @throws IOException if writing to the stream fails.
+     */
+    void export(String title, String status, FileFormat format, OutputStream out) throws IOException;
+
+    /**
+     * Loads new tasks from NDJSON or CSV in chunks. Records failing the task validation are rejected
+     * individually; the rest of each chunk is inserted with a single PostgreSQL COPY.
+     *
+     * @param format Format of the input.
+     * @param in     Stream to read the tasks from.
+     * @param out    Stream to write the progress to, one {@link com.miratech.miratechtechtask.dto.ImportChunkDto}
+     *               per line of NDJSON after every chunk.
+     * @throws IOException if reading the input or writing the progress fails.
+     */
+    void importTasks(FileFormat format, InputStream in, OutputStream out) throws IOException;
 
     /**
      * Retrieves a task by its unique identifier.
@@ -28,6 +104,40 @@ public interface TaskManagementService {
      */
     TaskDto getById(Long id);
 
+    /**
+     * Retrieves the given fields of a task; the others are not read from the database.
+     *
+     * @param id     The unique identifier of the task.
+     * @param fields Fields to retrieve.
+     * @return The task as a map from field name to value, holding the requested fields only.
+     */
+    Map<String, Object> getFieldsById(Long id, Set<TaskField> fields);
+
+    /**
+     * Retrieves a task with its subtasks, nested level by level.
+     *
+     * @param id    The unique identifier of the task.
+     * @param depth Levels of subtasks to retrieve, 0 for the task alone, or null for all of them.
+     * @return The task with its subtasks.
+     */
+    TaskTreeDto getSubtree(Long id, Integer depth);
+
+    /**
+     * Retrieves the ancestors of a task.
+     *
+     * @param id The unique identifier of the task.
+     * @return The ancestors from the top-level one down to the parent, empty for a top-level task.
+     */
+    List<TaskDto> getAncestors(Long id);
+
+    /**
+     * Counts the statuses of a task and all its subtasks.
+     *
+     * @param id The unique identifier of the task.
+     * @return The number of tasks per status and the status of the subtree as a whole.
+     */
+    TaskRollupDto getRollup(Long id);
+
     /**
      * Creates a new task.
      *
@@ -39,25 +149,40 @@ public interface TaskManagementService {
     /**
      * Updates an existing task.
      *
-     * @param id  The unique identifier of the task to be updated.
-     * @param dto The TaskDto object representing the updated task details.
+     * @param id               The unique identifier of the task to be updated.
+     * @param dto              The TaskDto object representing the updated task details.
+     * @param expectedVersions The versions of which the task must have one, or null to skip the check.
      * @return The updated TaskDto object.
+     * @throws jakarta.persistence.OptimisticLockException if the task has another version.
      */
-    TaskDto update(Long id, TaskDto dto);
+    TaskDto update(Long id, TaskDto dto, Set<Long> expectedVersions);
 
     /**
      * Updates the status of a task.
      *
-     * @param id     The unique identifier of the task whose status is to be updated.
-     * @param status The new status for the task.
+     * @param id               The unique identifier of the task whose status is to be updated.
+     * @param status           The new status for the task.
+     * @param expectedVersions The versions of which the task must have one, or null to skip the check.
      * @return The updated TaskDto object.
+     * @throws jakarta.persistence.OptimisticLockException if the task has another version.
      */
-    TaskDto updateStatus(Long id, TaskStatus status);
+    TaskDto updateStatus(Long id, TaskStatus status, Set<Long> expectedVersions);
 
     /**
      * Deletes a task by its unique identifier.
      *
-     * @param id The unique identifier of the task to be deleted.
+     * @param id               The unique identifier of the task to be deleted.
+     * @param expectedVersions The versions of which the task must have one, or null to skip the check.
+     * @throws jakarta.persistence.OptimisticLockException if the task has another version.
+     */
+    void deleteById(Long id, Set<Long> expectedVersions);
+
+    /**
+     * Applies a batch of creates, updates, status changes and deletes in a single transaction.
+     * Items referring to missing tasks are reported individually and do not abort the batch.
+     *
+     * @param batch The mutations to apply.
+     * @return The per-item results.
      */
-    void deleteById(Long id);
+    TaskBatchResultDto batch(TaskBatchDto batch);
 }
@@ -0,0 +1,132 @@
+package com.miratech.miratechtechtask.services.impl;
+
+import com.miratech.miratechtechtask.dto.BadRequestException;
+import com.miratech.miratechtechtask.dto.TaskDto;
+import com.miratech.miratechtechtask.dto.TaskStatus;
+import com.miratech.miratechtechtask.mappers.TaskMapper;
+import com.miratech.miratechtechtask.repositories.ReactiveTaskRepository;
+import com.miratech.miratechtechtask.services.ReactiveTaskManagementService;
+import com.miratech.miratechtechtask.services.TaskHasSubtasksException;
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.OptimisticLockException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Objects;
+import java.util.Set;
+
+import static com.miratech.miratechtechtask.services.impl.TaskManagementServiceImpl.FORMAT_PARENT_NOT_FOUND;
+import static com.miratech.miratechtechtask.services.impl.TaskManagementServiceImpl.FORMAT_TASK_HAS_SUBTASKS;
+import static com.miratech.miratechtechtask.services.impl.TaskManagementServiceImpl.FORMAT_TASK_NOT_FOUND;
+import static com.miratech.miratechtechtask.services.impl.TaskManagementServiceImpl.FORMAT_TASK_VERSION_MISMATCH;
+import static com.miratech.miratechtechtask.services.impl.TaskManagementServiceImpl.versions;
+
+@Service
+@RequiredArgsConstructor
+@Log4j2
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveTaskManagementServiceImpl implements ReactiveTaskManagementService {
+
+    public static final String FORMAT_PARENT_MOVE = "Task with id %d cannot be moved under another parent";
+
+    private static final Sort STREAM_SORT = Sort.by("title", "id");
+
+    private final ReactiveTaskRepository taskRepository;
+
+    private final TaskMapper taskMapper;
+
+    @Override
+    public Mono<Page<TaskDto>> getAll(Pageable pageable, String title, String status) {
+        return Mono.defer(() -> {
+            TaskStatus taskStatus = toStatus(status);
+            return Mono.zip(
+                    taskRepository.findAll(title, taskStatus, pageable.getSort(), pageable.getOffset(), pageable.getPageSize())
+                            .map(taskMapper::toDto)
+                            .collectList(),
+                    taskRepository.count(title, taskStatus),
+                    (content, total) -> new PageImpl<>(content, pageable, total));
+        });
+    }
+
+    @Override
+    public Flux<TaskDto> stream(String title, String status) {
+        return Flux.defer(() -> taskRepository.findAll(title, toStatus(status), STREAM_SORT, 0, null))
+                .map(taskMapper::toDto);
+    }
+
+    @Override
+    public Mono<TaskDto> getById(Long id) {
+        return taskRepository.findById(id)
+                .map(taskMapper::toDto)
+                .switchIfEmpty(Mono.error(() -> new EntityNotFoundException(String.format(FORMAT_TASK_NOT_FOUND, id))));
+    }
+
+    @Override
+    public Mono<TaskDto> create(TaskDto dto) {
+        return Mono.defer(() -> taskRepository.insert(taskMapper.toEntity(dto)))
+                .onErrorMap(DataIntegrityViolationException.class,
+                        e -> new BadRequestException(String.format(FORMAT_PARENT_NOT_FOUND, dto.getParentId())))
+                .map(taskMapper::toDto);
+    }
+
+    @Override
+    public Mono<TaskDto> update(Long id, TaskDto dto, Set<Long> expectedVersions) {
+        return Mono.defer(() -> taskRepository.updateById(id, dto.getTitle(), dto.getDescription(),
+                        TaskStatus.fromStatus(dto.getStatus()), dto.getParentId(), versions(expectedVersions)))
+                .map(taskMapper::toDto)
+                .switchIfEmpty(Objects.isNull(dto.getParentId()) ?
+                        notUpdated(id, expectedVersions) :
+                        notMoved(id, dto.getParentId()));
+    }
+
+    @Override
+    public Mono<TaskDto> updateStatus(Long id, TaskStatus status, Set<Long> expectedVersions) {
+        return taskRepository.updateStatusById(id, status, versions(expectedVersions))
+                .map(taskMapper::toDto)
+                .switchIfEmpty(notUpdated(id, expectedVersions));
+    }
+
+    @Override
+    public Mono<Void> deleteById(Long id, Set<Long> expectedVersions) {
+        return taskRepository.removeById(id, versions(expectedVersions))
+                .onErrorMap(DataIntegrityViolationException.class,
+                        e -> new TaskHasSubtasksException(String.format(FORMAT_TASK_HAS_SUBTASKS, id), e))
+                .flatMap(deleted -> deleted == 0 ? notUpdated(id, expectedVersions) : Mono.empty());
+    }
+
+    /**
+     * Same distinction as the servlet service: the existence check only runs when a conditional write misses.
+     */
+    private <T> Mono<T> notUpdated(Long id, Set<Long> expectedVersions) {
+        Mono<Boolean> exists = Objects.isNull(expectedVersions) ? Mono.just(false) : taskRepository.existsById(id);
+        return exists.flatMap(found -> Mono.error(found ?
+                new OptimisticLockException(String.format(FORMAT_TASK_VERSION_MISMATCH, id)) :
+                new EntityNotFoundException(String.format(FORMAT_TASK_NOT_FOUND, id))));
+    }
+
+    /**
+     * Tells why an update naming a parent missed: the task does not exist, it has another parent, which only the
+     * servlet API can change, or it has been modified.
+     */
+    private <T> Mono<T> notMoved(Long id, Long parentId) {
+        return taskRepository.findById(id)
+                .flatMap(task -> Mono.<T>error(Objects.equals(parentId, task.getParentId()) ?
+                        new OptimisticLockException(String.format(FORMAT_TASK_VERSION_MISMATCH, id)) :
+                        new BadRequestException(String.format(FORMAT_PARENT_MOVE, id))))
+                .switchIfEmpty(Mono.error(() -> new EntityNotFoundException(String.format(FORMAT_TASK_NOT_FOUND, id))));
+    }
+
+    private static TaskStatus toStatus(String status) {
+        return Objects.isNull(status) ? null : TaskStatus.fromStatus(status);
+    }
+
+}
@@ -0,0 +1,277 @@
+package com.miratech.miratechtechtask.services.impl;
+
+import com.miratech.miratechtechtask.configs.ChangeFeedProperties;
+import com.miratech.miratechtechtask.dto.TaskChangeDto;
+import com.miratech.miratechtechtask.dto.TaskChangeOffset;
+import com.miratech.miratechtechtask.entities.TaskChange;
+import com.miratech.miratechtechtask.mappers.TaskMapper;
+import com.miratech.miratechtechtask.repositories.TaskChangeRepository;
+import com.miratech.miratechtechtask.services.TaskChangeFeed;
+import com.miratech.miratechtechtask.services.TaskChangesExpiredException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Relays the change outbox to the subscribers of the feed. A single thread polls the outbox; subscribers at
+ * the same offset share one query per poll, so once caught up all of them are served by one query however
+ * many there are. Batches are queued per subscriber and written by sender threads, every batch with one flush,
+ * so that a client that does not read holds up only itself: the relay stops reading for it while its queue is
+ * full, and disconnects it once it has not taken a write for a heartbeat interval.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@EnableConfigurationProperties(ChangeFeedProperties.class)
+@RequiredArgsConstructor
+@Log4j2
+public class TaskChangeRelay implements TaskChangeFeed {
+
+    public static final String FORMAT_CHANGES_EXPIRED = "Changes following offset %s have expired";
+
+    private static final Duration EXPIRY_INTERVAL = Duration.ofHours(1);
+
+    private final TaskChangeRepository taskChangeRepository;
+
+    private final TaskMapper taskMapper;
+
+    private final ChangeFeedProperties properties;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "task-change-relay");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Writes to the subscribers, a thread per subscriber with pending events; a write to a client that does not
+     * read blocks its thread until the write times out.
+     */
+    private final ExecutorService senders = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "task-change-sender");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PostConstruct
+    void start() {
+        long poll = properties.pollInterval().toMillis();
+        executor.scheduleWithFixedDelay(this::relay, poll, poll, TimeUnit.MILLISECONDS);
+        executor.scheduleWithFixedDelay(this::expire, 0, EXPIRY_INTERVAL.toMinutes(), TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+        senders.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    @Override
+    public SseEmitter subscribe(String after) {
+        TaskChangeOffset offset = Objects.isNull(after) ?
+                taskChangeRepository.findLastCommitted().map(TaskChangeRelay::offsetOf).orElse(TaskChangeOffset.START) :
+                TaskChangeOffset.decode(after);
+        if (Objects.nonNull(after) && taskChangeRepository.findFirst()
+                .map(first -> offset.compareTo(offsetOf(first)) < 0)
+                .orElse(false)) {
+            throw new TaskChangesExpiredException(String.format(FORMAT_CHANGES_EXPIRED, after));
+        }
+        // times out with the other async requests; the client then reconnects with its last event ID
+        return subscribe(new SseEmitter(), offset);
+    }
+
+    /**
+     * Relays the changes following an offset to an emitter.
+     *
+     * @return The emitter.
+     */
+    SseEmitter subscribe(SseEmitter emitter, TaskChangeOffset offset) {
+        Subscriber subscriber = new Subscriber(emitter, offset);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(emitter::complete);
+        subscribers.add(subscriber);
+        return emitter;
+    }
+
+    /**
+     * Queues the committed changes for every subscriber, repeating while some subscriber still lags a full
+     * batch behind. Runs on the relay thread only, which is also the only writer of subscriber offsets.
+     */
+    private void relay() {
+        try {
+            boolean behind;
+            do {
+                behind = false;
+                Map<TaskChangeOffset, List<Subscriber>> positions = subscribers.stream()
+                        .filter(Subscriber::ready)
+                        .collect(Collectors.groupingBy(Subscriber::offset));
+                for (Map.Entry<TaskChangeOffset, List<Subscriber>> position : positions.entrySet()) {
+                    TaskChangeOffset offset = position.getKey();
+                    List<TaskChange> changes = taskChangeRepository.findCommittedAfter(offset.tx(), offset.id(),
+                            properties.batchSize());
+                    if (!changes.isEmpty()) {
+                        List<TaskChangeDto> events = changes.stream().map(taskMapper::toChangeDto).toList();
+                        TaskChangeOffset last = offsetOf(changes.get(changes.size() - 1));
+                        position.getValue().forEach(subscriber -> subscriber.send(events, last));
+                    }
+                    behind |= changes.size() == properties.batchSize();
+                }
+            } while (behind);
+            long idle = System.nanoTime() - properties.heartbeat().toNanos();
+            subscribers.stream()
+                    .filter(subscriber -> subscriber.lastSent - idle < 0)
+                    .forEach(Subscriber::idle);
+        } catch (RuntimeException e) {
+            log.error("Relaying task changes failed", e);
+        }
+    }
+
+    private void expire() {
+        try {
+            int expired = taskChangeRepository.deleteOlderThan(Instant.now().minus(properties.retention()));
+            if (expired > 0) {
+                log.info("Expired {} task changes", expired);
+            }
+        } catch (RuntimeException e) {
+            log.error("Expiring task changes failed", e);
+        }
+    }
+
+    private static TaskChangeOffset offsetOf(TaskChange change) {
+        return new TaskChangeOffset(change.getTxId(), change.getId());
+    }
+
+    /**
+     * A client of the feed. The relay thread queues its batches and advances its offset; a sender thread writes
+     * them, one sender at a time.
+     */
+    private final class Subscriber implements Runnable {
+
+        private final SseEmitter emitter;
+
+        private final BlockingQueue<Set<ResponseBodyEmitter.DataWithMediaType>> pending;
+
+        private final AtomicBoolean sending = new AtomicBoolean();
+
+        private volatile TaskChangeOffset offset;
+
+        private volatile long lastSent = System.nanoTime();
+
+        private Subscriber(SseEmitter emitter, TaskChangeOffset offset) {
+            this.emitter = emitter;
+            this.offset = offset;
+            this.pending = new ArrayBlockingQueue<>(properties.backlog());
+        }
+
+        TaskChangeOffset offset() {
+            return offset;
+        }
+
+        /**
+         * @return Whether another batch can be queued.
+         */
+        boolean ready() {
+            return pending.remainingCapacity() > 0;
+        }
+
+        void send(List<TaskChangeDto> changes, TaskChangeOffset last) {
+            Set<ResponseBodyEmitter.DataWithMediaType> events = new LinkedHashSet<>();
+            for (TaskChangeDto change : changes) {
+                events.addAll(SseEmitter.event()
+                        .id(change.offset())
+                        .name(change.type())
+                        .data(change, MediaType.APPLICATION_JSON)
+                        .build());
+            }
+            enqueue(events);
+            offset = last;
+        }
+
+        /**
+         * Sends a heartbeat if nothing has been written for a heartbeat interval because there was nothing to
+         * write; otherwise the client has stopped reading and is disconnected. It resumes from its last event
+         * when it reconnects.
+         */
+        void idle() {
+            if (pending.isEmpty() && !sending.get()) {
+                enqueue(SseEmitter.event().comment("").build());
+                return;
+            }
+            log.info("Disconnecting a stalled task change subscriber with {} batches pending", pending.size());
+            subscribers.remove(this);
+            pending.clear();
+            // completed by a sender, as completing waits for the write in progress
+            senders.execute(emitter::complete);
+        }
+
+        /**
+         * Queues events, only called when {@link #ready()}.
+         */
+        private void enqueue(Set<ResponseBodyEmitter.DataWithMediaType> events) {
+            pending.add(events);
+            if (sending.compareAndSet(false, true)) {
+                senders.execute(this);
+            }
+        }
+
+        /**
+         * Writes the pending events until none are left.
+         */
+        @Override
+        public void run() {
+            do {
+                Set<ResponseBodyEmitter.DataWithMediaType> events;
+                while (Objects.nonNull(events = pending.poll())) {
+                    if (!write(events)) {
+                        return;
+                    }
+                }
+                sending.set(false);
+                // events queued after the last poll but before the flag was cleared are written now
+            } while (!pending.isEmpty() && sending.compareAndSet(false, true));
+        }
+
+        private boolean write(Set<ResponseBodyEmitter.DataWithMediaType> events) {
+            try {
+                emitter.send(events);
+                lastSent = System.nanoTime();
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                // the client has gone away or the stream has completed
+                subscribers.remove(this);
+                pending.clear();
+                emitter.completeWithError(e);
+                return false;
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,108 @@
+package com.miratech.miratechtechtask.services.impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.miratech.miratechtechtask.dto.FileFormat;
+import com.miratech.miratechtechtask.dto.TaskDto;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * Writes exported tasks one by one to an output stream, buffering only the current chunk.
+ */
+abstract class TaskExportWriter implements Closeable {
+
+    static TaskExportWriter of(FileFormat format, OutputStream out, ObjectMapper objectMapper) throws IOException {
+        return switch (format) {
+            case NDJSON -> new Ndjson(objectMapper.createGenerator(out));
+            case CSV -> new Csv(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)));
+        };
+    }
+
+    abstract void write(TaskDto task) throws IOException;
+
+    private static final class Ndjson extends TaskExportWriter {
+
+        private final JsonGenerator generator;
+
+        private Ndjson(JsonGenerator generator) {
+            this.generator = generator;
+        }
+
+        @Override
+        void write(TaskDto task) throws IOException {
+            generator.writeObject(task);
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void close() throws IOException {
+            generator.close();
+        }
+    }
+
+    private static final class Csv extends TaskExportWriter {
+
+        private static final String HEADER = "id,title,description,status,parentId,version";
+
+        private final Writer writer;
+
+        private Csv(Writer writer) throws IOException {
+            this.writer = writer;
+            writer.write(HEADER);
+            writer.write("\r\n");
+        }
+
+        @Override
+        void write(TaskDto task) throws IOException {
+            writer.write(String.valueOf(task.getId()));
+            writer.write(',');
+            writeField(task.getTitle());
+            writer.write(',');
+            writeField(task.getDescription());
+            writer.write(',');
+            writeField(task.getStatus());
+            writer.write(',');
+            if (Objects.nonNull(task.getParentId())) {
+                writer.write(String.valueOf(task.getParentId()));
+            }
+            writer.write(',');
+            writer.write(String.valueOf(task.getVersion()));
+            writer.write("\r\n");
+        }
+
+        /**
+         * Quotes fields that contain a separator, quote or line break, doubling embedded quotes.
+         */
+        private void writeField(String value) throws IOException {
+            if (Objects.isNull(value)) {
+                return;
+            }
+            boolean quote = false;
+            for (int i = 0; i < value.length() && !quote; i++) {
+                char c = value.charAt(i);
+                quote = c == ',' || c == '"' || c == '\r' || c == '\n';
+            }
+            if (!quote) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.close();
+        }
+    }
+
+}
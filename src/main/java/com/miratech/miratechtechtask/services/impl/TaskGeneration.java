@@ -0,0 +1,75 @@
+package com.miratech.miratechtechtask.services.impl;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counter of task writes. Cached listing pages are keyed by the generation they were read in,
+ * so bumping the counter makes every previously cached page unreachable.
+ * <p>
+ * Cached tasks are keyed the same way by a generation of their own ID. IDs share a fixed number of
+ * counters, so a write may also send a few unrelated tasks back to the database, but memory stays bounded.
+ */
+@Component
+public class TaskGeneration {
+
+    private static final int TASK_STRIPES = 1024;
+
+    private final AtomicLong generation = new AtomicLong();
+
+    private final AtomicLongArray taskGenerations = new AtomicLongArray(TASK_STRIPES);
+
+    public long current() {
+        return generation.get();
+    }
+
+    /**
+     * @return The generation of a single task, to key the cached task by.
+     */
+    public long current(Long id) {
+        return taskGenerations.get(stripe(id));
+    }
+
+    /**
+     * Starts a new generation. Inside a transaction the bump is deferred until the transaction completes;
+     * bumping earlier would let a concurrent reader cache pre-commit data under the new generation.
+     */
+    public void increment() {
+        afterCompletion(generation::incrementAndGet);
+    }
+
+    /**
+     * Starts a new generation of the listing pages and of the given tasks, deferred like {@link #increment()}.
+     * A reader that loaded a task before the write commits caches it under the old generation, where no later
+     * read looks it up.
+     */
+    public void increment(Collection<Long> ids) {
+        afterCompletion(() -> {
+            ids.forEach(id -> taskGenerations.incrementAndGet(stripe(id)));
+            generation.incrementAndGet();
+        });
+    }
+
+    private static void afterCompletion(Runnable bump) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    bump.run();
+                }
+            });
+        } else {
+            bump.run();
+        }
+    }
+
+    private static int stripe(Long id) {
+        return Long.hashCode(id) & (TASK_STRIPES - 1);
+    }
+
+}
@@ -0,0 +1,168 @@
+package com.miratech.miratechtechtask.services.impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.miratech.miratechtechtask.dto.ImportChunkDto;
+import com.miratech.miratechtechtask.dto.RejectedLine;
+import com.miratech.miratechtechtask.dto.TaskChangeType;
+import com.miratech.miratechtechtask.dto.TaskDto;
+import com.miratech.miratechtechtask.entities.Task;
+import com.miratech.miratechtechtask.mappers.TaskMapper;
+import com.miratech.miratechtechtask.repositories.TaskChangeRepository;
+import com.miratech.miratechtechtask.repositories.TaskRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.dao.DataAccessException;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * A single run of a task import: validates records with the {@link TaskDto} constraints, loads them in chunks
+ * through {@link TaskRepository#copyIn} and writes the progress of every chunk as a line of NDJSON.
+ * Each chunk is loaded in its own transaction, together with its changes in the outbox. A parent named by a
+ * record must be an existing task; the IDs of the input are not kept, so records cannot refer to each other.
+ * Only one chunk is held in memory at a time.
+ */
+@Log4j2
+@RequiredArgsConstructor
+class TaskImport {
+
+    /**
+     * Input records per chunk; a chunk is loaded by one COPY.
+     */
+    static final int CHUNK_SIZE = 10_000;
+
+    private final TaskRepository taskRepository;
+
+    private final TaskChangeRepository taskChangeRepository;
+
+    private final TransactionOperations transaction;
+
+    private final TaskMapper taskMapper;
+
+    private final Validator validator;
+
+    private final TaskGeneration taskGeneration;
+
+    private final JsonGenerator progress;
+
+    private final List<Task> tasks = new ArrayList<>();
+
+    private final List<Long> lines = new ArrayList<>();
+
+    private final List<RejectedLine> rejected = new ArrayList<>();
+
+    private int chunk;
+
+    private int records;
+
+    private long lastLine;
+
+    private long totalImported;
+
+    private long totalRejected;
+
+    void run(TaskImportReader reader) throws IOException {
+        TaskImportReader.Record record;
+        while (Objects.nonNull(record = reader.next())) {
+            lastLine = record.line();
+            String error = Objects.nonNull(record.error()) ? record.error() : violations(record.task());
+            if (Objects.isNull(error)) {
+                tasks.add(taskMapper.toEntity(record.task()));
+                lines.add(record.line());
+            } else {
+                rejected.add(new RejectedLine(record.line(), error));
+            }
+            if (++records == CHUNK_SIZE) {
+                load();
+            }
+        }
+        if (records > 0 || chunk == 0) {
+            load();
+        }
+    }
+
+    private String violations(TaskDto task) {
+        Set<ConstraintViolation<TaskDto>> violations = validator.validate(task);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    /**
+     * Locks the parents the tasks of the chunk name against deletion and leaves out the tasks whose parent does
+     * not exist. Imported tasks get new IDs, so a parent is always a task that exists before the import.
+     *
+     * @param orphans Receives the lines of the tasks left out.
+     * @return The tasks to load.
+     */
+    private List<Task> withExistingParents(List<RejectedLine> orphans) {
+        Set<Long> parentIds = tasks.stream()
+                .map(Task::getParentId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (parentIds.isEmpty()) {
+            return tasks;
+        }
+        Set<Long> existing = new HashSet<>(taskRepository.lockExistingIds(parentIds));
+        List<Task> loaded = new ArrayList<>(tasks.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            Long parentId = tasks.get(i).getParentId();
+            if (Objects.isNull(parentId) || existing.contains(parentId)) {
+                loaded.add(tasks.get(i));
+            } else {
+                orphans.add(new RejectedLine(lines.get(i),
+                        String.format(TaskManagementServiceImpl.FORMAT_PARENT_NOT_FOUND, parentId)));
+            }
+        }
+        return loaded;
+    }
+
+    private void load() throws IOException {
+        long imported = 0;
+        List<RejectedLine> orphans = new ArrayList<>();
+        try {
+            imported = transaction.execute(status -> {
+                List<Task> loaded = withExistingParents(orphans);
+                long copied = taskRepository.copyIn(loaded);
+                taskChangeRepository.appendAll(TaskChangeType.CREATED.name(),
+                        loaded.stream().map(Task::getId).toArray(Long[]::new));
+                return copied;
+            });
+            rejected.addAll(orphans);
+        } catch (DataAccessException e) {
+            String message = "Chunk not loaded: " + e.getMostSpecificCause().getMessage();
+            lines.forEach(line -> rejected.add(new RejectedLine(line, message)));
+        }
+        rejected.sort((a, b) -> Long.compare(a.line(), b.line()));
+        if (imported > 0) {
+            taskGeneration.increment();
+        }
+        chunk++;
+        totalImported += imported;
+        totalRejected += rejected.size();
+        log.info("Import chunk {}: {} tasks loaded, {} lines rejected, up to line {}",
+                chunk, imported, rejected.size(), lastLine);
+        progress.writeObject(new ImportChunkDto(chunk, lastLine, imported, List.copyOf(rejected),
+                totalImported, totalRejected));
+        progress.writeRaw('\n');
+        progress.flush();
+        tasks.clear();
+        lines.clear();
+        rejected.clear();
+        records = 0;
+    }
+
+}
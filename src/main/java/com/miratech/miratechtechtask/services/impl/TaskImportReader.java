@@ -0,0 +1,222 @@
+package com.miratech.miratechtechtask.services.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.miratech.miratechtechtask.dto.FileFormat;
+import com.miratech.miratechtechtask.dto.TaskDto;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Reads imported tasks one record at a time from an input stream.
+ */
+abstract class TaskImportReader implements Closeable {
+
+    protected final BufferedReader reader;
+
+    protected long line;
+
+    private TaskImportReader(InputStream in) {
+        this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    static TaskImportReader of(FileFormat format, InputStream in, ObjectMapper objectMapper) {
+        return switch (format) {
+            case NDJSON -> new Ndjson(in, objectMapper.readerFor(TaskDto.class));
+            case CSV -> new Csv(in);
+        };
+    }
+
+    /**
+     * @return The next record, or null at the end of the input.
+     */
+    abstract Record next() throws IOException;
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * A parsed task, or the reason it could not be parsed.
+     *
+     * @param line  Number of the line the record starts on.
+     * @param task  The task, null if the record is malformed.
+     * @param error Reason the record is malformed.
+     */
+    record Record(long line, TaskDto task, String error) {
+    }
+
+    private static final class Ndjson extends TaskImportReader {
+
+        private final ObjectReader objectReader;
+
+        private Ndjson(InputStream in, ObjectReader objectReader) {
+            super(in);
+            this.objectReader = objectReader;
+        }
+
+        @Override
+        Record next() throws IOException {
+            String value;
+            do {
+                value = reader.readLine();
+                line++;
+            } while (Objects.nonNull(value) && value.isBlank());
+            if (Objects.isNull(value)) {
+                return null;
+            }
+            try {
+                return new Record(line, objectReader.readValue(value), null);
+            } catch (JsonProcessingException e) {
+                return new Record(line, null, "Malformed JSON: " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    /**
+     * RFC 4180 CSV with a header naming the columns; title, description and status are required, parentId is
+     * optional and empty for a top-level task, other columns such as the id and version of the export are ignored.
+     * Quoted fields may span lines.
+     */
+    private static final class Csv extends TaskImportReader {
+
+        private int title = -1;
+
+        private int description = -1;
+
+        private int status = -1;
+
+        private int parentId = -1;
+
+        private int columns;
+
+        private boolean invalidHeader;
+
+        private Csv(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        Record next() throws IOException {
+            if (invalidHeader) {
+                return null;
+            }
+            if (columns == 0) {
+                List<String> header = readRecord();
+                if (Objects.isNull(header)) {
+                    return null;
+                }
+                columns = header.size();
+                for (int i = 0; i < header.size(); i++) {
+                    switch (header.get(i).trim().toLowerCase(Locale.ROOT)) {
+                        case "title" -> title = i;
+                        case "description" -> description = i;
+                        case "status" -> status = i;
+                        case "parentid" -> parentId = i;
+                        default -> {
+                        }
+                    }
+                }
+                if (title < 0 || description < 0 || status < 0) {
+                    // nothing can be read without the columns, the header is the only rejected line
+                    invalidHeader = true;
+                    return new Record(line, null, "Header must name the title, description and status columns");
+                }
+            }
+            long start = line + 1;
+            List<String> fields;
+            try {
+                fields = readRecord();
+            } catch (IllegalStateException e) {
+                return new Record(start, null, e.getMessage());
+            }
+            if (Objects.isNull(fields)) {
+                return null;
+            }
+            if (fields.size() != columns) {
+                return new Record(start, null, String.format("Expected %d fields but found %d", columns, fields.size()));
+            }
+            Long parent = null;
+            if (parentId >= 0 && !fields.get(parentId).isBlank()) {
+                try {
+                    parent = Long.valueOf(fields.get(parentId).trim());
+                } catch (NumberFormatException e) {
+                    return new Record(start, null, "parentId: must be a task ID");
+                }
+            }
+            return new Record(start, TaskDto.builder()
+                    .title(fields.get(title))
+                    .description(fields.get(description))
+                    .status(fields.get(status))
+                    .parentId(parent)
+                    .build(), null);
+        }
+
+        /**
+         * Reads the fields of the next record, skipping empty lines.
+         *
+         * @return The fields, or null at the end of the input.
+         */
+        private List<String> readRecord() throws IOException {
+            String value;
+            do {
+                value = reader.readLine();
+                line++;
+            } while (Objects.nonNull(value) && value.isEmpty());
+            if (Objects.isNull(value)) {
+                return null;
+            }
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            int i = 0;
+            while (true) {
+                if (i == value.length()) {
+                    if (!quoted) {
+                        fields.add(field.toString());
+                        return fields;
+                    }
+                    // line break inside a quoted field
+                    value = reader.readLine();
+                    line++;
+                    if (Objects.isNull(value)) {
+                        throw new IllegalStateException("Unterminated quoted field");
+                    }
+                    field.append('\n');
+                    i = 0;
+                    continue;
+                }
+                char c = value.charAt(i++);
+                if (quoted) {
+                    if (c != '"') {
+                        field.append(c);
+                    } else if (i < value.length() && value.charAt(i) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else if (c == '"' && field.isEmpty()) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+        }
+    }
+
+}
@@ -1,20 +1,68 @@
 package com.miratech.miratechtechtask.services.impl;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.miratech.miratechtechtask.configs.CacheConfig;
+import com.miratech.miratechtechtask.dto.BadRequestException;
+import com.miratech.miratechtechtask.dto.BatchItemResult;
+import com.miratech.miratechtechtask.dto.BatchStatusDto;
+import com.miratech.miratechtechtask.dto.CountMode;
+import com.miratech.miratechtechtask.dto.CountedPage;
+import com.miratech.miratechtechtask.dto.CursorPage;
+import com.miratech.miratechtechtask.dto.FileFormat;
+import com.miratech.miratechtechtask.dto.TaskBatchDto;
+import com.miratech.miratechtechtask.dto.TaskBatchResultDto;
+import com.miratech.miratechtechtask.dto.TaskChangeType;
+import com.miratech.miratechtechtask.dto.TaskCursor;
 import com.miratech.miratechtechtask.dto.TaskDto;
+import com.miratech.miratechtechtask.dto.TaskField;
+import com.miratech.miratechtechtask.dto.TaskRollupDto;
 import com.miratech.miratechtechtask.dto.TaskStatus;
+import com.miratech.miratechtechtask.dto.TaskTreeDto;
 import com.miratech.miratechtechtask.entities.Task;
 import com.miratech.miratechtechtask.mappers.TaskMapper;
+import com.miratech.miratechtechtask.repositories.TaskChangeRepository;
 import com.miratech.miratechtechtask.repositories.TaskRepository;
+import com.miratech.miratechtechtask.repositories.TaskStatusCount;
+import com.miratech.miratechtechtask.services.TaskHasSubtasksException;
 import com.miratech.miratechtechtask.services.TaskManagementService;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.persistence.Tuple;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -23,29 +71,156 @@ public class TaskManagementServiceImpl implements TaskManagementService {
 
     public static final String FORMAT_TASK_NOT_FOUND = "Task with id %d not found";
 
+    public static final String FORMAT_TASK_VERSION_MISMATCH = "Task with id %d has been modified";
+
+    public static final String TASK_ID_REQUIRED = "Task id is required";
+
+    public static final String SEARCH_QUERY_REQUIRED = "Search query must not be blank";
+
+    public static final String DEPTH_NEGATIVE = "Depth must not be negative";
+
+    public static final String FORMAT_PARENT_NOT_FOUND = "Parent task with id %d not found";
+
+    public static final String FORMAT_PARENT_CYCLE = "Task with id %d cannot be a subtask of its own subtask %d";
+
+    public static final String FORMAT_TASK_HAS_SUBTASKS = "Task with id %d has subtasks";
+
+    public static final String BATCH_HAS_SUBTASKS = "Batch deletes tasks that have subtasks";
+
+    /**
+     * Key of a cached task: its ID and the generation of that ID. A task loaded while a write to it commits is
+     * cached under the generation before the write, which later reads no longer look up.
+     */
+    private static final String TASK_KEY = "{@taskGeneration.current(#p0), #p0}";
+
+    /**
+     * Keyset ordering; id breaks ties between equal titles so that every task has a unique position.
+     */
+    private static final Sort KEYSET_SORT = Sort.by("title", "id");
+
+    /**
+     * Export ordering; follows the primary key so the cursor needs no sort over the whole table.
+     */
+    private static final Sort EXPORT_SORT = Sort.by("id");
+
     private final TaskRepository taskRepository;
 
+    private final TaskChangeRepository taskChangeRepository;
+
     private final TaskMapper taskMapper;
 
+    private final TaskGeneration taskGeneration;
+
+    private final ObjectMapper objectMapper;
+
+    private final Validator validator;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.TASK_PAGES_CACHE,
+            key = "{@taskGeneration.current(), #p1, #p2, #p3, #p0.pageNumber, #p0.pageSize, #p0.sort}",
+            unless = "@readYourWrites.isWindowOpen()")
+    public Page<TaskDto> getAll(Pageable pageable, String title, String status, CountMode countMode) {
+        Specification<Task> spec = TaskSpecifications.filter(title, status);
+        // read as a slice in every mode, so the page and the count are separate repository invocations
+        Slice<Task> tasks = taskRepository.findSlice(spec, pageable);
+        return new CountedPage<>(toDtos(tasks.getContent()), pageable, total(tasks, spec, title, status, countMode), countMode);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.TASK_PAGES_CACHE,
+            key = "{@taskGeneration.current(), #p1, #p2, #p3, #p0.pageNumber, #p0.pageSize, #p0.sort, #p4}",
+            unless = "@readYourWrites.isWindowOpen()")
+    public Page<Map<String, Object>> getAllFields(Pageable pageable, String title, String status, CountMode countMode,
+                                                  Set<TaskField> fields) {
+        Specification<Task> spec = TaskSpecifications.filter(title, status);
+        Slice<Tuple> tasks = taskRepository.findFields(spec, pageable, fields);
+        List<Map<String, Object>> content = tasks.getContent().stream()
+                .map(task -> toFields(task, fields))
+                .toList();
+        return new CountedPage<>(content, pageable, total(tasks, spec, title, status, countMode), countMode);
+    }
+
+    /**
+     * Computes the total of a page read as a slice. It is exact when counting is requested or the slice
+     * is the last one; otherwise it is a lower bound, raised to the planner estimate in estimated mode.
+     */
+    private long total(Slice<?> slice, Specification<Task> spec, String title, String status, CountMode countMode) {
+        long seen = slice.getPageable().getOffset() + slice.getNumberOfElements();
+        boolean last = !slice.hasNext() && (slice.hasContent() || slice.getPageable().getOffset() == 0);
+        if (countMode == CountMode.EXACT) {
+            return last ? seen : taskRepository.count(spec);
+        }
+        long total = slice.hasNext() ? seen + 1 : seen;
+        if (countMode == CountMode.ESTIMATED && slice.hasNext()) {
+            TaskStatus taskStatus = Objects.isNull(status) ? null : TaskStatus.fromStatus(status);
+            total = Math.max(total, taskRepository.estimateCount(null, title, taskStatus));
+        }
+        return total;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<TaskDto> search(String q, Pageable pageable, String title, String status, CountMode countMode) {
+        if (Objects.isNull(q) || q.isBlank()) {
+            throw new BadRequestException(SEARCH_QUERY_REQUIRED);
+        }
+        TaskStatus taskStatus = Objects.isNull(status) ? null : TaskStatus.fromStatus(status);
+        if (countMode == CountMode.EXACT) {
+            List<Task> tasks = taskRepository.search(q, title, taskStatus, pageable.getOffset(), pageable.getPageSize());
+            return new CountedPage<>(toDtos(tasks), pageable, taskRepository.countSearch(q, title, taskStatus), countMode);
+        }
+        List<Task> tasks = taskRepository.search(q, title, taskStatus, pageable.getOffset(), pageable.getPageSize() + 1);
+        boolean hasNext = tasks.size() > pageable.getPageSize();
+        List<Task> content = hasNext ? tasks.subList(0, pageable.getPageSize()) : tasks;
+        long seen = pageable.getOffset() + content.size();
+        long total = hasNext ? seen + 1 : seen;
+        if (countMode == CountMode.ESTIMATED && hasNext) {
+            total = Math.max(total, taskRepository.estimateCount(q, title, taskStatus));
+        }
+        return new CountedPage<>(toDtos(content), pageable, total, countMode);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<TaskDto> getAllAfter(String after, int size, String title, String status) {
+        Specification<Task> spec = TaskSpecifications.filter(title, status);
+        if (!after.isEmpty()) {
+            spec = spec.and(TaskSpecifications.seekAfter(TaskCursor.decode(after)));
+        }
+        List<Task> tasks = taskRepository.findBy(spec, query -> query.sortBy(KEYSET_SORT).limit(size + 1).all());
+        boolean hasNext = tasks.size() > size;
+        List<Task> content = hasNext ? tasks.subList(0, size) : tasks;
+        String next = hasNext ? TaskCursor.of(content.get(size - 1)).encode() : null;
+        return new CursorPage<>(toDtos(content), size, hasNext, next);
+    }
+
     @Override
-    public Page<TaskDto> getAll(Pageable pageable, String title, String status) {
-        Specification<Task> initialSpec = null;
-        if (Objects.nonNull(title)) {
-            initialSpec = Specification.where((root, query, cb) -> cb.equal(root.get("title"), title));
+    @Transactional(readOnly = true)
+    public void export(String title, String status, FileFormat format, OutputStream out) throws IOException {
+        try (Stream<Task> tasks = taskRepository.streamAll(TaskSpecifications.filter(title, status), EXPORT_SORT);
+             TaskExportWriter writer = TaskExportWriter.of(format, out, objectMapper)) {
+            for (Iterator<Task> iterator = tasks.iterator(); iterator.hasNext(); ) {
+                writer.write(taskMapper.toDto(iterator.next()));
+            }
         }
-        if (Objects.nonNull(status)) {
-            TaskStatus taskStatus = TaskStatus.fromStatus(status);
-            initialSpec = Objects.isNull(initialSpec) ?
-                    Specification.where((root, query, cb) -> cb.equal(root.get("status"), taskStatus)) :
-                    initialSpec.and((root, query, cb) -> cb.equal(root.get("status"), taskStatus));
+    }
+
+    @Override
+    public void importTasks(FileFormat format, InputStream in, OutputStream out) throws IOException {
+        try (TaskImportReader reader = TaskImportReader.of(format, in, objectMapper);
+             JsonGenerator progress = objectMapper.createGenerator(out)) {
+            new TaskImport(taskRepository, taskChangeRepository, transactionTemplate, taskMapper, validator,
+                    taskGeneration, progress).run(reader);
         }
-        Page<Task> tasks = Objects.isNull(initialSpec) ?
-                taskRepository.findAll(pageable) :
-                taskRepository.findAll(initialSpec, pageable);
-        return tasks.map(taskMapper::toDto);
     }
 
     @Override
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.TASKS_CACHE, key = TASK_KEY, unless = "@readYourWrites.isWindowOpen()")
     public TaskDto getById(Long id) {
         return taskRepository.findById(id)
                 .map(taskMapper::toDto)
@@ -53,44 +228,331 @@ public class TaskManagementServiceImpl implements TaskManagementService {
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public Map<String, Object> getFieldsById(Long id, Set<TaskField> fields) {
+        return taskRepository.findFieldsById(id, fields)
+                .map(task -> toFields(task, fields))
+                .orElseThrow(() -> new EntityNotFoundException(String.format(FORMAT_TASK_NOT_FOUND, id)));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public TaskTreeDto getSubtree(Long id, Integer depth) {
+        if (Objects.nonNull(depth) && depth < 0) {
+            throw new BadRequestException(DEPTH_NEGATIVE);
+        }
+        List<Task> tasks = taskRepository.findSubtree(id, Objects.isNull(depth) ? Integer.MAX_VALUE : depth);
+        if (tasks.isEmpty()) {
+            throw new EntityNotFoundException(String.format(FORMAT_TASK_NOT_FOUND, id));
+        }
+        // parents come before their subtasks, so every subtask finds its parent node already built
+        Map<Long, TaskTreeDto> nodes = new LinkedHashMap<>();
+        for (Task task : tasks) {
+            TaskTreeDto node = new TaskTreeDto(taskMapper.toDto(task), new ArrayList<>());
+            TaskTreeDto parent = nodes.get(task.getParentId());
+            if (Objects.nonNull(parent)) {
+                parent.subtasks().add(node);
+            }
+            nodes.put(task.getId(), node);
+        }
+        return nodes.get(id);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<TaskDto> getAncestors(Long id) {
+        List<Task> tasks = taskRepository.findAncestors(id);
+        if (tasks.isEmpty()) {
+            throw new EntityNotFoundException(String.format(FORMAT_TASK_NOT_FOUND, id));
+        }
+        return toDtos(tasks.subList(0, tasks.size() - 1));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public TaskRollupDto getRollup(Long id) {
+        Map<TaskStatus, Long> counts = new EnumMap<>(TaskStatus.class);
+        for (TaskStatusCount count : taskRepository.countSubtreeByStatus(id, Integer.MAX_VALUE)) {
+            counts.put(TaskStatus.valueOf(count.getStatus()), count.getCount());
+        }
+        if (counts.isEmpty()) {
+            throw new EntityNotFoundException(String.format(FORMAT_TASK_NOT_FOUND, id));
+        }
+        return TaskRollupDto.of(id, counts);
+    }
+
+    @Override
+    @Transactional
     public TaskDto create(TaskDto dto) {
-        return taskMapper.toDto(taskRepository.save(taskMapper.toEntity(dto)));
+        String parentError = parentError(null, dto.getParentId());
+        if (Objects.nonNull(parentError)) {
+            throw new BadRequestException(parentError);
+        }
+        TaskDto created = taskMapper.toDto(taskRepository.save(taskMapper.toEntity(dto)));
+        recordChanges(TaskChangeType.CREATED, List.of(created.getId()));
+        taskGeneration.increment();
+        return created;
     }
 
     @Override
-    public TaskDto update(Long id, TaskDto dto) {
-        return taskRepository.findById(id)
-                .map(existingTask -> {
-                    existingTask.setTitle(dto.getTitle());
-                    existingTask.setDescription(dto.getDescription());
-                    existingTask.setStatus(TaskStatus.fromStatus(dto.getStatus()));
-                    return taskRepository.save(existingTask);
-                })
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.TASKS_CACHE, key = TASK_KEY, beforeInvocation = true)
+    public TaskDto update(Long id, TaskDto dto, Set<Long> expectedVersions) {
+        TaskStatus status = TaskStatus.fromStatus(dto.getStatus());
+        String parentError = parentError(id, dto.getParentId());
+        if (Objects.nonNull(parentError)) {
+            throw new BadRequestException(parentError);
+        }
+        TaskDto updated = taskRepository.updateById(id, dto.getTitle(), dto.getDescription(), status.name(),
+                        dto.getParentId(), versions(expectedVersions))
                 .map(taskMapper::toDto)
-                .orElseThrow(() -> new EntityNotFoundException(String.format(FORMAT_TASK_NOT_FOUND, id)));
+                .orElseThrow(() -> notUpdated(id, expectedVersions));
+        recordChanges(TaskChangeType.UPDATED, List.of(id));
+        taskGeneration.increment(List.of(id));
+        return updated;
     }
 
     @Override
-    public TaskDto updateStatus(Long id, TaskStatus status) {
-        return taskRepository.findById(id)
-                .map(task -> {
-                    task.setStatus(status);
-                    return task;
-                })
-                .map(taskRepository::save)
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.TASKS_CACHE, key = TASK_KEY, beforeInvocation = true)
+    public TaskDto updateStatus(Long id, TaskStatus status, Set<Long> expectedVersions) {
+        TaskDto updated = taskRepository.updateStatusById(id, status.name(), versions(expectedVersions))
                 .map(taskMapper::toDto)
-                .orElseThrow(() -> new EntityNotFoundException(String.format(FORMAT_TASK_NOT_FOUND, id)));
+                .orElseThrow(() -> notUpdated(id, expectedVersions));
+        recordChanges(TaskChangeType.UPDATED, List.of(id));
+        taskGeneration.increment(List.of(id));
+        return updated;
+    }
+
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.TASKS_CACHE, key = TASK_KEY, beforeInvocation = true)
+    public void deleteById(Long id, Set<Long> expectedVersions) {
+        // recorded first to capture the last state; rolled back together with the delete if it fails
+        recordChanges(TaskChangeType.DELETED, List.of(id));
+        int removed;
+        try {
+            removed = taskRepository.removeById(id, versions(expectedVersions));
+        } catch (DataIntegrityViolationException e) {
+            throw new TaskHasSubtasksException(String.format(FORMAT_TASK_HAS_SUBTASKS, id), e);
+        }
+        if (removed == 0) {
+            throw notUpdated(id, expectedVersions);
+        }
+        taskGeneration.increment(List.of(id));
+    }
+
+    /**
+     * Checks that a task can be placed under a parent: the parent exists and is not the task or one of its
+     * subtasks. A new task only needs its parent to exist, which is locked against deletion in one statement.
+     * <p>
+     * A move locks the task and the ancestors of the parent before checking them, so that two concurrent moves
+     * cannot both pass and commit a cycle. Reads nothing when no parent is given.
+     *
+     * @param id       ID of the task, null for a task being created.
+     * @param parentId ID of the parent, or null for a top-level task.
+     * @return The reason the task cannot be placed there, or null if it can.
+     */
+    private String parentError(Long id, Long parentId) {
+        if (Objects.isNull(parentId)) {
+            return null;
+        }
+        if (Objects.isNull(id)) {
+            return taskRepository.lockExistingIds(List.of(parentId)).isEmpty() ?
+                    String.format(FORMAT_PARENT_NOT_FOUND, parentId) :
+                    null;
+        }
+        Set<Long> locked = new HashSet<>(taskRepository.lockForMove(id, parentId));
+        List<Long> ancestorIds = taskRepository.findAncestorIds(parentId);
+        // a concurrent move committed while waiting for the locks; lock the ancestors as they are now
+        while (!locked.containsAll(ancestorIds)) {
+            locked.addAll(taskRepository.lockForMove(id, parentId));
+            ancestorIds = taskRepository.findAncestorIds(parentId);
+        }
+        if (ancestorIds.isEmpty()) {
+            return String.format(FORMAT_PARENT_NOT_FOUND, parentId);
+        }
+        if (Objects.nonNull(id) && ancestorIds.contains(id)) {
+            return String.format(FORMAT_PARENT_CYCLE, id, parentId);
+        }
+        return null;
+    }
+
+    /**
+     * Tells apart the two reasons a conditional write can affect no rows. Only runs on the failure path,
+     * so successful writes stay a single statement.
+     */
+    private RuntimeException notUpdated(Long id, Set<Long> expectedVersions) {
+        if (Objects.nonNull(expectedVersions) && taskRepository.existsById(id)) {
+            return new OptimisticLockException(String.format(FORMAT_TASK_VERSION_MISMATCH, id));
+        }
+        return new EntityNotFoundException(String.format(FORMAT_TASK_NOT_FOUND, id));
+    }
+
+    /**
+     * Binds the expected versions of a conditional write as one array parameter, null to skip the check.
+     */
+    static Long[] versions(Set<Long> expectedVersions) {
+        return Objects.isNull(expectedVersions) ? null : expectedVersions.toArray(Long[]::new);
+    }
+
+    /**
+     * Appends the mutated tasks to the change outbox, in the transaction of the mutation.
+     */
+    private void recordChanges(TaskChangeType type, Collection<Long> ids) {
+        if (!ids.isEmpty()) {
+            taskChangeRepository.append(type.name(), ids);
+        }
     }
 
     @Override
-    public void deleteById(Long id) {
-        taskRepository.findById(id)
-                .ifPresentOrElse(
-                        taskRepository::delete,
-                        () -> {
-                            throw new EntityNotFoundException(String.format(FORMAT_TASK_NOT_FOUND, id));
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.TASKS_CACHE, allEntries = true)
+    public TaskBatchResultDto batch(TaskBatchDto batch) {
+        taskGeneration.increment(Stream.of(
+                        batch.update().stream().map(TaskDto::getId),
+                        batch.status().stream().map(BatchStatusDto::id),
+                        batch.delete().stream())
+                .flatMap(Function.identity())
+                .filter(Objects::nonNull)
+                .toList());
+        return new TaskBatchResultDto(
+                createAll(batch.create()),
+                updateAll(batch.update()),
+                updateStatusAll(batch.status()),
+                deleteAll(batch.delete())
+        );
+    }
+
+    private List<BatchItemResult> createAll(List<TaskDto> dtos) {
+        Set<Long> parentIds = dtos.stream()
+                .map(TaskDto::getParentId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Set<Long> existingParentIds = parentIds.isEmpty() ?
+                Set.of() :
+                new HashSet<>(taskRepository.lockExistingIds(parentIds));
+        Predicate<TaskDto> parentMissing = dto ->
+                Objects.nonNull(dto.getParentId()) && !existingParentIds.contains(dto.getParentId());
+        List<Task> tasks = taskRepository.saveAll(dtos.stream()
+                .filter(parentMissing.negate())
+                .map(taskMapper::toEntity)
+                .toList());
+        recordChanges(TaskChangeType.CREATED, tasks.stream().map(Task::getId).toList());
+        Iterator<Task> created = tasks.iterator();
+        return dtos.stream()
+                .map(dto -> parentMissing.test(dto) ?
+                        BatchItemResult.failure(null, HttpStatus.BAD_REQUEST,
+                                String.format(FORMAT_PARENT_NOT_FOUND, dto.getParentId())) :
+                        BatchItemResult.success(HttpStatus.CREATED, taskMapper.toDto(created.next())))
+                .toList();
+    }
+
+    private List<BatchItemResult> updateAll(List<TaskDto> dtos) {
+        Map<Long, Task> tasks = findAllByIds(dtos.stream().map(TaskDto::getId).toList());
+        Map<TaskDto, String> parentErrors = new IdentityHashMap<>();
+        dtos.stream()
+                .filter(dto -> tasks.containsKey(dto.getId()))
+                .forEach(dto -> {
+                    Task task = tasks.get(dto.getId());
+                    // moves are checked in order, the ancestor query seeing the moves made before it
+                    if (!Objects.equals(task.getParentId(), dto.getParentId())) {
+                        String parentError = parentError(task.getId(), dto.getParentId());
+                        if (Objects.nonNull(parentError)) {
+                            parentErrors.put(dto, parentError);
+                            return;
                         }
-                );
+                    }
+                    task.setTitle(dto.getTitle());
+                    task.setDescription(dto.getDescription());
+                    task.setStatus(TaskStatus.fromStatus(dto.getStatus()));
+                    task.setParentId(dto.getParentId());
+                });
+        // flush before mapping so that the results carry the incremented versions
+        taskRepository.flush();
+        recordChanges(TaskChangeType.UPDATED, dtos.stream()
+                .filter(dto -> tasks.containsKey(dto.getId()) && !parentErrors.containsKey(dto))
+                .map(TaskDto::getId)
+                .collect(Collectors.toSet()));
+        return dtos.stream()
+                .map(dto -> {
+                    if (Objects.isNull(dto.getId())) {
+                        return BatchItemResult.failure(null, HttpStatus.BAD_REQUEST, TASK_ID_REQUIRED);
+                    }
+                    if (parentErrors.containsKey(dto)) {
+                        return BatchItemResult.failure(dto.getId(), HttpStatus.BAD_REQUEST, parentErrors.get(dto));
+                    }
+                    Task task = tasks.get(dto.getId());
+                    return Objects.isNull(task) ?
+                            notFound(dto.getId()) :
+                            BatchItemResult.success(HttpStatus.OK, taskMapper.toDto(task));
+                })
+                .toList();
+    }
+
+    private List<BatchItemResult> updateStatusAll(List<BatchStatusDto> dtos) {
+        Map<Long, Task> tasks = findAllByIds(dtos.stream().map(BatchStatusDto::id).toList());
+        dtos.stream()
+                .filter(dto -> tasks.containsKey(dto.id()))
+                .forEach(dto -> tasks.get(dto.id()).setStatus(TaskStatus.fromStatus(dto.status())));
+        taskRepository.flush();
+        recordChanges(TaskChangeType.UPDATED, tasks.keySet());
+        return dtos.stream()
+                .map(dto -> {
+                    Task task = tasks.get(dto.id());
+                    return Objects.isNull(task) ?
+                            notFound(dto.id()) :
+                            BatchItemResult.success(HttpStatus.OK, taskMapper.toDto(task));
+                })
+                .toList();
+    }
+
+    private List<BatchItemResult> deleteAll(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Set<Long> existing = new HashSet<>(taskRepository.findExistingIds(ids));
+        recordChanges(TaskChangeType.DELETED, existing);
+        try {
+            taskRepository.deleteAllByIdInBatch(existing);
+        } catch (DataIntegrityViolationException e) {
+            throw new TaskHasSubtasksException(BATCH_HAS_SUBTASKS, e);
+        }
+        Set<Long> deleted = new HashSet<>();
+        return ids.stream()
+                .map(id -> existing.contains(id) && deleted.add(id) ?
+                        new BatchItemResult(id, HttpStatus.OK, null, null) :
+                        notFound(id))
+                .toList();
+    }
+
+    private Map<Long, Task> findAllByIds(List<Long> ids) {
+        List<Long> presentIds = ids.stream().filter(Objects::nonNull).toList();
+        if (presentIds.isEmpty()) {
+            return Map.of();
+        }
+        return taskRepository.findAllById(presentIds).stream()
+                .collect(Collectors.toMap(Task::getId, Function.identity()));
+    }
+
+    private static BatchItemResult notFound(Long id) {
+        return BatchItemResult.failure(id, HttpStatus.NOT_FOUND, String.format(FORMAT_TASK_NOT_FOUND, id));
+    }
+
+    private List<TaskDto> toDtos(List<Task> tasks) {
+        return tasks.stream().map(taskMapper::toDto).toList();
+    }
+
+    /**
+     * Maps a projected task to the JSON fields of {@link TaskDto}, in the order the DTO declares them.
+     */
+    private Map<String, Object> toFields(Tuple task, Set<TaskField> fields) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (TaskField field : fields) {
+            Object value = task.get(field.property());
+            values.put(field.property(), field == TaskField.STATUS ? taskMapper.mapTaskStatusToString((TaskStatus) value) : value);
+        }
+        return values;
     }
 
 }
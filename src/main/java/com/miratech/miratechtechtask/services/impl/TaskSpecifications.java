@@ -0,0 +1,53 @@
+package com.miratech.miratechtechtask.services.impl;
+
+import com.miratech.miratechtechtask.dto.TaskCursor;
+import com.miratech.miratechtechtask.dto.TaskStatus;
+import com.miratech.miratechtechtask.entities.Task;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Objects;
+
+/**
+ * Specifications used to filter task listings.
+ */
+public final class TaskSpecifications {
+
+    private TaskSpecifications() {
+    }
+
+    /**
+     * Builds the listing filter.
+     *
+     * @param title  Title of the task to filter by (optional).
+     * @param status Status of the task to filter by (optional).
+     * @return The filter, never null; matches all tasks when no criteria are given.
+     */
+    public static Specification<Task> filter(String title, String status) {
+        Specification<Task> initialSpec = null;
+        if (Objects.nonNull(title)) {
+            initialSpec = Specification.where((root, query, cb) -> cb.equal(root.get("title"), title));
+        }
+        if (Objects.nonNull(status)) {
+            TaskStatus taskStatus = TaskStatus.fromStatus(status);
+            initialSpec = Objects.isNull(initialSpec) ?
+                    Specification.where((root, query, cb) -> cb.equal(root.get("status"), taskStatus)) :
+                    initialSpec.and((root, query, cb) -> cb.equal(root.get("status"), taskStatus));
+        }
+        return Specification.where(initialSpec);
+    }
+
+    /**
+     * Seek predicate for tasks positioned after the cursor in (title, id) order. The redundant lower bound
+     * on title lets the planner range-scan the title index instead of evaluating the disjunction row by row.
+     */
+    public static Specification<Task> seekAfter(TaskCursor cursor) {
+        return (root, query, cb) -> cb.and(
+                cb.greaterThanOrEqualTo(root.get("title"), cursor.title()),
+                cb.or(
+                        cb.greaterThan(root.get("title"), cursor.title()),
+                        cb.greaterThan(root.get("id"), cursor.id())
+                )
+        );
+    }
+
+}
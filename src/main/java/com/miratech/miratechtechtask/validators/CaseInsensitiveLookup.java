@@ -0,0 +1,97 @@
+package com.miratech.miratechtechtask.validators;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Precomputed case-insensitive lookup of enum constants by label ({@link Labeled#label()}, or the constant name
+ * for other enums). Labels given as declared, in lower case or in upper case are found in a map; mixed case is
+ * compared character by character, rejecting labels of another length at once. Lookups allocate nothing.
+ *
+ * @param <E> Type of the enum.
+ */
+public final class CaseInsensitiveLookup<E extends Enum<E>> {
+
+    private static final ClassValue<CaseInsensitiveLookup<?>> LOOKUPS = new ClassValue<>() {
+        @Override
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        protected CaseInsensitiveLookup<?> computeValue(Class<?> type) {
+            return new CaseInsensitiveLookup(type);
+        }
+    };
+
+    private final Map<String, E> constants = new HashMap<>();
+
+    private final String[] labels;
+
+    private final E[] values;
+
+    private CaseInsensitiveLookup(Class<E> type) {
+        values = type.getEnumConstants();
+        labels = new String[values.length];
+        for (int i = 0; i < values.length; i++) {
+            labels[i] = values[i] instanceof Labeled labeled ? labeled.label() : values[i].name();
+            constants.put(labels[i], values[i]);
+            constants.put(labels[i].toLowerCase(Locale.ROOT), values[i]);
+            constants.put(labels[i].toUpperCase(Locale.ROOT), values[i]);
+        }
+    }
+
+    /**
+     * Returns the shared lookup of an enum type.
+     *
+     * @param type The enum type.
+     * @param <E>  Type of the enum.
+     * @return The lookup, built on first use.
+     */
+    @SuppressWarnings("unchecked")
+    public static <E extends Enum<E>> CaseInsensitiveLookup<E> of(Class<E> type) {
+        return (CaseInsensitiveLookup<E>) LOOKUPS.get(type);
+    }
+
+    /**
+     * Finds the constant with the given label, ignoring case.
+     *
+     * @param label The label to look up, may be null.
+     * @return The matching constant, or null if there is none.
+     */
+    public E get(String label) {
+        if (Objects.isNull(label)) {
+            return null;
+        }
+        E value = constants.get(label);
+        if (Objects.nonNull(value)) {
+            return value;
+        }
+        for (int i = 0; i < labels.length; i++) {
+            if (equalsIgnoreCase(labels[i], label)) {
+                return values[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Same as {@link String#equalsIgnoreCase(String)}, but only folds the case of characters that differ.
+     */
+    private static boolean equalsIgnoreCase(String a, String b) {
+        if (a.length() != b.length()) {
+            return false;
+        }
+        for (int i = 0; i < a.length(); i++) {
+            char x = a.charAt(i);
+            char y = b.charAt(i);
+            if (x != y) {
+                char upperX = Character.toUpperCase(x);
+                char upperY = Character.toUpperCase(y);
+                if (upperX != upperY && Character.toLowerCase(upperX) != Character.toLowerCase(upperY)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+}
@@ -3,29 +3,24 @@ package com.miratech.miratechtechtask.validators;
 import jakarta.validation.ConstraintValidator;
 import jakarta.validation.ConstraintValidatorContext;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Objects;
 
 public class EnumValidatorImpl implements ConstraintValidator<EnumValidator, String> {
 
-    List<String> valueList = new ArrayList<>();
+    private CaseInsensitiveLookup<?> lookup;
 
+    /**
+     * Null values are accepted here and rejected by the @NotNull constraint composed into {@link EnumValidator}.
+     */
     @Override
     public boolean isValid(String value, ConstraintValidatorContext context) {
-        return valueList.contains(String.join("", value.toUpperCase().split(" ")));
+        return Objects.isNull(value) || Objects.nonNull(lookup.get(value));
     }
 
     @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
     public void initialize(EnumValidator constraintAnnotation) {
-        valueList = new ArrayList<>();
-        Class<? extends Enum<?>> enumClass = constraintAnnotation.enumClazz();
-
-        @SuppressWarnings("rawtypes")
-        Enum[] enumValArr = enumClass.getEnumConstants();
-
-        for (@SuppressWarnings("rawtypes") Enum enumVal : enumValArr) {
-            valueList.add(String.join("", enumVal.toString().toUpperCase().split("_")));
-        }
+        lookup = CaseInsensitiveLookup.of((Class) constraintAnnotation.enumClazz());
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,13 @@
+package com.miratech.miratechtechtask.validators;
+
+/**
+ * Enum whose constants are exchanged through the API by a label instead of their name.
+ */
+public interface Labeled {
+
+    /**
+     * @return The label of the constant.
+     */
+    String label();
+
+}
@@ -0,0 +1,2 @@
+-- Hibernate allocates ids in blocks of 50 (pooled optimizer), which lets inserts be batched
+ALTER SEQUENCE task_id_seq INCREMENT BY 50;
@@ -0,0 +1,2 @@
+ALTER TABLE task
+    ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,12 @@
+-- full-text search over title (weight A) and description (weight B), maintained by PostgreSQL
+ALTER TABLE task ADD COLUMN search tsvector GENERATED ALWAYS AS (
+    setweight(to_tsvector('english', coalesce(title, '')), 'A') ||
+    setweight(to_tsvector('english', coalesce(description, '')), 'B')
+) STORED;
+
+CREATE INDEX task_search ON task USING GIN (search);
+
+-- trigram index serving prefix and substring ILIKE on title
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX task_title_trgm ON task USING GIN (title gin_trgm_ops);
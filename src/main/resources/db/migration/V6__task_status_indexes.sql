@@ -0,0 +1,6 @@
+-- Status filters are ordered by title with id as the tiebreaker. Completed tasks accumulate while the open
+-- ones stay a small working set, so each side gets its own partial index and the open-task index stays hot.
+-- Both are (.., title, id), so count(id) over a status is answered by an index-only scan.
+CREATE INDEX task_open_status_title ON task (status, title, id) WHERE status <> 'COMPLETED';
+
+CREATE INDEX task_completed_title ON task (title, id) WHERE status = 'COMPLETED';
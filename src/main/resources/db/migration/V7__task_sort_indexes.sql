@@ -0,0 +1,7 @@
+-- every sort ends with id as the tiebreaker, so each sort key is indexed together with id
+CREATE INDEX task_title_id ON task (title, id);
+
+CREATE INDEX task_status_id ON task (status, id);
+
+-- superseded by task_title_id and, for equal titles and statuses, by the partial status indexes
+DROP INDEX title_asc;
@@ -0,0 +1,22 @@
+-- Outbox of task mutations, appended in the transaction of the mutation and relayed to the change feed.
+-- Row ids are taken in insert order, not commit order, so a row with a lower id may commit after a higher one.
+-- Changes are therefore read in (tx_id, id) order and only once their transaction is older than every
+-- running one: any row committed later belongs to a younger transaction and sorts after the rows relayed.
+CREATE TABLE task_change
+(
+    id          BIGSERIAL   NOT NULL,
+    tx_id       XID8        NOT NULL DEFAULT pg_current_xact_id(),
+    task_id     BIGINT      NOT NULL,
+    type        VARCHAR(16) NOT NULL,
+    title       VARCHAR(50),
+    description VARCHAR(255),
+    status      task_status_type,
+    version     BIGINT,
+    created_at  TIMESTAMPTZ NOT NULL DEFAULT now(),
+    CONSTRAINT pk_task_change PRIMARY KEY (id)
+);
+
+CREATE INDEX task_change_position ON task_change (tx_id, id);
+
+-- rows are appended in time order, so a block range index is enough to expire old changes
+CREATE INDEX task_change_created_at ON task_change USING brin (created_at);
@@ -0,0 +1,10 @@
+-- Subtasks reference their parent. Deleting a task with subtasks is refused rather than cascaded, so that every
+-- removed row goes through the outbox and the caches, which track tasks one by one.
+ALTER TABLE task
+    ADD COLUMN parent_id BIGINT CONSTRAINT fk_task_parent REFERENCES task (id);
+
+-- walked by the recursive subtree queries, one probe per task; most tasks are top-level and stay out of it
+CREATE INDEX task_parent_id ON task (parent_id) WHERE parent_id IS NOT NULL;
+
+ALTER TABLE task_change
+    ADD COLUMN parent_id BIGINT;
@@ -0,0 +1,71 @@
+package com.miratech.miratechtechtask.configs;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long FAST = Duration.ofMillis(10).toNanos();
+    private static final long SLOW = Duration.ofSeconds(1).toNanos();
+
+    private static AdaptiveConcurrencyLimiter limiter(int initial, int min, int max) {
+        return new AdaptiveConcurrencyLimiter(
+                new LimitProperties.Limit(50, 100, initial, min, max, Duration.ofMillis(500), 0.5));
+    }
+
+    private static void acquire(AdaptiveConcurrencyLimiter limiter, int permits) {
+        IntStream.range(0, permits).forEach(i -> assertTrue(limiter.tryAcquire()));
+    }
+
+    @Test
+    @DisplayName("Test permits beyond the limit are refused")
+    void testLimit() {
+        AdaptiveConcurrencyLimiter limiter = limiter(2, 1, 10);
+        acquire(limiter, 2);
+        assertFalse(limiter.tryAcquire());
+        limiter.release();
+        assertTrue(limiter.tryAcquire());
+        assertEquals(2, limiter.getInFlight());
+    }
+
+    @Test
+    @DisplayName("Test fast responses under load raise the limit up to the maximum")
+    void testIncrease() {
+        AdaptiveConcurrencyLimiter limiter = limiter(4, 1, 5);
+        acquire(limiter, 4);
+        limiter.release(FAST, false);
+        assertEquals(5, limiter.getLimit());
+        acquire(limiter, 2);
+        limiter.release(FAST, false);
+        assertEquals(5, limiter.getLimit());
+    }
+
+    @Test
+    @DisplayName("Test fast responses without load keep the limit")
+    void testIdle() {
+        AdaptiveConcurrencyLimiter limiter = limiter(4, 1, 10);
+        acquire(limiter, 1);
+        limiter.release(FAST, false);
+        assertEquals(4, limiter.getLimit());
+    }
+
+    @Test
+    @DisplayName("Test slow and failed responses cut the limit down to the minimum")
+    void testDecrease() {
+        AdaptiveConcurrencyLimiter limiter = limiter(8, 2, 10);
+        acquire(limiter, 3);
+        limiter.release(SLOW, false);
+        assertEquals(4, limiter.getLimit());
+        limiter.release(FAST, true);
+        assertEquals(2, limiter.getLimit());
+        limiter.release(SLOW, false);
+        assertEquals(2, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+}
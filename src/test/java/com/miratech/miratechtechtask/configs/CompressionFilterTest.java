@@ -0,0 +1,113 @@
+package com.miratech.miratechtechtask.configs;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class CompressionFilterTest {
+
+    @DisplayName("Test 'negotiate()'")
+    @ParameterizedTest(name = "From ''{0}'' result => {1}")
+    @MethodSource("getNegotiateArgs")
+    void testNegotiate(String acceptEncoding, String coding) {
+        assertEquals(coding, CompressionFilter.negotiate(acceptEncoding));
+    }
+
+    private static Stream<Arguments> getNegotiateArgs() {
+        return Stream.of(
+                Arguments.of(null, null),
+                Arguments.of("", null),
+                Arguments.of("identity", null),
+                Arguments.of("gzip", "gzip"),
+                Arguments.of("gzip, deflate, br, zstd", "zstd"),
+                Arguments.of("GZIP;q=0.5, ZSTD;q=1.0", "zstd"),
+                Arguments.of("zstd;q=0, gzip", "gzip"),
+                Arguments.of("*", "zstd"),
+                Arguments.of("*, zstd;q=0", "gzip"),
+                Arguments.of("gzip;q=0, zstd;q=0", null),
+                Arguments.of("gzip;q=abc", null)
+        );
+    }
+
+    @Test
+    @DisplayName("Non-blocking writes pass the body through uncompressed")
+    void testNonBlockingWritesPassThrough() throws IOException {
+        NonBlockingOutputStream wrapped = new NonBlockingOutputStream();
+        MockHttpServletResponse mock = new MockHttpServletResponse();
+        CompressingResponse response = new CompressingResponse(new HttpServletResponseWrapper(mock) {
+            @Override
+            public ServletOutputStream getOutputStream() {
+                return wrapped;
+            }
+        }, new CompressionProperties(DataSize.ofBytes(4), List.of(MediaType.APPLICATION_JSON), 3),
+                CompressionFilter.GZIP);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        ServletOutputStream out = response.getOutputStream();
+        out.write("[".getBytes(StandardCharsets.UTF_8));
+
+        WriteListener listener = new WriteListener() {
+            @Override
+            public void onWritePossible() {
+            }
+
+            @Override
+            public void onError(Throwable t) {
+            }
+        };
+        out.setWriteListener(listener);
+        assertSame(listener, wrapped.listener);
+        assertFalse(out.isReady());
+        out.write("1, 2, 3]".getBytes(StandardCharsets.UTF_8));
+        response.finish();
+
+        assertNull(mock.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("[1, 2, 3]", wrapped.body.toString(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Stream of a response in non-blocking mode whose client is not ready for more.
+     */
+    private static final class NonBlockingOutputStream extends ServletOutputStream {
+
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+        private WriteListener listener;
+
+        @Override
+        public void write(int b) {
+            body.write(b);
+        }
+
+        @Override
+        public boolean isReady() {
+            return listener == null;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            listener = writeListener;
+        }
+
+    }
+
+}
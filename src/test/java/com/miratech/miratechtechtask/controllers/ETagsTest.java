@@ -0,0 +1,50 @@
+package com.miratech.miratechtechtask.controllers;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.*;
+
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ETagsTest {
+
+    @DisplayName("Test 'expectedVersions()' with any version")
+    @ParameterizedTest(name = "From ''{0}'' result => null")
+    @NullSource
+    @EmptySource
+    @ValueSource(strings = {" ", "*", " * "})
+    void testExpectedVersionsAny(String ifMatch) {
+        assertNull(ETags.expectedVersions(ifMatch));
+    }
+
+    @DisplayName("Test 'expectedVersions()'")
+    @ParameterizedTest(name = "From {0} result => {1}")
+    @MethodSource("getExpectedVersionsArgs")
+    void testExpectedVersions(String ifMatch, Set<Long> result) {
+        assertEquals(result, ETags.expectedVersions(ifMatch));
+    }
+
+    private static Stream<Arguments> getExpectedVersionsArgs() {
+        return Stream.of(
+                Arguments.of("\"1\"", Set.of(1L)),
+                Arguments.of(" \"1\" ", Set.of(1L)),
+                Arguments.of("\"1\", \"3\"", Set.of(1L, 3L)),
+                Arguments.of("\"1\",\"3\",\"1\"", Set.of(1L, 3L)),
+
+                Arguments.of("W/\"1\"", Set.of()),
+                Arguments.of("W/\"1\", \"3\"", Set.of(3L)),
+                Arguments.of("\"1\", W/\"3\"", Set.of(1L)),
+
+                Arguments.of("\"a\"", Set.of()),
+                Arguments.of("\"1,2\", \"3\"", Set.of(3L)),
+                Arguments.of("1, \"3\"", Set.of(3L)),
+                Arguments.of("\"1\", \"3", Set.of(1L)),
+                Arguments.of("\"\"", Set.of())
+        );
+    }
+
+}
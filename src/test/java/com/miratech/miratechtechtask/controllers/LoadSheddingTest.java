@@ -0,0 +1,136 @@
+package com.miratech.miratechtechtask.controllers;
+
+import com.miratech.miratechtechtask.configs.LoadSheddingInterceptor;
+import com.miratech.miratechtechtask.configs.ReadYourWritesFilter;
+import com.miratech.miratechtechtask.dto.TaskStatus;
+import com.miratech.miratechtechtask.entities.Task;
+import com.miratech.miratechtechtask.repositories.TaskRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@AutoConfigureEmbeddedDatabase(provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY)
+@ActiveProfiles(profiles = {"test"})
+@SpringBootTest(properties = {
+        "tasks.limits.enabled=true",
+        "tasks.limits.endpoints.getById.rate=0.5",
+        "tasks.limits.endpoints.getById.burst=2",
+        "tasks.limits.trusted-proxies=10.0.0.1",
+        // the first, cold listing may take longer than the default threshold
+        "tasks.limits.endpoints.getAll.latency-threshold=1m"
+})
+@DirtiesContext
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@DisplayName("Load shedding tests")
+public class LoadSheddingTest {
+    private static final String URL = "/miratech/tasks";
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private MockMvc mvc;
+
+    private Long id;
+
+    @BeforeAll
+    void setup() {
+        id = taskRepository.save(Task.builder().title("Limited").description("Limited").status(TaskStatus.PENDING).build())
+                .getId();
+        mvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+    }
+
+    private static RequestPostProcessor from(String address) {
+        return request -> {
+            request.setRemoteAddr(address);
+            return request;
+        };
+    }
+
+    @Test
+    @SneakyThrows
+    @DisplayName("Test a client is rate limited per endpoint by its address")
+    void testRateLimit() {
+        double rejected = rejected();
+        for (int i = 0; i < 2; i++) {
+            mvc.perform(get(URL + "/" + id).with(from("192.0.2.1")).header(ReadYourWritesFilter.CLIENT_HEADER, "eager-" + i))
+                    .andExpect(status().isOk());
+        }
+        // a new client ID does not refill the bucket of an address that is not a trusted proxy
+        mvc.perform(get(URL + "/" + id).with(from("192.0.2.1")).header(ReadYourWritesFilter.CLIENT_HEADER, "eager-2"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "2"))
+                .andExpect(jsonPath("$.status").value("TOO_MANY_REQUESTS"));
+        mvc.perform(get(URL).with(from("192.0.2.1")))
+                .andExpect(status().isOk());
+        mvc.perform(get(URL + "/" + id).with(from("192.0.2.2")))
+                .andExpect(status().isOk());
+
+        assertEquals(rejected + 1, rejected());
+    }
+
+    private double rejected() {
+        return meterRegistry.find(LoadSheddingInterceptor.REJECTED)
+                .tags("endpoint", "getById", "reason", "rate")
+                .counters().stream()
+                .mapToDouble(Counter::count)
+                .sum();
+    }
+
+    @Test
+    @SneakyThrows
+    @DisplayName("Test clients behind a trusted proxy are rate limited by their ID")
+    void testRateLimitBehindProxy() {
+        for (int i = 0; i < 2; i++) {
+            mvc.perform(get(URL + "/" + id).with(from("10.0.0.1")).header(ReadYourWritesFilter.CLIENT_HEADER, "proxied"))
+                    .andExpect(status().isOk());
+        }
+        mvc.perform(get(URL + "/" + id).with(from("10.0.0.1")).header(ReadYourWritesFilter.CLIENT_HEADER, "proxied"))
+                .andExpect(status().isTooManyRequests());
+        mvc.perform(get(URL + "/" + id).with(from("10.0.0.1")).header(ReadYourWritesFilter.CLIENT_HEADER, "other"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @SneakyThrows
+    @DisplayName("Test permits are returned, streams when they start")
+    void testConcurrency() {
+        mvc.perform(get(URL).param("title", "Limited"))
+                .andExpect(status().isOk());
+        MvcResult export = mvc.perform(get(URL + ":export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertEquals(0, meterRegistry.get(LoadSheddingInterceptor.IN_FLIGHT)
+                .tag("endpoint", "export").gauge().value());
+        mvc.perform(asyncDispatch(export))
+                .andExpect(status().isOk());
+
+        assertEquals(10, meterRegistry.get(LoadSheddingInterceptor.LIMIT)
+                .tag("endpoint", "getAll").gauge().value());
+        assertEquals(0, meterRegistry.get(LoadSheddingInterceptor.IN_FLIGHT)
+                .tag("endpoint", "getAll").gauge().value());
+    }
+
+}
@@ -0,0 +1,346 @@
+package com.miratech.miratechtechtask.controllers;
+
+import com.miratech.miratechtechtask.dto.TaskChangeType;
+import com.miratech.miratechtechtask.dto.TaskDto;
+import com.miratech.miratechtechtask.dto.TaskStatus;
+import com.miratech.miratechtechtask.dto.UpdateStatusDto;
+import com.miratech.miratechtechtask.entities.Task;
+import com.miratech.miratechtechtask.entities.TaskChange;
+import com.miratech.miratechtechtask.repositories.TaskChangeRepository;
+import com.miratech.miratechtechtask.repositories.TaskRepository;
+import io.r2dbc.postgresql.PostgresqlConnectionConfiguration;
+import io.r2dbc.postgresql.PostgresqlConnectionFactory;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import lombok.SneakyThrows;
+import org.flywaydb.test.annotation.FlywayTest;
+import org.junit.jupiter.api.*;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import javax.sql.DataSource;
+import java.net.URI;
+import java.sql.DatabaseMetaData;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@FlywayTest
+@AutoConfigureEmbeddedDatabase(provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY)
+@ActiveProfiles(profiles = {"test", "reactive"})
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@DisplayName("Reactive Task Controller API tests")
+public class ReactiveTaskControllerTest {
+    private static final String URL = "/miratech/tasks";
+    private static final String TITLE = "Reactive";
+    private static final int TASKS = 30;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TaskChangeRepository taskChangeRepository;
+
+    private WebTestClient client;
+
+    private List<Task> tasks;
+
+    @BeforeAll
+    public void setup() {
+        tasks = taskRepository.saveAll(IntStream.range(0, TASKS)
+                .mapToObj(i -> Task.builder()
+                        .title(TITLE)
+                        .description("Reactive description " + i)
+                        .status(TaskStatus.values()[i % TaskStatus.values().length])
+                        .build())
+                .toList());
+        client = WebTestClient.bindToApplicationContext(applicationContext).build();
+    }
+
+    @AfterAll
+    public void cleanup() {
+        taskRepository.deleteAll(taskRepository.findByTitle(TITLE));
+    }
+
+    @Test
+    @DisplayName("Get page of tasks")
+    void testGetAll() {
+        client.get().uri(URL + "?title={title}&status={status}&offset=2", TITLE, TaskStatus.PENDING.getStatus())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.totalElements").isEqualTo(TASKS / TaskStatus.values().length)
+                .jsonPath("$.content.length()").isEqualTo(2)
+                .jsonPath("$.content[0].status").isEqualTo(TaskStatus.PENDING.getStatus());
+    }
+
+    @Test
+    @DisplayName("Stream tasks as NDJSON")
+    void testStream() {
+        List<TaskDto> streamed = client.get().uri(URL + "?title={title}", TITLE)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(TaskDto.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+        assertEquals(TASKS, streamed.size());
+        for (int i = 1; i < streamed.size(); i++) {
+            assertTrue(streamed.get(i - 1).getId() < streamed.get(i).getId());
+        }
+    }
+
+    @Test
+    @DisplayName("Get task by ID with ETag")
+    void testGetById() {
+        Task task = tasks.get(0);
+        String eTag = client.get().uri(URL + "/{id}", task.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(task.getId())
+                .jsonPath("$.description").isEqualTo(task.getDescription())
+                .returnResult()
+                .getResponseHeaders()
+                .getETag();
+        client.get().uri(URL + "/{id}", task.getId())
+                .ifNoneMatch(eTag)
+                .exchange()
+                .expectStatus().isNotModified();
+    }
+
+    @Test
+    @DisplayName("Get missing task")
+    void testGetByIdNotFound() {
+        client.get().uri(URL + "/{id}", Long.MAX_VALUE)
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo(String.format("Task with id %d not found", Long.MAX_VALUE));
+    }
+
+    @Test
+    @DisplayName("Create, update, patch and delete task, recording every change")
+    void testLifecycle() {
+        TaskDto created = client.post().uri(URL)
+                .bodyValue(TaskDto.builder().title("Reactive created").description("Created").status("to do").build())
+                .exchange()
+                .expectStatus().isCreated()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, ETags.of(0L))
+                .expectBody(TaskDto.class)
+                .returnResult()
+                .getResponseBody();
+        Long id = created.getId();
+
+        client.put().uri(URL + "/{id}", id)
+                .header(HttpHeaders.IF_MATCH, ETags.of(0L))
+                .bodyValue(TaskDto.builder().title("Reactive updated").description("Updated").status("IN PROGRESS").build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, ETags.of(1L))
+                .expectBody()
+                .jsonPath("$.title").isEqualTo("Reactive updated")
+                .jsonPath("$.status").isEqualTo(TaskStatus.IN_PROGRESS.getStatus());
+
+        client.patch().uri(URL + "/{id}", id)
+                .header(HttpHeaders.IF_MATCH, ETags.of(0L))
+                .bodyValue(UpdateStatusDto.builder().status("completed").build())
+                .exchange()
+                .expectStatus().isEqualTo(412);
+
+        client.patch().uri(URL + "/{id}", id)
+                .bodyValue(UpdateStatusDto.builder().status("completed").build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(TaskStatus.COMPLETED.getStatus())
+                .jsonPath("$.version").isEqualTo(2);
+
+        client.delete().uri(URL + "/{id}", id)
+                .exchange()
+                .expectStatus().isOk();
+        client.delete().uri(URL + "/{id}", id)
+                .exchange()
+                .expectStatus().isNotFound();
+
+        List<TaskChange> changes = changesOf(id);
+        assertEquals(List.of(TaskChangeType.CREATED, TaskChangeType.UPDATED, TaskChangeType.UPDATED,
+                TaskChangeType.DELETED), changes.stream().map(TaskChange::getType).toList());
+        assertEquals(List.of(0L, 1L, 2L, 2L), changes.stream().map(TaskChange::getVersion).toList());
+        assertEquals(TaskStatus.COMPLETED, changes.get(3).getStatus());
+    }
+
+    @Test
+    @DisplayName("Weak ETag never matches, list of ETags holding the current one does")
+    void testETagList() {
+        Task task = taskRepository.save(Task.builder()
+                .title(TITLE)
+                .description("Listed")
+                .status(TaskStatus.PENDING)
+                .build());
+        client.patch().uri(URL + "/{id}", task.getId())
+                .header(HttpHeaders.IF_MATCH, "W/\"0\"")
+                .bodyValue(UpdateStatusDto.builder().status("completed").build())
+                .exchange()
+                .expectStatus().isEqualTo(412);
+        client.patch().uri(URL + "/{id}", task.getId())
+                .header(HttpHeaders.IF_MATCH, "\"7\", W/\"9\", \"0\"")
+                .bodyValue(UpdateStatusDto.builder().status("completed").build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, ETags.of(1L));
+        client.delete().uri(URL + "/{id}", task.getId())
+                .header(HttpHeaders.IF_MATCH, "\"0\", \"1\"")
+                .exchange()
+                .expectStatus().isOk();
+    }
+
+    @Test
+    @DisplayName("Refuse to delete task with subtasks")
+    void testDeleteWithSubtasks() {
+        Task parent = tasks.get(0);
+        Task subtask = taskRepository.save(Task.builder()
+                .title(TITLE)
+                .description("Subtask")
+                .status(TaskStatus.PENDING)
+                .parentId(parent.getId())
+                .build());
+        try {
+            client.delete().uri(URL + "/{id}", parent.getId())
+                    .exchange()
+                    .expectStatus().isEqualTo(409)
+                    .expectBody()
+                    .jsonPath("$.message").isEqualTo(String.format("Task with id %d has subtasks", parent.getId()));
+            assertTrue(taskRepository.existsById(parent.getId()));
+            assertTrue(changesOf(parent.getId()).stream()
+                    .noneMatch(change -> change.getType() == TaskChangeType.DELETED));
+        } finally {
+            taskRepository.delete(subtask);
+        }
+    }
+
+    @Test
+    @DisplayName("Create subtask and keep or clear its parent")
+    void testParent() {
+        Task parent = tasks.get(1);
+        TaskDto subtask = client.post().uri(URL)
+                .bodyValue(TaskDto.builder().title(TITLE).description("Subtask").status("pending")
+                        .parentId(parent.getId()).build())
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(TaskDto.class)
+                .returnResult()
+                .getResponseBody();
+        try {
+            assertEquals(parent.getId(), subtask.getParentId());
+            client.post().uri(URL)
+                    .bodyValue(TaskDto.builder().title(TITLE).description("Orphan").status("pending")
+                            .parentId(Long.MAX_VALUE).build())
+                    .exchange()
+                    .expectStatus().isBadRequest()
+                    .expectBody()
+                    .jsonPath("$.message").isEqualTo(String.format("Parent task with id %d not found", Long.MAX_VALUE));
+            client.put().uri(URL + "/{id}", subtask.getId())
+                    .bodyValue(TaskDto.builder().title(TITLE).description("Moved").status("pending")
+                            .parentId(tasks.get(2).getId()).build())
+                    .exchange()
+                    .expectStatus().isBadRequest()
+                    .expectBody()
+                    .jsonPath("$.message").isEqualTo(
+                            String.format("Task with id %d cannot be moved under another parent", subtask.getId()));
+            client.put().uri(URL + "/{id}", subtask.getId())
+                    .bodyValue(TaskDto.builder().title(TITLE).description("Kept").status("pending")
+                            .parentId(parent.getId()).build())
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody()
+                    .jsonPath("$.parentId").isEqualTo(parent.getId());
+            client.put().uri(URL + "/{id}", subtask.getId())
+                    .bodyValue(TaskDto.builder().title(TITLE).description("Top-level").status("pending").build())
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody()
+                    .jsonPath("$.parentId").doesNotExist();
+            assertNull(taskRepository.findById(subtask.getId()).orElseThrow().getParentId());
+        } finally {
+            taskRepository.deleteById(subtask.getId());
+        }
+    }
+
+    @Test
+    @DisplayName("Reject invalid status")
+    void testInvalidStatus() {
+        client.patch().uri(URL + "/{id}", tasks.get(0).getId())
+                .bodyValue(UpdateStatusDto.builder().status("wrong").build())
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    private List<TaskChange> changesOf(Long id) {
+        return taskChangeRepository.findAll().stream()
+                .filter(change -> change.getTaskId().equals(id))
+                .sorted(Comparator.comparing(TaskChange::getId))
+                .toList();
+    }
+
+    /**
+     * Points R2DBC at the embedded database. The database behind the DataSource changes when Flyway resets it,
+     * so its location is looked up for every connection.
+     */
+    @TestConfiguration
+    static class EmbeddedConnectionFactory {
+
+        @Bean
+        ConnectionFactory connectionFactory(DataSource dataSource, @Value("${spring.flyway.default-schema}") String schema) {
+            return new ConnectionFactory() {
+                @Override
+                public Publisher<? extends Connection> create() {
+                    return Mono.defer(() -> new PostgresqlConnectionFactory(configuration(dataSource, schema)).create());
+                }
+
+                @Override
+                public ConnectionFactoryMetadata getMetadata() {
+                    return () -> "PostgreSQL";
+                }
+            };
+        }
+
+        @SneakyThrows
+        private static PostgresqlConnectionConfiguration configuration(DataSource dataSource, String schema) {
+            try (java.sql.Connection connection = dataSource.getConnection()) {
+                DatabaseMetaData metaData = connection.getMetaData();
+                URI uri = URI.create(metaData.getURL().substring("jdbc:".length()));
+                return PostgresqlConnectionConfiguration.builder()
+                        .host(uri.getHost())
+                        .port(uri.getPort())
+                        .database(uri.getPath().substring(1))
+                        .username(metaData.getUserName())
+                        .schema(schema)
+                        .build();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,136 @@
+package com.miratech.miratechtechtask.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.miratech.miratechtechtask.configs.ReadYourWritesFilter;
+import com.miratech.miratechtechtask.dto.TaskDto;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import lombok.SneakyThrows;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs against two embedded PostgreSQL instances: the primary provided by Zonky and a replica started here.
+ * The replica is migrated but not replicated to, so whether a task is visible tells which instance served the read.
+ */
+@AutoConfigureEmbeddedDatabase(provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY, beanName = "primaryDataSource")
+@ActiveProfiles(profiles = {"test"})
+@SpringBootTest
+@DirtiesContext
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@DisplayName("Read replica routing tests")
+public class ReplicaRoutingTest {
+    private static final String URL = "/miratech/tasks";
+    private static final String WRITER = "writer";
+    private static final String READER = "reader";
+    private static final Duration WINDOW = Duration.ofSeconds(2);
+
+    private static EmbeddedPostgres replica;
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private MockMvc mvc;
+
+    @DynamicPropertySource
+    static void replicaProperties(DynamicPropertyRegistry registry) throws IOException {
+        replica = EmbeddedPostgres.start();
+        Flyway.configure()
+                .dataSource(replica.getPostgresDatabase())
+                .defaultSchema("miratech_schema")
+                .createSchemas(true)
+                .locations("classpath:db/migration")
+                .load()
+                .migrate();
+        registry.add("tasks.datasource.replicas[0].url", () -> replica.getJdbcUrl("postgres", "postgres"));
+        registry.add("tasks.datasource.read-your-writes-window", WINDOW::toString);
+    }
+
+    @BeforeAll
+    public void setup() {
+        this.mvc = MockMvcBuilders.webAppContextSetup(this.webApplicationContext)
+                .addFilters(readYourWritesFilter.getFilter())
+                .build();
+    }
+
+    @AfterAll
+    public void cleanup() throws IOException {
+        new JdbcTemplate(primaryDataSource).update("DELETE FROM miratech_schema.task");
+        replica.close();
+    }
+
+    @Test
+    @SneakyThrows
+    @DisplayName("Reads are served by the replica")
+    void testReadsFromReplica() {
+        new JdbcTemplate(replica.getPostgresDatabase()).update("INSERT INTO miratech_schema.task (id, title, description, status) " +
+                "VALUES (nextval('miratech_schema.task_id_seq'), 'Replica', 'Only on the replica', 'PENDING')");
+
+        mvc.perform(get(URL).param("title", "Replica").header(ReadYourWritesFilter.CLIENT_HEADER, READER))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(1));
+    }
+
+    @Test
+    @SneakyThrows
+    @DisplayName("Writes go to the primary, and so do the reads of the writer within the window")
+    void testReadYourWrites() {
+        TaskDto task = TaskDto.builder().title("Routed").description("Written to the primary").status("pending").build();
+        String created = mvc.perform(post(URL)
+                        .header(ReadYourWritesFilter.CLIENT_HEADER, WRITER)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(task)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        long id = objectMapper.readValue(created, TaskDto.class).getId();
+        assertEquals(1, new JdbcTemplate(primaryDataSource)
+                .queryForObject("SELECT COUNT(*) FROM miratech_schema.task WHERE id = ?", Integer.class, id));
+
+        mvc.perform(get(URL).param("title", "Routed").header(ReadYourWritesFilter.CLIENT_HEADER, WRITER))
+                .andExpect(jsonPath("$.totalElements").value(1));
+        mvc.perform(get(URL + "/" + id).header(ReadYourWritesFilter.CLIENT_HEADER, WRITER))
+                .andExpect(status().isOk());
+        mvc.perform(get(URL).param("title", "Routed").header(ReadYourWritesFilter.CLIENT_HEADER, READER))
+                .andExpect(jsonPath("$.totalElements").value(0));
+        mvc.perform(get(URL + "/" + id).header(ReadYourWritesFilter.CLIENT_HEADER, READER))
+                .andExpect(status().isNotFound());
+
+        Thread.sleep(WINDOW.toMillis() + 200);
+        mvc.perform(get(URL).param("title", "Routed").header(ReadYourWritesFilter.CLIENT_HEADER, WRITER))
+                .andExpect(jsonPath("$.totalElements").value(0));
+    }
+
+}
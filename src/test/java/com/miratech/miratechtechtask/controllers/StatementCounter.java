@@ -0,0 +1,94 @@
+package com.miratech.miratechtechtask.controllers;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Counts the statements executed through a data source, one per database round trip: a JDBC batch counts
+ * once. Wraps the data source, its connections and their statements in JDK proxies; unwrapped connections,
+ * as used by COPY, are not counted.
+ */
+class StatementCounter {
+
+    private final List<String> statements = new CopyOnWriteArrayList<>();
+
+    DataSource wrap(DataSource dataSource) {
+        return proxy(DataSource.class, dataSource, (target, method, args) -> {
+            Object result = method.invoke(target, args);
+            return result instanceof Connection connection ? wrap(connection) : result;
+        });
+    }
+
+    private Connection wrap(Connection connection) {
+        return proxy(Connection.class, connection, (target, method, args) -> {
+            Object result = method.invoke(target, args);
+            String sql = method.getName().startsWith("prepare") ? (String) args[0] : null;
+            if (result instanceof CallableStatement statement) {
+                return wrap(CallableStatement.class, statement, sql);
+            }
+            if (result instanceof PreparedStatement statement) {
+                return wrap(PreparedStatement.class, statement, sql);
+            }
+            if (result instanceof Statement statement) {
+                return wrap(Statement.class, statement, null);
+            }
+            return result;
+        });
+    }
+
+    private <T extends Statement> T wrap(Class<T> type, T statement, String prepared) {
+        return proxy(type, statement, (target, method, args) -> {
+            if (method.getName().startsWith("execute")) {
+                statements.add(args != null && args.length > 0 && args[0] instanceof String sql ? sql : prepared);
+            }
+            return method.invoke(target, args);
+        });
+    }
+
+    /**
+     * @return The SQL of the statements executed since the last reset, in execution order.
+     */
+    List<String> statements() {
+        return List.copyOf(statements);
+    }
+
+    void reset() {
+        statements.clear();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target, Handler<T> handler) {
+        InvocationHandler invocationHandler = (proxy, method, args) -> {
+            // proxies are compared by identity, as drivers and Hibernate do with the statements they track
+            if (method.getName().equals("equals")) {
+                return proxy == args[0];
+            }
+            if (method.getName().equals("hashCode")) {
+                return System.identityHashCode(proxy);
+            }
+            try {
+                return handler.invoke(target, method, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        };
+        return (T) Proxy.newProxyInstance(StatementCounter.class.getClassLoader(), new Class<?>[]{type}, invocationHandler);
+    }
+
+    @FunctionalInterface
+    private interface Handler<T> {
+
+        Object invoke(T target, Method method, Object[] args) throws Throwable;
+
+    }
+
+}
@@ -0,0 +1,115 @@
+package com.miratech.miratechtechtask.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.miratech.miratechtechtask.dto.TaskBatchDto;
+import com.miratech.miratechtechtask.dto.TaskDto;
+import com.miratech.miratechtechtask.dto.TaskStatus;
+import com.miratech.miratechtechtask.repositories.TaskRepository;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import io.zonky.test.db.util.RandomStringUtils;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.SneakyThrows;
+import lombok.extern.log4j.Log4j2;
+import org.flywaydb.test.annotation.FlywayTest;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs in its own application context: statistics are enabled, and the pooled id allocations
+ * made here must not leak into the ID expectations of the other controller tests.
+ */
+@FlywayTest
+@AutoConfigureEmbeddedDatabase(provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY)
+@ActiveProfiles(profiles = {"test"})
+@SpringBootTest
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@DirtiesContext
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Log4j2
+@DisplayName("Task batch throughput tests")
+public class TaskBatchThroughputTest {
+    private static final String URL = "/miratech/tasks:batch";
+    private static final int BATCHES = 5;
+    private static final int BATCH_SIZE = 2_000;
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private MockMvc mvc;
+
+    private Statistics statistics;
+
+    @BeforeAll
+    public void setup() {
+        this.mvc = MockMvcBuilders.webAppContextSetup(this.webApplicationContext).build();
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterAll
+    public void cleanup() {
+        taskRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @SneakyThrows
+    @DisplayName("[200] inserts are sent in JDBC batches")
+    void testBatchCreateThroughput() {
+        long before = taskRepository.count();
+        statistics.clear();
+        long start = System.nanoTime();
+        for (int i = 0; i < BATCHES; i++) {
+            mvc.perform(post(URL)
+                            .contentType(MediaType.APPLICATION_JSON_VALUE)
+                            .content(objectMapper.writeValueAsString(createBatch())))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.create.length()").value(BATCH_SIZE));
+        }
+        long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        int total = BATCHES * BATCH_SIZE;
+        log.info("Created {} tasks in {} ms ({} tasks/s), {} statements prepared", total, elapsedMillis,
+                total * 1000L / elapsedMillis, statistics.getPrepareStatementCount());
+
+        Assertions.assertEquals(before + total, taskRepository.count());
+        // one statement per JDBC batch of 100 inserts plus one sequence call per 50 ids
+        Assertions.assertTrue(statistics.getPrepareStatementCount() <= total / 100 + total / 50 + BATCHES,
+                "Inserts were not batched: " + statistics.getPrepareStatementCount() + " statements");
+    }
+
+    private TaskBatchDto createBatch() {
+        List<TaskDto> tasks = IntStream.range(0, BATCH_SIZE)
+                .mapToObj(i -> TaskDto.builder()
+                        .title("Title " + RandomStringUtils.randomAlphabetic(5))
+                        .description("Description " + RandomStringUtils.randomAlphabetic(10))
+                        .status(TaskStatus.values()[i % TaskStatus.values().length].getStatus())
+                        .build())
+                .toList();
+        return TaskBatchDto.builder().create(tasks).build();
+    }
+
+}
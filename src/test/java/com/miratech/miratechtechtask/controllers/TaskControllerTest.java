@@ -1,39 +1,87 @@
 package com.miratech.miratechtechtask.controllers;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.github.luben.zstd.ZstdInputStream;
+import com.miratech.miratechtechtask.configs.CacheConfig;
+import com.miratech.miratechtechtask.configs.CompressionFilter;
+import com.miratech.miratechtechtask.configs.RequestMetricsFilter;
+import com.miratech.miratechtechtask.configs.TaskServiceMetrics;
+import com.miratech.miratechtechtask.dto.BadRequestException;
+import com.miratech.miratechtechtask.dto.BatchStatusDto;
+import com.miratech.miratechtechtask.dto.TaskBatchDto;
 import com.miratech.miratechtechtask.dto.TaskDto;
 import com.miratech.miratechtechtask.dto.TaskStatus;
 import com.miratech.miratechtechtask.dto.UpdateStatusDto;
 import com.miratech.miratechtechtask.entities.Task;
+import com.miratech.miratechtechtask.repositories.TaskChangeRepository;
 import com.miratech.miratechtechtask.repositories.TaskRepository;
+import com.miratech.miratechtechtask.services.TaskManagementService;
+import com.miratech.miratechtechtask.services.impl.TaskGeneration;
+import com.miratech.miratechtechtask.services.impl.TaskChangeRelay;
+import com.miratech.miratechtechtask.services.impl.TaskManagementServiceImpl;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
 import io.zonky.test.db.util.RandomStringUtils;
 import lombok.SneakyThrows;
 import org.flywaydb.test.annotation.FlywayTest;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.context.WebApplicationContext;
 import org.testcontainers.shaded.org.apache.commons.lang3.RandomUtils;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.zip.GZIPInputStream;
 
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.is;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @FlywayTest
 @AutoConfigureEmbeddedDatabase(provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY)
 @ActiveProfiles(profiles = {"test"})
 @SpringBootTest
+@AutoConfigureObservability(tracing = false)
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
 @TestClassOrder(ClassOrderer.OrderAnnotation.class)
 @DisplayName("Task Controller API tests")
@@ -53,6 +101,30 @@ public class TaskControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private TaskGeneration taskGeneration;
+
+    @Autowired
+    private TaskManagementService taskService;
+
+    @Autowired
+    private TaskChangeRepository taskChangeRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private RequestMetricsFilter requestMetricsFilter;
+
+    @Autowired
+    private FilterRegistrationBean<CompressionFilter> compressionFilter;
+
     private MockMvc mvc;
 
     @BeforeAll
@@ -98,7 +170,7 @@ public class TaskControllerTest {
                     .andDo(print())
                     .andExpect(jsonPath("$.totalElements").value(100))
                     .andExpect(jsonPath("$.size").value(10))
-                    .andExpect(jsonPath("$.sort.sorted").value("true"))
+                    .andExpect(jsonPath("$.sort[0]").value("title,asc"))
                     .andExpect(jsonPath("$.totalPages").value(10))
                     .andExpect(jsonPath("$.content.[0].title", is(tasks.get(0).getTitle())))
                     .andExpect(jsonPath("$.content.[9].status", is(tasks.get(9).getStatus().getStatus())));
@@ -115,7 +187,7 @@ public class TaskControllerTest {
                     .andExpect(jsonPath("$.totalElements").value(100))
                     .andExpect(jsonPath("$.size").value(50))
                     .andExpect(jsonPath("$.totalPages").value(2))
-                    .andExpect(jsonPath("$.sort.sorted").value("true"))
+                    .andExpect(jsonPath("$.sort[0]").value("title,asc"))
                     .andExpect(jsonPath("$.content.[0].title", is(tasks.get(0).getTitle())))
                     .andExpect(jsonPath("$.content.[9].status", is(tasks.get(9).getStatus().getStatus())));
         }
@@ -132,7 +204,7 @@ public class TaskControllerTest {
                     .andDo(print())
                     .andExpect(jsonPath("$.totalElements").value(tasks.size()))
                     .andExpect(jsonPath("$.size").value(10))
-                    .andExpect(jsonPath("$.sort.sorted").value("true"))
+                    .andExpect(jsonPath("$.sort[0]").value("title,asc"))
                     .andExpect(jsonPath("$.totalPages").value(pagesAmount - 1))
                     .andExpect(jsonPath("$.number").value(middlePage))
                     .andExpect(jsonPath("$.content.[0].title", is(tasks.get(tasks.size() / 2).getTitle())))
@@ -149,7 +221,7 @@ public class TaskControllerTest {
                     .andExpect(status().isOk())
                     .andDo(print())
                     .andExpect(jsonPath("$.totalElements").value(1))
-                    .andExpect(jsonPath("$.sort.sorted").value("true"))
+                    .andExpect(jsonPath("$.sort[0]").value("title,asc"))
                     .andExpect(jsonPath("$.totalPages").value(1))
                     .andExpect(jsonPath("$.number").value(0))
                     .andExpect(jsonPath("$.content.[0].title", is(task.getTitle())))
@@ -170,12 +242,222 @@ public class TaskControllerTest {
                     .andExpect(status().isOk())
                     .andDo(print())
                     .andExpect(jsonPath("$.totalElements").value(statusTasks.size()))
-                    .andExpect(jsonPath("$.sort.sorted").value("true"))
+                    .andExpect(jsonPath("$.sort[0]").value("title,asc"))
                     .andExpect(jsonPath("$.number").value(0))
                     .andExpect(jsonPath("$.content.[0].title", is(statusTasks.get(0).getTitle())))
                     .andExpect(jsonPath("$.content.[0].status", is(statusTasks.get(0).getStatus().getStatus())));
         }
 
+        @Test
+        @SneakyThrows
+        @DisplayName("[200] exact count by default")
+        void testGetExactCountIs200() {
+            mvc.perform(get(URL))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.countMode").value("EXACT"))
+                    .andExpect(jsonPath("$.totalElements").value(100));
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[200] without count")
+        void testGetWithoutCountIs200() {
+            mvc.perform(get(URL)
+                            .param("count", "none"))
+                    .andExpect(status().isOk())
+                    .andDo(print())
+                    .andExpect(jsonPath("$.countMode").value("NONE"))
+                    .andExpect(jsonPath("$.totalElements").value(11))
+                    .andExpect(jsonPath("$.last").value(false))
+                    .andExpect(jsonPath("$.content.[0].title", is(tasks.get(0).getTitle())));
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[200] without count on last page")
+        void testGetWithoutCountLastPageIs200() {
+            mvc.perform(get(URL)
+                            .param("count", "none")
+                            .param("page", "9"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.totalElements").value(100))
+                    .andExpect(jsonPath("$.last").value(true))
+                    .andExpect(jsonPath("$.content.[9].title", is(tasks.get(99).getTitle())));
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[200] estimated count")
+        void testGetEstimatedCountIs200() {
+            mvc.perform(get(URL)
+                            .param("count", "estimated"))
+                    .andExpect(status().isOk())
+                    .andDo(print())
+                    .andExpect(jsonPath("$.countMode").value("ESTIMATED"))
+                    .andExpect(jsonPath("$.totalElements", greaterThanOrEqualTo(11)))
+                    .andExpect(jsonPath("$.content.[0].title", is(tasks.get(0).getTitle())));
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[200] estimated count with filter")
+        void testGetEstimatedFilteredCountIs200() {
+            Task task = tasks.get(10);
+            mvc.perform(get(URL)
+                            .param("count", "estimated")
+                            .param("title", task.getTitle())
+                            .param("status", task.getStatus().getStatus()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.countMode").value("ESTIMATED"))
+                    .andExpect(jsonPath("$.totalElements").value(1))
+                    .andExpect(jsonPath("$.content.[0].title", is(task.getTitle())));
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[200] estimated count by status")
+        void testGetEstimatedStatusCountIs200() {
+            Task task = tasks.get(10);
+            mvc.perform(get(URL)
+                            .param("count", "estimated")
+                            .param("offset", "1")
+                            .param("status", task.getStatus().getStatus()))
+                    .andExpect(status().isOk())
+                    .andDo(print())
+                    .andExpect(jsonPath("$.countMode").value("ESTIMATED"))
+                    .andExpect(jsonPath("$.totalElements", greaterThanOrEqualTo(2)));
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[400] unknown count mode")
+        void testGetUnknownCountModeIs400() {
+            mvc.perform(get(URL)
+                            .param("count", "approximate"))
+                    .andExpect(status().isBadRequest());
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[200] sort by id descending")
+        void testGetSortByIdDescIs200() {
+            List<Task> byId = tasks.stream()
+                    .sorted(Comparator.comparing(Task::getId).reversed())
+                    .toList();
+            mvc.perform(get(URL)
+                            .param("sort", "id,desc"))
+                    .andExpect(status().isOk())
+                    .andDo(print())
+                    .andExpect(jsonPath("$.totalElements").value(100))
+                    .andExpect(jsonPath("$.content.[0].id").value(byId.get(0).getId()))
+                    .andExpect(jsonPath("$.content.[9].id").value(byId.get(9).getId()));
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[200] sort by status with id tiebreaker")
+        void testGetSortByStatusIs200() {
+            List<Task> byStatus = tasks.stream()
+                    .sorted(Comparator.comparing(Task::getStatus).thenComparing(Task::getId).reversed())
+                    .toList();
+            mvc.perform(get(URL)
+                            .param("sort", "status,desc")
+                            .param("page", "1"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.sort[0]").value("status,desc"))
+                    .andExpect(jsonPath("$.content.[0].id").value(byStatus.get(10).getId()))
+                    .andExpect(jsonPath("$.content.[9].id").value(byStatus.get(19).getId()));
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[200] sort by several keys")
+        void testGetSortBySeveralKeysIs200() {
+            List<Task> byStatusAndTitle = tasks.stream()
+                    .sorted(Comparator.comparing(Task::getStatus)
+                            .thenComparing(Comparator.comparing(Task::getTitle).reversed()))
+                    .toList();
+            mvc.perform(get(URL)
+                            .param("sort", "status")
+                            .param("sort", "title,desc"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.content.[0].id").value(byStatusAndTitle.get(0).getId()))
+                    .andExpect(jsonPath("$.content.[9].id").value(byStatusAndTitle.get(9).getId()));
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[400] unknown sort key")
+        void testGetUnknownSortKeyIs400() {
+            mvc.perform(get(URL)
+                            .param("sort", "description"))
+                    .andExpect(status().isBadRequest());
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[200] first slice by cursor")
+        void testGetFirstSliceIs200() {
+            mvc.perform(get(URL)
+                            .param("after", ""))
+                    .andExpect(status().isOk())
+                    .andDo(print())
+                    .andExpect(jsonPath("$.size").value(10))
+                    .andExpect(jsonPath("$.hasNext").value(true))
+                    .andExpect(jsonPath("$.next").isNotEmpty())
+                    .andExpect(jsonPath("$.totalElements").doesNotExist())
+                    .andExpect(jsonPath("$.content.[0].title", is(tasks.get(0).getTitle())));
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[200] scroll all tasks by cursor")
+        void testScrollAllIs200() {
+            List<Long> expected = tasks.stream()
+                    .sorted(Comparator.comparing(Task::getTitle).thenComparing(Task::getId))
+                    .map(Task::getId)
+                    .toList();
+            List<Long> actual = new ArrayList<>();
+            String after = "";
+            boolean hasNext = true;
+            while (hasNext) {
+                JsonNode slice = objectMapper.readTree(mvc.perform(get(URL)
+                                .param("after", after)
+                                .param("offset", "30"))
+                        .andExpect(status().isOk())
+                        .andReturn().getResponse().getContentAsString());
+                slice.get("content").forEach(node -> actual.add(node.get("id").asLong()));
+                hasNext = slice.get("hasNext").asBoolean();
+                after = slice.get("next").asText();
+            }
+            Assertions.assertEquals(expected, actual);
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[400] cursor with sort, fields, count or page")
+        void testGetAfterUnsupportedParameterIs400() {
+            for (String name : List.of("sort", "fields", "count", "page")) {
+                mvc.perform(get(URL)
+                                .param("after", "")
+                                .param(name, "id"))
+                        .andExpect(status().isBadRequest())
+                        .andExpect(jsonPath("$.message")
+                                .value(String.format(TaskController.FORMAT_UNSUPPORTED_PARAMETER, name, "after")));
+            }
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[400] malformed cursor")
+        void testGetMalformedCursorIs400() {
+            mvc.perform(get(URL)
+                            .param("after", "not-a-cursor"))
+                    .andExpect(status().isBadRequest())
+                    .andDo(print())
+                    .andExpect(jsonPath("$.status").value("BAD_REQUEST"));
+        }
+
     }
 
     @Nested
@@ -431,4 +713,1495 @@ public class TaskControllerTest {
         }
 
     }
+
+    @Nested
+    @DisplayName("POST batch")
+    @TestInstance(TestInstance.Lifecycle.PER_CLASS)
+    class Batch {
+
+        private static final String BATCH_URL = URL + ":batch";
+
+        private Task updated;
+        private Task deleted;
+
+        @BeforeAll
+        void beforeAll() {
+            updated = taskRepository.save(Task.builder()
+                    .title("Batch")
+                    .description("Testing")
+                    .status(TaskStatus.IN_TESTING)
+                    .build()
+            );
+            deleted = taskRepository.save(Task.builder()
+                    .title("Batch")
+                    .description("Testing")
+                    .status(TaskStatus.IN_TESTING)
+                    .build()
+            );
+        }
+
+        @AfterAll
+        void afterAll() {
+            taskRepository.deleteAll(taskRepository.findByTitle("Batch"));
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[200] per-item results")
+        void testBatchIs200() {
+            TaskBatchDto batch = TaskBatchDto.builder()
+                    .create(List.of(TaskDto.builder()
+                            .title("Batch")
+                            .description("Created")
+                            .status(PENDING)
+                            .build()))
+                    .update(List.of(
+                            TaskDto.builder()
+                                    .id(updated.getId())
+                                    .title("Batch")
+                                    .description("Updated")
+                                    .status(TaskStatus.TO_DO.getStatus())
+                                    .build(),
+                            TaskDto.builder()
+                                    .id(1000L)
+                                    .title("Batch")
+                                    .description("Updated")
+                                    .status(PENDING)
+                                    .build()))
+                    .status(List.of(BatchStatusDto.builder().id(updated.getId()).status(PENDING).build()))
+                    .delete(List.of(deleted.getId(), 1000L))
+                    .build();
+            mvc.perform(post(BATCH_URL)
+                            .contentType(MediaType.APPLICATION_JSON_VALUE)
+                            .accept(MediaType.APPLICATION_JSON_VALUE)
+                            .content(objectMapper.writeValueAsString(batch))
+                    )
+                    .andDo(print())
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.create.[0].status").value("CREATED"))
+                    .andExpect(jsonPath("$.create.[0].task.description").value("Created"))
+                    .andExpect(jsonPath("$.update.[0].status").value("OK"))
+                    .andExpect(jsonPath("$.update.[0].task.description").value("Updated"))
+                    .andExpect(jsonPath("$.update.[1].status").value(STATUS_NOT_FOUND))
+                    .andExpect(jsonPath("$.update.[1].message").value(String.format(MESSAGE_NOT_FOUND, 1000)))
+                    .andExpect(jsonPath("$.status.[0].task.status").value(PENDING))
+                    .andExpect(jsonPath("$.delete.[0].status").value("OK"))
+                    .andExpect(jsonPath("$.delete.[1].status").value(STATUS_NOT_FOUND));
+
+            Task task = taskRepository.findById(updated.getId()).orElseThrow();
+            Assertions.assertEquals("Updated", task.getDescription());
+            Assertions.assertEquals(TaskStatus.PENDING, task.getStatus());
+            Assertions.assertFalse(taskRepository.existsById(deleted.getId()));
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[400] invalid item")
+        void testBatchInvalidItemIs400() {
+            TaskBatchDto batch = TaskBatchDto.builder()
+                    .create(List.of(TaskDto.builder().title("Batch").status("wrong").build()))
+                    .build();
+            mvc.perform(post(BATCH_URL)
+                            .contentType(MediaType.APPLICATION_JSON_VALUE)
+                            .content(objectMapper.writeValueAsString(batch))
+                    )
+                    .andDo(print())
+                    .andExpect(status().isBadRequest());
+        }
+
+    }
+
+    @Nested
+    @DisplayName("Conditional requests")
+    @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+    @TestInstance(TestInstance.Lifecycle.PER_CLASS)
+    class Conditional {
+
+        private Task task;
+        private TaskDto requestObject;
+
+        @BeforeAll
+        void beforeAll() {
+            requestObject = TaskDto.builder()
+                    .title("Conditional")
+                    .description("Updated")
+                    .status(TaskStatus.TO_DO.getStatus())
+                    .build();
+            task = taskRepository.save(Task.builder()
+                    .title("Conditional")
+                    .description("Testing")
+                    .status(TaskStatus.IN_TESTING)
+                    .build()
+            );
+        }
+
+        @AfterAll
+        void afterAll() {
+            taskRepository.findById(task.getId()).ifPresent(taskRepository::delete);
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[200] GET returns version as ETag")
+        @Order(1)
+        void testGetReturnsETag() {
+            mvc.perform(get(URL + "/" + task.getId()))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+                    .andExpect(jsonPath("$.version").value(0));
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[304] GET with current ETag")
+        @Order(2)
+        void testGetNotModifiedIs304() {
+            mvc.perform(get(URL + "/" + task.getId())
+                            .header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+                    .andExpect(status().isNotModified())
+                    .andExpect(content().string(""));
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[412] PUT with stale ETag")
+        @Order(3)
+        void testPutStaleIs412() {
+            mvc.perform(put(URL + "/" + task.getId())
+                            .header(HttpHeaders.IF_MATCH, "\"5\"")
+                            .contentType(MediaType.APPLICATION_JSON_VALUE)
+                            .content(objectMapper.writeValueAsString(requestObject)))
+                    .andDo(print())
+                    .andExpect(status().isPreconditionFailed())
+                    .andExpect(jsonPath("$.status").value("PRECONDITION_FAILED"));
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[200] PUT with current ETag")
+        @Order(4)
+        void testPutCurrentIs200() {
+            mvc.perform(put(URL + "/" + task.getId())
+                            .header(HttpHeaders.IF_MATCH, "\"0\"")
+                            .contentType(MediaType.APPLICATION_JSON_VALUE)
+                            .content(objectMapper.writeValueAsString(requestObject)))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+                    .andExpect(jsonPath("$.description").value("Updated"));
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[412] PATCH with stale ETag")
+        @Order(5)
+        void testPatchStaleIs412() {
+            mvc.perform(patch(URL + "/" + task.getId())
+                            .header(HttpHeaders.IF_MATCH, "\"0\"")
+                            .contentType(MediaType.APPLICATION_JSON_VALUE)
+                            .content(objectMapper.writeValueAsString(UpdateStatusDto.builder().status(PENDING).build())))
+                    .andExpect(status().isPreconditionFailed());
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[412] DELETE with stale ETag")
+        @Order(6)
+        void testDeleteStaleIs412() {
+            mvc.perform(delete(URL + "/" + task.getId())
+                            .header(HttpHeaders.IF_MATCH, "\"0\""))
+                    .andExpect(status().isPreconditionFailed());
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[200] DELETE with current ETag")
+        @Order(7)
+        void testDeleteCurrentIs200() {
+            mvc.perform(delete(URL + "/" + task.getId())
+                            .header(HttpHeaders.IF_MATCH, "\"1\""))
+                    .andExpect(status().isOk());
+            Assertions.assertFalse(taskRepository.existsById(task.getId()));
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[412] weak ETag never matches, [200] list of ETags holding the current one")
+        @Order(8)
+        void testETagList() {
+            Task listed = taskRepository.save(Task.builder()
+                    .title("Conditional")
+                    .description("Listed")
+                    .status(TaskStatus.IN_TESTING)
+                    .build());
+            try {
+                mvc.perform(put(URL + "/" + listed.getId())
+                                .header(HttpHeaders.IF_MATCH, "W/\"0\"")
+                                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                                .content(objectMapper.writeValueAsString(requestObject)))
+                        .andExpect(status().isPreconditionFailed());
+                mvc.perform(put(URL + "/" + listed.getId())
+                                .header(HttpHeaders.IF_MATCH, "\"7\", W/\"9\", \"0\"")
+                                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                                .content(objectMapper.writeValueAsString(requestObject)))
+                        .andExpect(status().isOk())
+                        .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+                mvc.perform(patch(URL + "/" + listed.getId())
+                                .header(HttpHeaders.IF_MATCH, "\"0\", W/\"1\"")
+                                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                                .content(objectMapper.writeValueAsString(UpdateStatusDto.builder().status(PENDING).build())))
+                        .andExpect(status().isPreconditionFailed());
+                mvc.perform(delete(URL + "/" + listed.getId())
+                                .header(HttpHeaders.IF_MATCH, "\"0\", \"1\""))
+                        .andExpect(status().isOk());
+                Assertions.assertFalse(taskRepository.existsById(listed.getId()));
+            } finally {
+                taskRepository.findById(listed.getId()).ifPresent(taskRepository::delete);
+            }
+        }
+
+    }
+
+    @Nested
+    @DisplayName("Task cache")
+    @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+    @TestInstance(TestInstance.Lifecycle.PER_CLASS)
+    class Cache {
+
+        private Task task;
+
+        @BeforeAll
+        void beforeAll() {
+            task = taskRepository.save(Task.builder()
+                    .title("Cache")
+                    .description("Testing")
+                    .status(TaskStatus.IN_TESTING)
+                    .build()
+            );
+        }
+
+        @AfterAll
+        void afterAll() {
+            taskRepository.findById(task.getId()).ifPresent(taskRepository::delete);
+        }
+
+        private double gets(String result) {
+            return meterRegistry.get("cache.gets")
+                    .tag("cache", CacheConfig.TASKS_CACHE)
+                    .tag("result", result)
+                    .functionCounter()
+                    .count();
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[200] second GET is served from cache")
+        @Order(1)
+        void testGetIsCached() {
+            double misses = gets("miss");
+            double hits = gets("hit");
+            mvc.perform(get(URL + "/" + task.getId())).andExpect(status().isOk());
+            mvc.perform(get(URL + "/" + task.getId())).andExpect(status().isOk());
+            Assertions.assertEquals(misses + 1, gets("miss"));
+            Assertions.assertEquals(hits + 1, gets("hit"));
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[200] PATCH evicts cached task")
+        @Order(2)
+        void testPatchEvicts() {
+            mvc.perform(patch(URL + "/" + task.getId())
+                            .contentType(MediaType.APPLICATION_JSON_VALUE)
+                            .content(objectMapper.writeValueAsString(UpdateStatusDto.builder().status(PENDING).build())))
+                    .andExpect(status().isOk());
+            double misses = gets("miss");
+            mvc.perform(get(URL + "/" + task.getId()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.status").value(PENDING));
+            Assertions.assertEquals(misses + 1, gets("miss"));
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[200] task loaded before a write and cached after it is not served")
+        @Order(3)
+        void testStaleLoadIsNotServed() {
+            long generation = taskGeneration.current(task.getId());
+            TaskDto stale = objectMapper.readValue(mvc.perform(get(URL + "/" + task.getId()))
+                    .andReturn().getResponse().getContentAsString(), TaskDto.class);
+            mvc.perform(patch(URL + "/" + task.getId())
+                            .contentType(MediaType.APPLICATION_JSON_VALUE)
+                            .content(objectMapper.writeValueAsString(UpdateStatusDto.builder().status("completed").build())))
+                    .andExpect(status().isOk());
+            // a reader that loaded the task before the PATCH committed stores it only now
+            Objects.requireNonNull(cacheManager.getCache(CacheConfig.TASKS_CACHE))
+                    .put(List.of(generation, task.getId()), stale);
+
+            mvc.perform(get(URL + "/" + task.getId()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.status").value("completed"));
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[404] DELETE evicts cached task")
+        @Order(4)
+        void testDeleteEvicts() {
+            mvc.perform(delete(URL + "/" + task.getId())).andExpect(status().isOk());
+            mvc.perform(get(URL + "/" + task.getId())).andExpect(status().isNotFound());
+        }
+
+    }
+
+    @Nested
+    @DisplayName("Task page cache")
+    @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+    @TestInstance(TestInstance.Lifecycle.PER_CLASS)
+    class PageCache {
+
+        private static final String TITLE = "Page cache";
+
+        private Long id;
+
+        @AfterAll
+        void afterAll() {
+            taskRepository.deleteAll(taskRepository.findByTitle(TITLE));
+        }
+
+        private double gets(String result) {
+            return meterRegistry.get("cache.gets")
+                    .tag("cache", CacheConfig.TASK_PAGES_CACHE)
+                    .tag("result", result)
+                    .functionCounter()
+                    .count();
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[200] repeated page is served from cache")
+        @Order(1)
+        void testPageIsCached() {
+            TaskDto dto = TaskDto.builder()
+                    .title(TITLE)
+                    .description("Testing")
+                    .status(PENDING)
+                    .build();
+            id = objectMapper.readTree(mvc.perform(post(URL)
+                            .contentType(MediaType.APPLICATION_JSON_VALUE)
+                            .content(objectMapper.writeValueAsString(dto)))
+                    .andExpect(status().isCreated())
+                    .andReturn().getResponse().getContentAsString()).get("id").asLong();
+
+            double hits = gets("hit");
+            mvc.perform(get(URL).param("title", TITLE))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.totalElements").value(1));
+            mvc.perform(get(URL).param("title", TITLE))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.content.[0].status").value(PENDING));
+            Assertions.assertEquals(hits + 1, gets("hit"));
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[200] write invalidates cached pages")
+        @Order(2)
+        void testWriteInvalidatesPages() {
+            mvc.perform(patch(URL + "/" + id)
+                            .contentType(MediaType.APPLICATION_JSON_VALUE)
+                            .content(objectMapper.writeValueAsString(
+                                    UpdateStatusDto.builder().status(TaskStatus.COMPLETED.getStatus()).build())))
+                    .andExpect(status().isOk());
+            double misses = gets("miss");
+            mvc.perform(get(URL).param("title", TITLE))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.content.[0].status").value(TaskStatus.COMPLETED.getStatus()));
+            Assertions.assertEquals(misses + 1, gets("miss"));
+        }
+
+    }
+
+    @Nested
+    @DisplayName("GET export")
+    @TestInstance(TestInstance.Lifecycle.PER_CLASS)
+    class Export {
+
+        private static final String EXPORT_URL = URL + ":export";
+        private static final String TITLE = "Export";
+
+        private Task quoted;
+
+        @BeforeAll
+        void beforeAll() {
+            quoted = taskRepository.save(Task.builder()
+                    .title(TITLE)
+                    .description("Needs \"quotes\", commas\nand lines")
+                    .status(TaskStatus.TO_DO)
+                    .build()
+            );
+            taskRepository.save(Task.builder()
+                    .title(TITLE)
+                    .description("Plain")
+                    .status(TaskStatus.PENDING)
+                    .build()
+            );
+        }
+
+        @AfterAll
+        void afterAll() {
+            taskRepository.deleteAll(taskRepository.findByTitle(TITLE));
+        }
+
+        @SneakyThrows
+        private String export(MockHttpServletRequestBuilder request) {
+            MvcResult result = mvc.perform(request)
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            return mvc.perform(asyncDispatch(result))
+                    .andDo(print())
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[200] all tasks as NDJSON")
+        void testExportNdjson() {
+            String[] lines = export(get(EXPORT_URL)).split("\n");
+            Assertions.assertEquals(taskRepository.count(), lines.length);
+            long previousId = 0;
+            for (String line : lines) {
+                long id = objectMapper.readTree(line).get("id").asLong();
+                Assertions.assertTrue(id > previousId);
+                previousId = id;
+            }
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[200] filtered tasks as CSV")
+        void testExportCsv() {
+            mvc.perform(get(EXPORT_URL).param("format", "csv"))
+                    .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"tasks.csv\""));
+            String csv = export(get(EXPORT_URL)
+                    .param("format", "csv")
+                    .param("title", TITLE)
+                    .param("status", TaskStatus.TO_DO.getStatus()));
+            Assertions.assertEquals("id,title,description,status,parentId,version\r\n" +
+                    quoted.getId() + ",Export,\"Needs \"\"quotes\"\", commas\nand lines\",to do,,0\r\n", csv);
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[400] unknown format")
+        void testExportUnknownFormatIs400() {
+            mvc.perform(get(EXPORT_URL).param("format", "xml"))
+                    .andExpect(status().isBadRequest());
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[400] unknown status")
+        void testExportUnknownStatusIs400() {
+            mvc.perform(get(EXPORT_URL).param("status", "wrong"))
+                    .andExpect(status().isBadRequest());
+        }
+
+    }
+
+    @Nested
+    @DisplayName("POST import")
+    @TestInstance(TestInstance.Lifecycle.PER_CLASS)
+    class Import {
+
+        private static final String IMPORT_URL = URL + ":import";
+        private static final String TITLE = "Import";
+        private static final String SUBTASK_TITLE = "Import subtask";
+        private static final MediaType CSV = new MediaType("text", "csv");
+
+        private Task parent;
+
+        @BeforeAll
+        void beforeAll() {
+            parent = taskRepository.save(Task.builder()
+                    .title("Import parent")
+                    .description("Parent")
+                    .status(TaskStatus.TO_DO)
+                    .build()
+            );
+        }
+
+        @AfterAll
+        void afterAll() {
+            taskRepository.deleteAll(taskRepository.findByTitle(TITLE));
+            taskRepository.deleteAll(taskRepository.findByTitle(SUBTASK_TITLE));
+            taskRepository.delete(parent);
+        }
+
+        @SneakyThrows
+        private List<JsonNode> importTasks(MediaType contentType, String body) {
+            MvcResult result = mvc.perform(post(IMPORT_URL).contentType(contentType).content(body))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            String progress = mvc.perform(asyncDispatch(result))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+            List<JsonNode> chunks = new ArrayList<>();
+            for (String line : progress.split("\n")) {
+                chunks.add(objectMapper.readTree(line));
+            }
+            return chunks;
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[200] NDJSON with rejected lines")
+        void testImportNdjson() {
+            String body = String.join("\n",
+                    "{\"title\":\"Import\",\"description\":\"First\",\"status\":\"PENDING\"}",
+                    "{\"title\":\"Import\",\"description\":\"Second\",\"status\":\"wrong\"}",
+                    "",
+                    "{\"title\":\"Import\",\"description\":\"Third\",\"status\":\"In Testing\"}",
+                    "{not json",
+                    "{\"title\":\"Import\",\"status\":\"to do\"}");
+            List<JsonNode> chunks = importTasks(MediaType.APPLICATION_NDJSON, body);
+
+            Assertions.assertEquals(1, chunks.size());
+            JsonNode chunk = chunks.get(0);
+            Assertions.assertEquals(2, chunk.get("imported").asLong());
+            Assertions.assertEquals(3, chunk.get("totalRejected").asLong());
+            Assertions.assertEquals(2, chunk.get("rejected").get(0).get("line").asLong());
+            Assertions.assertEquals(5, chunk.get("rejected").get(1).get("line").asLong());
+            Assertions.assertEquals(6, chunk.get("rejected").get(2).get("line").asLong());
+            Assertions.assertEquals("description: must not be blank", chunk.get("rejected").get(2).get("message").asText());
+            Assertions.assertEquals(
+                    List.of(TaskStatus.PENDING, TaskStatus.IN_TESTING),
+                    taskRepository.findByTitle(TITLE).stream()
+                            .filter(task -> !task.getDescription().startsWith("Csv"))
+                            .sorted(Comparator.comparing(Task::getId))
+                            .map(Task::getStatus)
+                            .toList());
+        }
+
+        @Test
+        @DisplayName("[200] NDJSON subtasks of existing parents")
+        void testImportNdjsonParents() {
+            String body = String.join("\n",
+                    "{\"title\":\"Import subtask\",\"description\":\"Found\",\"status\":\"to do\",\"parentId\":"
+                            + parent.getId() + "}",
+                    "{\"title\":\"Import subtask\",\"description\":\"Missing\",\"status\":\"to do\",\"parentId\":"
+                            + Long.MAX_VALUE + "}");
+            List<JsonNode> chunks = importTasks(MediaType.APPLICATION_NDJSON, body);
+
+            JsonNode chunk = chunks.get(0);
+            Assertions.assertEquals(1, chunk.get("imported").asLong());
+            Assertions.assertEquals(1, chunk.get("totalRejected").asLong());
+            Assertions.assertEquals(2, chunk.get("rejected").get(0).get("line").asLong());
+            Assertions.assertEquals(String.format(TaskManagementServiceImpl.FORMAT_PARENT_NOT_FOUND, Long.MAX_VALUE),
+                    chunk.get("rejected").get(0).get("message").asText());
+            List<Task> subtasks = taskRepository.findByTitle(SUBTASK_TITLE).stream()
+                    .filter(task -> !task.getDescription().startsWith("Csv"))
+                    .toList();
+            Assertions.assertEquals(1, subtasks.size());
+            Assertions.assertEquals(parent.getId(), subtasks.get(0).getParentId());
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[200] CSV in chunks")
+        void testImportCsvInChunks() {
+            StringBuilder body = new StringBuilder("status,ignored,description,title\r\n")
+                    .append("\"in progress\",x,\"Csv \"\"quoted\"\",\nmultiline\",Import\r\n");
+            for (int i = 0; i < 10_000; i++) {
+                body.append("completed,,Csv ").append(i).append(",Import\r\n");
+            }
+            List<JsonNode> chunks = importTasks(CSV, body.toString());
+
+            Assertions.assertEquals(2, chunks.size());
+            Assertions.assertEquals(10_000, chunks.get(0).get("imported").asLong());
+            Assertions.assertEquals(1, chunks.get(1).get("imported").asLong());
+            Assertions.assertEquals(10_001, chunks.get(1).get("totalImported").asLong());
+            Assertions.assertEquals(0, chunks.get(1).get("totalRejected").asLong());
+            Assertions.assertTrue(taskRepository.findByTitle(TITLE).stream()
+                    .anyMatch(task -> task.getDescription().equals("Csv \"quoted\",\nmultiline")
+                            && task.getStatus() == TaskStatus.IN_PROGRESS));
+        }
+
+        @Test
+        @DisplayName("[200] CSV subtasks as exported")
+        void testImportCsvParents() {
+            String body = "id,title,description,status,parentId,version\r\n" +
+                    "1,Import subtask,Csv top-level,to do,,0\r\n" +
+                    "2,Import subtask,Csv subtask,to do," + parent.getId() + ",0\r\n" +
+                    "3,Import subtask,Csv wrong,to do,x,0\r\n";
+            List<JsonNode> chunks = importTasks(CSV, body);
+
+            JsonNode chunk = chunks.get(0);
+            Assertions.assertEquals(2, chunk.get("imported").asLong());
+            Assertions.assertEquals(4, chunk.get("rejected").get(0).get("line").asLong());
+            Map<String, Long> parentIds = new HashMap<>();
+            taskRepository.findByTitle(SUBTASK_TITLE).stream()
+                    .filter(task -> task.getDescription().startsWith("Csv"))
+                    .forEach(task -> parentIds.put(task.getDescription(), task.getParentId()));
+            Assertions.assertEquals(2, parentIds.size());
+            Assertions.assertNull(parentIds.get("Csv top-level"));
+            Assertions.assertEquals(parent.getId(), parentIds.get("Csv subtask"));
+        }
+
+        @Test
+        @DisplayName("[200] CSV without status column rejects header")
+        void testImportCsvWithoutStatusRejectsHeader() {
+            List<JsonNode> chunks = importTasks(CSV, "title,description\r\nImport,Csv\r\n");
+
+            Assertions.assertEquals(1, chunks.size());
+            Assertions.assertEquals(0, chunks.get(0).get("imported").asLong());
+            Assertions.assertEquals(1, chunks.get(0).get("rejected").get(0).get("line").asLong());
+        }
+
+    }
+
+    @Nested
+    @DisplayName("GET search tasks")
+    @TestInstance(TestInstance.Lifecycle.PER_CLASS)
+    class Search {
+
+        private List<Task> tasks;
+
+        @BeforeAll
+        void beforeAll() {
+            tasks = taskRepository.saveAll(List.of(
+                    Task.builder().title("Quokka migration").description("Move the quokkas").status(TaskStatus.PENDING).build(),
+                    Task.builder().title("Weekly report").description("Mention the quokka habitat").status(TaskStatus.TO_DO).build(),
+                    Task.builder().title("Quokkaland trip").description("Plan").status(TaskStatus.PENDING).build(),
+                    Task.builder().title("Zeppelin repairs").description("Running diagnostics").status(TaskStatus.IN_TESTING).build()
+            ));
+        }
+
+        @AfterAll
+        void afterAll() {
+            taskRepository.deleteAll(tasks);
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[200] ranked full-text and title matches")
+        void testSearchIsRanked() {
+            mvc.perform(get(URL).param("q", "quokka"))
+                    .andDo(print())
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.totalElements").value(3))
+                    .andExpect(jsonPath("$.content.[0].id").value(tasks.get(0).getId()));
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[200] stemmed description match")
+        void testSearchIsStemmed() {
+            mvc.perform(get(URL).param("q", "run"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.totalElements").value(1))
+                    .andExpect(jsonPath("$.content.[0].title").value("Zeppelin repairs"));
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[200] title prefix match with status filter")
+        void testSearchTitlePrefixWithStatus() {
+            mvc.perform(get(URL)
+                            .param("q", "Quokkal")
+                            .param("status", PENDING)
+                            .param("count", "none"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.totalElements").value(1))
+                    .andExpect(jsonPath("$.content.[0].title").value("Quokkaland trip"));
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[200] LIKE wildcards are literal")
+        void testSearchEscapesWildcards() {
+            mvc.perform(get(URL).param("q", "%"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.totalElements").value(0));
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[400] blank query")
+        void testSearchBlankIs400() {
+            mvc.perform(get(URL).param("q", " "))
+                    .andExpect(status().isBadRequest());
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[400] query with cursor, sort or fields")
+        void testSearchUnsupportedParameterIs400() {
+            mvc.perform(get(URL).param("q", "quokka").param("after", ""))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.message")
+                            .value(String.format(TaskController.FORMAT_UNSUPPORTED_PARAMETER, "after", "q")));
+            mvc.perform(get(URL).param("q", "quokka").param("sort", "id"))
+                    .andExpect(status().isBadRequest());
+            mvc.perform(get(URL).param("q", "quokka").param("fields", "id"))
+                    .andExpect(status().isBadRequest());
+        }
+
+    }
+
+    @Nested
+    @DisplayName("GET tasks with selected fields")
+    @TestInstance(TestInstance.Lifecycle.PER_CLASS)
+    class Fields {
+
+        private static final String TITLE = "Fields";
+
+        private List<Task> tasks;
+
+        @BeforeAll
+        void beforeAll() {
+            tasks = taskRepository.saveAll(List.of(
+                    Task.builder().title(TITLE).description("First").status(TaskStatus.PENDING).build(),
+                    Task.builder().title(TITLE).description("Second").status(TaskStatus.COMPLETED).build()
+            ));
+        }
+
+        @AfterAll
+        void afterAll() {
+            taskRepository.deleteAll(tasks);
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[200] page with selected fields only")
+        void testGetFieldsIs200() {
+            mvc.perform(get(URL)
+                            .param("title", TITLE)
+                            .param("fields", "status,id"))
+                    .andDo(print())
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.totalElements").value(2))
+                    .andExpect(jsonPath("$.content.[0].id").value(tasks.get(0).getId()))
+                    .andExpect(jsonPath("$.content.[0].status").value(PENDING))
+                    .andExpect(jsonPath("$.content.[0].title").doesNotExist())
+                    .andExpect(jsonPath("$.content.[0].description").doesNotExist())
+                    .andExpect(jsonPath("$.content.[0].version").doesNotExist());
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[200] selected fields with sort and without count")
+        void testGetFieldsSortedIs200() {
+            mvc.perform(get(URL)
+                            .param("title", TITLE)
+                            .param("fields", "description")
+                            .param("sort", "id,desc")
+                            .param("count", "none")
+                            .param("offset", "1"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.totalElements").value(2))
+                    .andExpect(jsonPath("$.content.[0].description").value("Second"))
+                    .andExpect(jsonPath("$.content.[0].id").doesNotExist());
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[200] task by ID with selected fields")
+        void testGetFieldsByIdIs200() {
+            mvc.perform(get(URL + "/" + tasks.get(1).getId())
+                            .param("fields", "title")
+                            .param("fields", "version"))
+                    .andExpect(status().isOk())
+                    .andExpect(header().doesNotExist(HttpHeaders.ETAG))
+                    .andExpect(jsonPath("$.title").value(TITLE))
+                    .andExpect(jsonPath("$.version").value(0))
+                    .andExpect(jsonPath("$.status").doesNotExist());
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[404] missing task with selected fields")
+        void testGetFieldsByIdIs404() {
+            mvc.perform(get(URL + "/" + Long.MAX_VALUE)
+                            .param("fields", "title"))
+                    .andExpect(status().isNotFound());
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[400] unknown field")
+        void testGetUnknownFieldIs400() {
+            mvc.perform(get(URL)
+                            .param("fields", "id,owner"))
+                    .andExpect(status().isBadRequest());
+        }
+
+    }
+
+    @Nested
+    @DisplayName("GET task changes")
+    @TestInstance(TestInstance.Lifecycle.PER_CLASS)
+    class Changes {
+
+        private static final String CHANGES_URL = URL + "/changes";
+        private static final String TITLE = "Changes";
+        private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+        @AfterAll
+        void afterAll() {
+            taskRepository.deleteAll(taskRepository.findByTitle(TITLE));
+        }
+
+        @SneakyThrows
+        private MvcResult subscribe(MockHttpServletRequestBuilder request) {
+            return mvc.perform(request)
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+        }
+
+        /**
+         * Waits until the stream has received the given number of events and returns their data.
+         */
+        @SneakyThrows
+        private List<JsonNode> await(MvcResult stream, int count) {
+            long deadline = System.nanoTime() + TIMEOUT.toNanos();
+            List<JsonNode> events = new ArrayList<>();
+            while (events.size() < count) {
+                Assertions.assertTrue(System.nanoTime() < deadline, "Timed out waiting for " + count + " changes");
+                Thread.sleep(50);
+                events.clear();
+                for (String line : stream.getResponse().getContentAsString(StandardCharsets.UTF_8).split("\n")) {
+                    if (line.startsWith("data:")) {
+                        events.add(objectMapper.readTree(line.substring("data:".length())));
+                    }
+                }
+            }
+            return events;
+        }
+
+        @SneakyThrows
+        private long create(String description) {
+            String created = mvc.perform(post(URL)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(TaskDto.builder()
+                                    .title(TITLE)
+                                    .description(description)
+                                    .status(PENDING)
+                                    .build())))
+                    .andExpect(status().isCreated())
+                    .andReturn().getResponse().getContentAsString();
+            return objectMapper.readTree(created).get("id").asLong();
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[200] mutations pushed in order")
+        void testChangesArePushed() {
+            MvcResult stream = subscribe(get(CHANGES_URL));
+            long id = create("Created");
+            mvc.perform(put(URL + "/" + id)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(TaskDto.builder()
+                                    .title(TITLE)
+                                    .description("Updated")
+                                    .status(PENDING)
+                                    .build())))
+                    .andExpect(status().isOk());
+            mvc.perform(patch(URL + "/" + id)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(new UpdateStatusDto(TaskStatus.COMPLETED.getStatus()))))
+                    .andExpect(status().isOk());
+            mvc.perform(delete(URL + "/" + id))
+                    .andExpect(status().isOk());
+
+            List<JsonNode> events = await(stream, 4);
+            Assertions.assertEquals(List.of("created", "updated", "updated", "deleted"),
+                    events.stream().map(event -> event.get("type").asText()).toList());
+            events.forEach(event -> Assertions.assertEquals(id, event.get("taskId").asLong()));
+            Assertions.assertEquals("Created", events.get(0).at("/task/description").asText());
+            Assertions.assertEquals("Updated", events.get(1).at("/task/description").asText());
+            Assertions.assertEquals(TaskStatus.COMPLETED.getStatus(), events.get(2).at("/task/status").asText());
+            Assertions.assertEquals(2, events.get(3).at("/task/version").asLong());
+            String content = stream.getResponse().getContentAsString();
+            Assertions.assertTrue(content.contains("id:" + events.get(0).get("offset").asText() + "\nevent:created\n"));
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[200] batch mutations pushed")
+        void testBatchChangesArePushed() {
+            long deleted = create("Deleted by batch");
+            MvcResult stream = subscribe(get(CHANGES_URL));
+            TaskBatchDto batch = TaskBatchDto.builder()
+                    .create(List.of(TaskDto.builder().title(TITLE).description("Created by batch").status(PENDING).build()))
+                    .delete(List.of(deleted, Long.MAX_VALUE))
+                    .build();
+            mvc.perform(post(URL + ":batch")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(batch)))
+                    .andExpect(status().isOk());
+
+            List<JsonNode> events = await(stream, 2);
+            Assertions.assertEquals(List.of("created", "deleted"),
+                    events.stream().map(event -> event.get("type").asText()).toList());
+            Assertions.assertEquals(deleted, events.get(1).get("taskId").asLong());
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[200] resumed after the last event received")
+        void testChangesAreResumed() {
+            MvcResult stream = subscribe(get(CHANGES_URL));
+            create("First");
+            long second = create("Second");
+            String offset = await(stream, 2).get(0).get("offset").asText();
+
+            List<JsonNode> resumed = await(subscribe(get(CHANGES_URL).header("Last-Event-ID", offset)), 1);
+            Assertions.assertEquals(1, resumed.size());
+            Assertions.assertEquals(second, resumed.get(0).get("taskId").asLong());
+            resumed = await(subscribe(get(CHANGES_URL).param("after", offset)), 1);
+            Assertions.assertEquals(second, resumed.get(0).get("taskId").asLong());
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[200] failed mutation not pushed")
+        void testRolledBackChangeIsNotPushed() {
+            MvcResult stream = subscribe(get(CHANGES_URL));
+            long id = create("Kept");
+            mvc.perform(delete(URL + "/" + id).header(HttpHeaders.IF_MATCH, ETags.of(99L)))
+                    .andExpect(status().isPreconditionFailed());
+            mvc.perform(patch(URL + "/" + id)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(new UpdateStatusDto(TaskStatus.TO_DO.getStatus()))))
+                    .andExpect(status().isOk());
+
+            List<JsonNode> events = await(stream, 2);
+            Assertions.assertEquals(List.of("created", "updated"),
+                    events.stream().map(event -> event.get("type").asText()).toList());
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[410] resumed after expired changes")
+        void testExpiredOffsetIs410() {
+            MvcResult stream = subscribe(get(CHANGES_URL));
+            create("Expired");
+            create("Retained");
+            List<JsonNode> events = await(stream, 2);
+            String expired = events.get(0).get("offset").asText();
+            String retained = events.get(1).get("offset").asText();
+            // the last change is kept however old
+            taskChangeRepository.deleteOlderThan(Instant.now().plus(Duration.ofMinutes(1)));
+
+            mvc.perform(get(CHANGES_URL).header("Last-Event-ID", expired))
+                    .andExpect(status().isGone())
+                    .andExpect(jsonPath("$.message")
+                            .value(String.format(TaskChangeRelay.FORMAT_CHANGES_EXPIRED, expired)));
+            subscribe(get(CHANGES_URL).param("after", retained));
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[400] malformed offset")
+        void testMalformedOffsetIs400() {
+            mvc.perform(get(CHANGES_URL).param("after", "latest"))
+                    .andExpect(status().isBadRequest());
+        }
+
+    }
+
+    @Nested
+    @DisplayName("Metrics")
+    @TestInstance(TestInstance.Lifecycle.PER_CLASS)
+    class Metrics {
+
+        private static final String TITLE = "Metrics";
+
+        private MockMvc metricsMvc;
+
+        private Task task;
+
+        @BeforeAll
+        void beforeAll() {
+            metricsMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext)
+                    .addFilters(requestMetricsFilter)
+                    .build();
+            task = taskRepository.save(Task.builder().title(TITLE).description("Measured").status(TaskStatus.PENDING).build());
+        }
+
+        @AfterAll
+        void afterAll() {
+            taskRepository.delete(task);
+        }
+
+        private long serviceCalls(String operation, String filter) {
+            Timer timer = meterRegistry.find(TaskServiceMetrics.TIMER)
+                    .tags("operation", operation, "filter", filter, "exception", "none")
+                    .timer();
+            return Objects.isNull(timer) ? 0 : timer.count();
+        }
+
+        private double statements(String uri) {
+            DistributionSummary summary = meterRegistry.find(RequestMetricsFilter.STATEMENTS)
+                    .tags("method", "GET", "uri", uri, "filter", "none")
+                    .summary();
+            return Objects.isNull(summary) ? 0 : summary.totalAmount();
+        }
+
+        private long repositoryCalls(String method) {
+            Timer timer = meterRegistry.find("spring.data.repository.invocations")
+                    .tags("repository", "TaskRepository", "method", method, "filter", "none")
+                    .timer();
+            return Objects.isNull(timer) ? 0 : timer.count();
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[200] page and exact count timed as separate repository calls")
+        void testPageAndCountAreTimedApart() {
+            long slices = repositoryCalls("findSlice");
+            long counts = repositoryCalls("count");
+            metricsMvc.perform(get(URL).param("count", "exact"))
+                    .andExpect(status().isOk());
+            Assertions.assertEquals(slices + 1, repositoryCalls("findSlice"));
+            Assertions.assertEquals(counts + 1, repositoryCalls("count"));
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[200] service and repository calls timed by filter shape")
+        void testCallsAreTimedByFilter() {
+            long calls = serviceCalls("getAll", "title+status");
+            metricsMvc.perform(get(URL)
+                            .param("title", TITLE)
+                            .param("status", PENDING)
+                            .param("sort", "id"))
+                    .andExpect(status().isOk());
+            Assertions.assertEquals(calls + 1, serviceCalls("getAll", "title+status"));
+            Assertions.assertNotNull(meterRegistry.find("spring.data.repository.invocations")
+                    .tags("repository", "TaskRepository", "filter", "title+status")
+                    .timer());
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[200] statements counted per request")
+        void testStatementsAreCounted() {
+            String uri = URL + "/{id}";
+            double before = statements(uri);
+            metricsMvc.perform(get(URL + "/" + task.getId()))
+                    .andExpect(status().isOk());
+            Assertions.assertEquals(before + 1, statements(uri));
+            // served from the cache
+            metricsMvc.perform(get(URL + "/" + task.getId()))
+                    .andExpect(status().isOk());
+            Assertions.assertEquals(before + 1, statements(uri));
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[200] Prometheus scrape with histograms")
+        void testPrometheusScrape() {
+            metricsMvc.perform(get(URL + "/" + task.getId()))
+                    .andExpect(status().isOk());
+            String scrape = metricsMvc.perform(get("/actuator/prometheus"))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            Assertions.assertTrue(scrape.contains("tasks_service_seconds_bucket{"));
+            Assertions.assertTrue(scrape.contains("spring_data_repository_invocations_seconds_bucket{"));
+            Assertions.assertTrue(scrape.contains("tasks_request_statements_count{"));
+        }
+
+    }
+
+    @Nested
+    @DisplayName("Encodings")
+    @TestInstance(TestInstance.Lifecycle.PER_CLASS)
+    class Encodings {
+
+        private static final String TITLE = "Encoded";
+        private static final String CBOR = "application/cbor";
+        private static final String SMILE = "application/x-jackson-smile";
+
+        private MockMvc encodingMvc;
+
+        private Task task;
+
+        @BeforeAll
+        void beforeAll() {
+            encodingMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext)
+                    .addFilters(compressionFilter.getFilter())
+                    .build();
+            task = taskRepository.save(Task.builder().title(TITLE).description("Encoded").status(TaskStatus.PENDING).build());
+        }
+
+        @AfterAll
+        void afterAll() {
+            taskRepository.delete(task);
+        }
+
+        @SneakyThrows
+        private byte[] decompress(MvcResult result) {
+            byte[] body = result.getResponse().getContentAsByteArray();
+            String coding = result.getResponse().getHeader(HttpHeaders.CONTENT_ENCODING);
+            if (Objects.isNull(coding)) {
+                return body;
+            }
+            try (InputStream in = coding.equals(CompressionFilter.ZSTD) ?
+                    new ZstdInputStream(new ByteArrayInputStream(body)) :
+                    new GZIPInputStream(new ByteArrayInputStream(body))) {
+                return in.readAllBytes();
+            }
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[200] page envelope without request metadata")
+        void testPageEnvelope() {
+            encodingMvc.perform(get(URL).param("title", TITLE))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(jsonPath("$.content.[0].title").value(TITLE))
+                    .andExpect(jsonPath("$.number").value(0))
+                    .andExpect(jsonPath("$.totalElements").value(1))
+                    .andExpect(jsonPath("$.first").value(true))
+                    .andExpect(jsonPath("$.last").value(true))
+                    .andExpect(jsonPath("$.sort[1]").value("id,asc"))
+                    .andExpect(jsonPath("$.countMode").value("EXACT"))
+                    .andExpect(jsonPath("$.pageable").doesNotExist())
+                    .andExpect(jsonPath("$.numberOfElements").doesNotExist());
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[200] page as CBOR")
+        void testPageAsCbor() {
+            MvcResult result = encodingMvc.perform(get(URL).param("title", TITLE).accept(CBOR))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(CBOR))
+                    .andReturn();
+
+            JsonNode page = new CBORMapper().readTree(result.getResponse().getContentAsByteArray());
+            Assertions.assertEquals(1, page.get("totalElements").asInt());
+            Assertions.assertEquals(TITLE, page.get("content").get(0).get("title").asText());
+            Assertions.assertEquals(PENDING, page.get("content").get(0).get("status").asText());
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[200] task by ID as Smile")
+        void testTaskAsSmile() {
+            MvcResult result = encodingMvc.perform(get(URL + "/" + task.getId()).accept(SMILE))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(SMILE))
+                    .andExpect(header().exists(HttpHeaders.ETAG))
+                    .andReturn();
+
+            JsonNode dto = new SmileMapper().readTree(result.getResponse().getContentAsByteArray());
+            Assertions.assertEquals(task.getId(), dto.get("id").asLong());
+            Assertions.assertEquals(TITLE, dto.get("title").asText());
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[200] large page compressed with the preferred coding")
+        void testLargePageIsCompressed() {
+            for (String coding : List.of(CompressionFilter.ZSTD, CompressionFilter.GZIP)) {
+                MvcResult result = encodingMvc.perform(get(URL).param("offset", "100")
+                                .header(HttpHeaders.ACCEPT_ENCODING, coding.equals(CompressionFilter.ZSTD) ? "gzip, zstd" : "gzip"))
+                        .andExpect(status().isOk())
+                        .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, coding))
+                        .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                        .andReturn();
+
+                byte[] json = decompress(result);
+                Assertions.assertTrue(json.length > result.getResponse().getContentAsByteArray().length);
+                Assertions.assertEquals(100, objectMapper.readTree(json).get("content").size());
+            }
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[200] small response not compressed")
+        void testSmallResponseIsNotCompressed() {
+            encodingMvc.perform(get(URL + "/" + task.getId())
+                            .header(HttpHeaders.ACCEPT_ENCODING, "zstd, gzip"))
+                    .andExpect(status().isOk())
+                    .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                    .andExpect(jsonPath("$.title").value(TITLE));
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[200] streamed export compressed")
+        void testExportIsCompressed() {
+            MvcResult started = encodingMvc.perform(get(URL + ":export")
+                            .header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            MvcResult result = encodingMvc.perform(asyncDispatch(started))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, CompressionFilter.GZIP))
+                    .andReturn();
+
+            String[] lines = new String(decompress(result), StandardCharsets.UTF_8).split("\n");
+            Assertions.assertTrue(lines.length > 100);
+            Assertions.assertEquals(task.getId(), objectMapper.readTree(lines[lines.length - 1]).get("id").asLong());
+        }
+
+    }
+
+    @Nested
+    @DisplayName("Task hierarchy")
+    @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+    @TestInstance(TestInstance.Lifecycle.PER_CLASS)
+    class Hierarchy {
+
+        private static final String TITLE = "Hierarchy";
+
+        private Task root;
+        private Task child;
+        private Task grandchild;
+        private Task sibling;
+
+        @BeforeAll
+        void beforeAll() {
+            root = save(null, TaskStatus.IN_PROGRESS);
+            child = save(root.getId(), TaskStatus.COMPLETED);
+            grandchild = save(child.getId(), TaskStatus.IN_TESTING);
+            sibling = save(root.getId(), TaskStatus.TO_DO);
+        }
+
+        private Task save(Long parentId, TaskStatus status) {
+            return taskRepository.save(Task.builder()
+                    .title(TITLE)
+                    .description("Testing")
+                    .status(status)
+                    .parentId(parentId)
+                    .build());
+        }
+
+        @AfterAll
+        void afterAll() {
+            List<Task> tasks = taskRepository.findByTitle(TITLE);
+            tasks.forEach(task -> task.setParentId(null));
+            taskRepository.deleteAll(taskRepository.saveAll(tasks));
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[200] subtree nested level by level")
+        @Order(1)
+        void testGetSubtreeIs200() {
+            mvc.perform(get(URL + "/" + root.getId() + "/subtree"))
+                    .andDo(print())
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.id").value(root.getId()))
+                    .andExpect(jsonPath("$.parentId").doesNotExist())
+                    .andExpect(jsonPath("$.subtasks.length()").value(2))
+                    .andExpect(jsonPath("$.subtasks[0].id").value(child.getId()))
+                    .andExpect(jsonPath("$.subtasks[0].parentId").value(root.getId()))
+                    .andExpect(jsonPath("$.subtasks[0].subtasks[0].id").value(grandchild.getId()))
+                    .andExpect(jsonPath("$.subtasks[0].subtasks[0].subtasks.length()").value(0))
+                    .andExpect(jsonPath("$.subtasks[1].id").value(sibling.getId()))
+                    .andExpect(jsonPath("$.subtasks[1].subtasks.length()").value(0));
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[200] subtree cut at depth")
+        @Order(1)
+        void testGetSubtreeWithDepthIs200() {
+            mvc.perform(get(URL + "/" + root.getId() + "/subtree").param("depth", "1"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.subtasks.length()").value(2))
+                    .andExpect(jsonPath("$.subtasks[0].subtasks.length()").value(0));
+            mvc.perform(get(URL + "/" + root.getId() + "/subtree").param("depth", "0"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.id").value(root.getId()))
+                    .andExpect(jsonPath("$.subtasks.length()").value(0));
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[400] negative depth")
+        @Order(1)
+        void testGetSubtreeWithNegativeDepthIs400() {
+            mvc.perform(get(URL + "/" + root.getId() + "/subtree").param("depth", "-1"))
+                    .andExpect(status().isBadRequest());
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[200] ancestors from the top-level task down")
+        @Order(1)
+        void testGetAncestorsIs200() {
+            mvc.perform(get(URL + "/" + grandchild.getId() + "/ancestors"))
+                    .andDo(print())
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.length()").value(2))
+                    .andExpect(jsonPath("$[0].id").value(root.getId()))
+                    .andExpect(jsonPath("$[1].id").value(child.getId()));
+            mvc.perform(get(URL + "/" + root.getId() + "/ancestors"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.length()").value(0));
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[200] status rollup of subtree")
+        @Order(1)
+        void testGetRollupIs200() {
+            mvc.perform(get(URL + "/" + root.getId() + "/rollup"))
+                    .andDo(print())
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.id").value(root.getId()))
+                    .andExpect(jsonPath("$.total").value(4))
+                    .andExpect(jsonPath("$.statuses.['completed']").value(1))
+                    .andExpect(jsonPath("$.statuses.['in testing']").value(1))
+                    .andExpect(jsonPath("$.statuses.['to do']").value(1))
+                    .andExpect(jsonPath("$.statuses.['in progress']").value(1))
+                    .andExpect(jsonPath("$.statuses.['pending']").value(0))
+                    .andExpect(jsonPath("$.status").value(TaskStatus.IN_PROGRESS.getStatus()));
+            mvc.perform(get(URL + "/" + child.getId() + "/rollup"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.total").value(2))
+                    .andExpect(jsonPath("$.status").value(TaskStatus.IN_TESTING.getStatus()));
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[404] hierarchy of missing task")
+        @Order(1)
+        void testHierarchyWhenNotFoundIs404() {
+            for (String path : List.of("/subtree", "/ancestors", "/rollup")) {
+                mvc.perform(get(URL + "/1000" + path))
+                        .andExpect(status().isNotFound())
+                        .andExpect(jsonPath("$.message").value(String.format(MESSAGE_NOT_FOUND, 1000)));
+            }
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[201] subtask created")
+        @Order(2)
+        void testCreateSubtaskIs201() {
+            TaskDto dto = TaskDto.builder().title(TITLE).description("Testing").status(PENDING).parentId(sibling.getId()).build();
+            mvc.perform(post(URL)
+                            .contentType(MediaType.APPLICATION_JSON_VALUE)
+                            .content(objectMapper.writeValueAsString(dto)))
+                    .andExpect(status().isCreated())
+                    .andExpect(jsonPath("$.parentId").value(sibling.getId()));
+            mvc.perform(get(URL + "/" + sibling.getId() + "/subtree"))
+                    .andExpect(jsonPath("$.subtasks.length()").value(1));
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[400] parent not found")
+        @Order(2)
+        void testCreateWithMissingParentIs400() {
+            TaskDto dto = TaskDto.builder().title(TITLE).description("Testing").status(PENDING).parentId(1000L).build();
+            mvc.perform(post(URL)
+                            .contentType(MediaType.APPLICATION_JSON_VALUE)
+                            .content(objectMapper.writeValueAsString(dto)))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.message").value("Parent task with id 1000 not found"));
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[400] task moved under its own subtask")
+        @Order(2)
+        void testUpdateIntoCycleIs400() {
+            for (Task parent : List.of(root, grandchild)) {
+                TaskDto dto = TaskDto.builder().title(TITLE).description("Testing").status(PENDING).parentId(parent.getId()).build();
+                mvc.perform(put(URL + "/" + root.getId())
+                                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                                .content(objectMapper.writeValueAsString(dto)))
+                        .andExpect(status().isBadRequest());
+            }
+            Assertions.assertNull(taskRepository.findById(root.getId()).orElseThrow().getParentId());
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[400] batch move into cycle rejected per item")
+        @Order(2)
+        void testBatchUpdateIntoCycleIs400() {
+            TaskBatchDto batch = TaskBatchDto.builder()
+                    .create(List.of(TaskDto.builder().title(TITLE).description("Testing").status(PENDING).parentId(1000L).build()))
+                    .update(List.of(
+                            TaskDto.builder().id(sibling.getId()).title(TITLE).description("Testing").status(PENDING).parentId(child.getId()).build(),
+                            TaskDto.builder().id(child.getId()).title(TITLE).description("Testing").status(PENDING).parentId(sibling.getId()).build()))
+                    .build();
+            mvc.perform(post(URL + ":batch")
+                            .contentType(MediaType.APPLICATION_JSON_VALUE)
+                            .content(objectMapper.writeValueAsString(batch)))
+                    .andDo(print())
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.create.[0].status").value("BAD_REQUEST"))
+                    .andExpect(jsonPath("$.update.[0].status").value("OK"))
+                    .andExpect(jsonPath("$.update.[0].task.parentId").value(child.getId()))
+                    .andExpect(jsonPath("$.update.[1].status").value("BAD_REQUEST"));
+            Assertions.assertEquals(root.getId(), taskRepository.findById(child.getId()).orElseThrow().getParentId());
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[400] concurrent moves into a cycle, the second waits and fails")
+        @Order(2)
+        void testConcurrentMovesIntoCycle() {
+            Task first = save(null, TaskStatus.PENDING);
+            Task second = save(null, TaskStatus.PENDING);
+            CountDownLatch moved = new CountDownLatch(1);
+            CountDownLatch commit = new CountDownLatch(1);
+            ExecutorService executor = Executors.newFixedThreadPool(2);
+            try {
+                TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+                Future<?> firstMove = executor.submit(() -> transaction.executeWithoutResult(status -> {
+                    taskService.update(first.getId(), move(second.getId()), null);
+                    moved.countDown();
+                    await(commit);
+                }));
+                await(moved);
+                Future<?> secondMove = executor.submit(
+                        () -> taskService.update(second.getId(), move(first.getId()), null));
+                // the second move waits for the locks of the first
+                Assertions.assertThrows(TimeoutException.class, () -> secondMove.get(500, TimeUnit.MILLISECONDS));
+                commit.countDown();
+                firstMove.get();
+
+                ExecutionException failure = Assertions.assertThrows(ExecutionException.class, secondMove::get);
+                Assertions.assertInstanceOf(BadRequestException.class, failure.getCause());
+                Assertions.assertNull(taskRepository.findById(second.getId()).orElseThrow().getParentId());
+            } finally {
+                commit.countDown();
+                executor.shutdown();
+            }
+        }
+
+        private TaskDto move(Long parentId) {
+            return TaskDto.builder().title(TITLE).description("Testing").status(PENDING).parentId(parentId).build();
+        }
+
+        @SneakyThrows
+        private static void await(CountDownLatch latch) {
+            Assertions.assertTrue(latch.await(10, TimeUnit.SECONDS));
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[409] task with subtasks not deleted")
+        @Order(3)
+        void testDeleteWithSubtasksIs409() {
+            mvc.perform(delete(URL + "/" + child.getId()))
+                    .andDo(print())
+                    .andExpect(status().isConflict())
+                    .andExpect(jsonPath("$.message").value("Task with id " + child.getId() + " has subtasks"));
+            Assertions.assertTrue(taskRepository.existsById(child.getId()));
+        }
+
+    }
 }
@@ -0,0 +1,319 @@
+package com.miratech.miratechtechtask.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.miratech.miratechtechtask.dto.BatchStatusDto;
+import com.miratech.miratechtechtask.dto.TaskBatchDto;
+import com.miratech.miratechtechtask.dto.TaskDto;
+import com.miratech.miratechtechtask.dto.TaskStatus;
+import com.miratech.miratechtechtask.dto.UpdateStatusDto;
+import com.miratech.miratechtechtask.entities.Task;
+import com.miratech.miratechtechtask.repositories.TaskRepository;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+
+/**
+ * Pins the number of SQL statements, i.e. database round trips, that every endpoint issues with cold caches.
+ * A change that adds a query to an endpoint, such as a lazily loaded relation read per task, fails here and
+ * has to update the pinned count deliberately. Runs in its own application context, whose data source is
+ * wrapped by a {@link StatementCounter}. The change feed is left out, its queries are made by the relay thread on
+ * its own schedule rather than by the request.
+ */
+@AutoConfigureEmbeddedDatabase(provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY)
+@ActiveProfiles(profiles = {"test"})
+@SpringBootTest
+@DirtiesContext
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@DisplayName("Task query count tests")
+public class TaskQueryCountTest {
+    private static final String URL = "/miratech/tasks";
+    private static final String TITLE = "Counted";
+    private static final int TASKS = 15;
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private StatementCounter statementCounter;
+
+    private MockMvc mvc;
+
+    private List<Task> tasks;
+
+    @TestConfiguration
+    static class StatementCounterConfig {
+
+        @Bean
+        StatementCounter countingStatementCounter() {
+            return new StatementCounter();
+        }
+
+        @Bean
+        static BeanPostProcessor countingDataSource(ObjectProvider<StatementCounter> countingStatementCounter) {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource && beanName.equals("dataSource") ?
+                            countingStatementCounter.getObject().wrap(dataSource) :
+                            bean;
+                }
+            };
+        }
+
+    }
+
+    @BeforeAll
+    void setup() {
+        List<Task> seed = new ArrayList<>();
+        for (int i = 0; i < TASKS; i++) {
+            seed.add(Task.builder().title(TITLE).description("Task " + i).status(TaskStatus.PENDING).build());
+        }
+        // also takes the block of IDs the creates below draw from, so that none of them fetches another one
+        tasks = taskRepository.saveAll(seed);
+        mvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+    }
+
+    @BeforeEach
+    void clearCaches() {
+        cacheManager.getCacheNames().forEach(name -> Objects.requireNonNull(cacheManager.getCache(name)).clear());
+    }
+
+    /**
+     * Performs the request, waiting for an asynchronous response to complete, and checks its status and the
+     * number of statements it executed.
+     */
+    @SneakyThrows
+    private MvcResult assertStatements(int expected, HttpStatus status, MockHttpServletRequestBuilder request) {
+        statementCounter.reset();
+        MvcResult result = mvc.perform(request).andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            result = mvc.perform(asyncDispatch(result)).andReturn();
+        }
+        List<String> statements = statementCounter.statements();
+        assertEquals(status.value(), result.getResponse().getStatus());
+        assertEquals(expected, statements.size(), () -> "Statements: " + String.join("\n", statements));
+        return result;
+    }
+
+    private MockHttpServletRequestBuilder json(MockHttpServletRequestBuilder request, Object body) throws Exception {
+        return request.contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(body));
+    }
+
+    private TaskDto dto(String description) {
+        return TaskDto.builder().title(TITLE).description(description).status("pending").build();
+    }
+
+    @Nested
+    @DisplayName("Reads")
+    @TestInstance(TestInstance.Lifecycle.PER_CLASS)
+    class Reads {
+
+        @Test
+        @DisplayName("[1+1] page and count")
+        void testGetAll() {
+            assertStatements(2, HttpStatus.OK, get(URL).param("title", TITLE));
+        }
+
+        @Test
+        @DisplayName("[1] last page needs no count")
+        void testGetAllLastPage() {
+            assertStatements(1, HttpStatus.OK, get(URL).param("title", TITLE).param("page", "1"));
+        }
+
+        @Test
+        @DisplayName("[1] page without count")
+        void testGetAllWithoutCount() {
+            assertStatements(1, HttpStatus.OK, get(URL).param("title", TITLE).param("count", "none"));
+        }
+
+        @Test
+        @DisplayName("[1+1] page and estimated count")
+        void testGetAllEstimated() {
+            assertStatements(2, HttpStatus.OK, get(URL).param("title", TITLE).param("count", "estimated"));
+        }
+
+        @Test
+        @DisplayName("[1+1] page of selected fields and count")
+        void testGetAllFields() {
+            assertStatements(2, HttpStatus.OK, get(URL).param("title", TITLE).param("fields", "id,title"));
+        }
+
+        @Test
+        @DisplayName("[1+1] search and count")
+        void testSearch() {
+            assertStatements(2, HttpStatus.OK, get(URL).param("q", TITLE));
+        }
+
+        @Test
+        @DisplayName("[1] keyset slice")
+        void testGetAllAfter() {
+            assertStatements(1, HttpStatus.OK, get(URL).param("after", ""));
+        }
+
+        @Test
+        @DisplayName("[1] task by ID, then none from the cache")
+        void testGetById() {
+            assertStatements(1, HttpStatus.OK, get(URL + "/" + tasks.get(0).getId()));
+            assertStatements(0, HttpStatus.OK, get(URL + "/" + tasks.get(0).getId()));
+        }
+
+        @Test
+        @DisplayName("[1] selected fields of task by ID")
+        void testGetFieldsById() {
+            assertStatements(1, HttpStatus.OK, get(URL + "/" + tasks.get(0).getId()).param("fields", "title"));
+        }
+
+        @Test
+        @DisplayName("[1] missing task")
+        void testGetMissing() {
+            assertStatements(1, HttpStatus.NOT_FOUND, get(URL + "/" + Long.MAX_VALUE));
+        }
+
+        @Test
+        @DisplayName("[1] subtree, ancestors and rollup through one recursive query each")
+        void testHierarchy() {
+            Long id = tasks.get(0).getId();
+            assertStatements(1, HttpStatus.OK, get(URL + "/" + id + "/subtree"));
+            assertStatements(1, HttpStatus.OK, get(URL + "/" + id + "/ancestors"));
+            assertStatements(1, HttpStatus.OK, get(URL + "/" + id + "/rollup"));
+        }
+
+        @Test
+        @DisplayName("[1] export through one cursor")
+        void testExport() {
+            assertStatements(1, HttpStatus.OK, get(URL + ":export"));
+        }
+
+    }
+
+    @Nested
+    @DisplayName("Writes")
+    @TestInstance(TestInstance.Lifecycle.PER_CLASS)
+    class Writes {
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[1+1] create with its change")
+        void testCreate() {
+            assertStatements(2, HttpStatus.CREATED, json(post(URL), dto("Created")));
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[1+1] update with its change")
+        void testUpdate() {
+            assertStatements(2, HttpStatus.OK, json(put(URL + "/" + tasks.get(1).getId()), dto("Updated")));
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[1+1] stale update and version check")
+        void testStaleUpdate() {
+            assertStatements(2, HttpStatus.PRECONDITION_FAILED, json(put(URL + "/" + tasks.get(1).getId()), dto("Stale"))
+                    .header(HttpHeaders.IF_MATCH, ETags.of(99L)));
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[1+1] status update with its change")
+        void testUpdateStatus() {
+            assertStatements(2, HttpStatus.OK, json(patch(URL + "/" + tasks.get(2).getId()),
+                    new UpdateStatusDto(TaskStatus.COMPLETED.getStatus())));
+        }
+
+        @Test
+        @DisplayName("[1+1] delete with its change")
+        void testDelete() {
+            assertStatements(2, HttpStatus.OK, delete(URL + "/" + tasks.get(3).getId()));
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[11] batch, independent of its size")
+        void testBatch() {
+            TaskBatchDto batch = TaskBatchDto.builder()
+                    .create(List.of(dto("Batch 1"), dto("Batch 2")))
+                    .update(List.of(
+                            TaskDto.builder().id(tasks.get(4).getId()).title(TITLE).description("Batch").status("to do").build(),
+                            TaskDto.builder().id(tasks.get(5).getId()).title(TITLE).description("Batch").status("to do").build()))
+                    .status(List.of(
+                            new BatchStatusDto(tasks.get(6).getId(), "completed"),
+                            new BatchStatusDto(tasks.get(7).getId(), "completed")))
+                    .delete(List.of(tasks.get(8).getId(), tasks.get(9).getId()))
+                    .build();
+            assertStatements(11, HttpStatus.OK, json(post(URL + ":batch"), batch));
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[1+1+1] create under a parent, locked against deletion")
+        void testCreateSubtask() {
+            assertStatements(3, HttpStatus.CREATED, json(post(URL),
+                    TaskDto.builder().title("Subtask").description("Subtask").status("pending").parentId(tasks.get(0).getId()).build()));
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[2+1+1] move with its lock and ancestor check")
+        void testMove() {
+            assertStatements(4, HttpStatus.OK, json(put(URL + "/" + tasks.get(10).getId()),
+                    TaskDto.builder().title("Subtask").description("Moved").status("pending").parentId(tasks.get(0).getId()).build()));
+        }
+
+        @Test
+        @SneakyThrows
+        @DisplayName("[3] batch of subtasks, one parent check for all")
+        void testBatchSubtasks() {
+            List<TaskDto> create = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                create.add(TaskDto.builder().title("Subtask").description("Subtask").status("pending")
+                        .parentId(tasks.get(i % 2).getId()).build());
+            }
+            assertStatements(3, HttpStatus.OK, json(post(URL + ":batch"), TaskBatchDto.builder().create(create).build()));
+        }
+
+        @Test
+        @DisplayName("[2] import, plus its COPY: ID reservation and one change record for the chunk")
+        void testImport() {
+            assertStatements(2, HttpStatus.OK, post(URL + ":import")
+                    .contentType(MediaType.APPLICATION_NDJSON)
+                    .content("{\"title\":\"" + TITLE + "\",\"description\":\"Imported\",\"status\":\"pending\"}\n"));
+        }
+
+    }
+
+}
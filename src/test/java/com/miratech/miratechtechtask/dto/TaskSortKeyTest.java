@@ -0,0 +1,45 @@
+package com.miratech.miratechtechtask.dto;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.*;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TaskSortKeyTest {
+
+    @DisplayName("Test 'toSort()' successful")
+    @ParameterizedTest(name = "From {0} result => {1}")
+    @MethodSource("getToSortSuccessfulArgs")
+    void testToSortSuccessful(List<String> values, Sort result) {
+        assertEquals(result, TaskSortKey.toSort(values));
+    }
+
+    private static Stream<Arguments> getToSortSuccessfulArgs() {
+        return Stream.of(
+                Arguments.of(List.of(), Sort.by("id")),
+                Arguments.of(List.of("title"), Sort.by("title", "id")),
+                Arguments.of(List.of("TITLE", "DESC"), Sort.by(Sort.Direction.DESC, "title", "id")),
+                Arguments.of(List.of("title,desc"), Sort.by(Sort.Direction.DESC, "title", "id")),
+                Arguments.of(List.of("id,desc"), Sort.by(Sort.Direction.DESC, "id")),
+                Arguments.of(List.of("id", "title"), Sort.by("id", "title")),
+                Arguments.of(List.of("status,desc", "title"),
+                        Sort.by(Sort.Order.desc("status"), Sort.Order.asc("title"), Sort.Order.asc("id"))),
+                Arguments.of(List.of("status, asc, title, desc"),
+                        Sort.by(Sort.Order.asc("status"), Sort.Order.desc("title"), Sort.Order.desc("id")))
+        );
+    }
+
+    @DisplayName("Test 'toSort()' failed")
+    @ParameterizedTest(name = "From ''{0}'' result => BadRequestException")
+    @ValueSource(strings = {"description", "desc", "title,up", "id;drop"})
+    void testToSortFailed(String value) {
+        assertThrows(BadRequestException.class, () -> TaskSortKey.toSort(List.of(value)));
+    }
+
+}
@@ -41,12 +41,12 @@ class TaskStatusTest {
     }
 
     @DisplayName("Test 'fromStatus()' failed")
-    @ParameterizedTest(name = "From ''{0}'' result => IllegalArgumentException")
+    @ParameterizedTest(name = "From ''{0}'' result => BadRequestException")
     @NullSource
     @EmptySource
     @ValueSource(strings = {" ", "wrong"})
     void testFromStatus(String value) {
-        assertThrows(IllegalArgumentException.class, () -> TaskStatus.fromStatus(value));
+        assertThrows(BadRequestException.class, () -> TaskStatus.fromStatus(value));
     }
 
 }
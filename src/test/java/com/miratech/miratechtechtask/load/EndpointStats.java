@@ -0,0 +1,68 @@
+package com.miratech.miratechtechtask.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram and response counters of one endpoint under load.
+ */
+public class EndpointStats {
+
+    private static final long MAX_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final String name;
+
+    private final Histogram latencies = new ConcurrentHistogram(MAX_TRACKABLE_NANOS, 3);
+
+    private final LongAdder clientErrors = new LongAdder();
+
+    private final LongAdder serverErrors = new LongAdder();
+
+    public EndpointStats(String name) {
+        this.name = name;
+    }
+
+    public void record(long latencyNanos, int status) {
+        latencies.recordValue(Math.min(latencyNanos, MAX_TRACKABLE_NANOS));
+        if (status >= 500) {
+            serverErrors.increment();
+        } else if (status >= 400) {
+            clientErrors.increment();
+        }
+    }
+
+    public void reset() {
+        latencies.reset();
+        clientErrors.reset();
+        serverErrors.reset();
+    }
+
+    public long serverErrors() {
+        return serverErrors.sum();
+    }
+
+    public static String header() {
+        return String.format("%-8s %10s %10s %8s %8s %10s %10s %10s %10s",
+                "endpoint", "requests", "req/s", "4xx", "5xx", "p50 ms", "p99 ms", "p999 ms", "max ms");
+    }
+
+    public String row(Duration elapsed) {
+        long count = latencies.getTotalCount();
+        return String.format("%-8s %10d %10.1f %8d %8d %10.2f %10.2f %10.2f %10.2f",
+                name, count, count * 1000.0 / Math.max(1, elapsed.toMillis()),
+                clientErrors.sum(), serverErrors.sum(),
+                millis(latencies.getValueAtPercentile(50)),
+                millis(latencies.getValueAtPercentile(99)),
+                millis(latencies.getValueAtPercentile(99.9)),
+                millis(latencies.getMaxValue()));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+}
@@ -0,0 +1,226 @@
+package com.miratech.miratechtechtask.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.miratech.miratechtechtask.dto.TaskDto;
+import com.miratech.miratechtechtask.dto.TaskStatus;
+import com.miratech.miratechtechtask.dto.UpdateStatusDto;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import lombok.SneakyThrows;
+import lombok.extern.log4j.Log4j2;
+import org.flywaydb.test.annotation.FlywayTest;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test of the task API over HTTP against embedded Postgres.
+ * <p>
+ * Seeds the task table, then drives a weighted mix of requests from concurrent clients and reports
+ * throughput and latency percentiles per endpoint. Excluded from the regular build, run with
+ * {@code mvn -Pload test}. Options (system properties):
+ * <ul>
+ *     <li>load.rows - number of seeded tasks, default 1000000</li>
+ *     <li>load.clients - number of concurrent clients, default 64</li>
+ *     <li>load.warmup - ISO-8601 duration of the unrecorded warmup, default PT10S</li>
+ *     <li>load.duration - ISO-8601 duration of the recorded run, default PT60S</li>
+ *     <li>load.mix - weights per endpoint, default list:30,get:40,create:10,update:8,patch:10,delete:2</li>
+ *     <li>load.threads - request threads of the server, platform or virtual, default platform</li>
+ * </ul>
+ * Virtual threads need a Java 21 runtime ({@code mvn -Pload,java21 test -Dload.threads=virtual}); the report
+ * records the thread mode actually in effect, so runs of both modes can be compared side by side.
+ * The report is logged and written to target/load-report.txt.
+ */
+@FlywayTest
+@AutoConfigureEmbeddedDatabase(provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY)
+@ActiveProfiles(profiles = {"test"})
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Tag("load")
+@Log4j2
+@DisplayName("Task API load test")
+public class TaskLoadTest {
+    private static final String URL = "http://localhost:%d/miratech/tasks";
+    private static final String JSON = "application/json";
+    private static final Path REPORT = Path.of("target", "load-report.txt");
+
+    private static final int ROWS = Integer.getInteger("load.rows", 1_000_000);
+    private static final int CLIENTS = Integer.getInteger("load.clients", 64);
+    private static final Duration WARMUP = Duration.parse(System.getProperty("load.warmup", "PT10S"));
+    private static final Duration DURATION = Duration.parse(System.getProperty("load.duration", "PT60S"));
+    private static final String MIX = System.getProperty("load.mix",
+            "list:30,get:40,create:10,update:8,patch:10,delete:2");
+    private static final String THREADS = System.getProperty("load.threads", "platform");
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Environment environment;
+
+    @Value("${spring.flyway.default-schema}")
+    private String schema;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private final Map<String, EndpointStats> stats = new LinkedHashMap<>();
+
+    private final List<String> operations = new ArrayList<>();
+
+    private long firstId;
+
+    @DynamicPropertySource
+    static void threads(DynamicPropertyRegistry registry) {
+        registry.add("spring.threads.virtual.enabled", () -> "virtual".equals(THREADS));
+    }
+
+    @BeforeAll
+    void seed() {
+        long start = System.nanoTime();
+        firstId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) + 1 FROM " + schema + ".task", Long.class);
+        jdbcTemplate.update("INSERT INTO " + schema + ".task (id, title, description, status) " +
+                "SELECT g, 'Title ' || md5(g::text), 'Description of the seeded task ' || g, " +
+                "(enum_range(NULL::" + schema + ".task_status_type))[1 + g % 5] " +
+                "FROM generate_series(?, ?) g", firstId, firstId + ROWS - 1);
+        // keep ids allocated by Hibernate above the seeded range
+        jdbcTemplate.queryForObject("SELECT setval('" + schema + ".task_id_seq', ?)", Long.class, firstId + ROWS + 50);
+        jdbcTemplate.execute("ANALYZE " + schema + ".task");
+        log.info("Seeded {} tasks in {} ms", ROWS, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+        for (String entry : MIX.split(",")) {
+            String[] weighted = entry.trim().split(":");
+            stats.put(weighted[0], new EndpointStats(weighted[0]));
+            for (int i = 0; i < Integer.parseInt(weighted[1]); i++) {
+                operations.add(weighted[0]);
+            }
+        }
+    }
+
+    @AfterAll
+    void cleanup() {
+        jdbcTemplate.execute("TRUNCATE " + schema + ".task");
+    }
+
+    @Test
+    @SneakyThrows
+    @DisplayName("Mixed workload")
+    void testMixedWorkload() {
+        run(WARMUP);
+        stats.values().forEach(EndpointStats::reset);
+        long start = System.nanoTime();
+        run(DURATION);
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        List<String> report = new ArrayList<>();
+        report.add(String.format("rows=%d clients=%d duration=%s mix=%s threads=%s", ROWS, CLIENTS, DURATION, MIX,
+                Threading.VIRTUAL.isActive(environment) ? "virtual" : "platform"));
+        report.add(EndpointStats.header());
+        stats.values().forEach(endpoint -> report.add(endpoint.row(elapsed)));
+        report.forEach(log::info);
+        Files.createDirectories(REPORT.getParent());
+        Files.write(REPORT, report);
+
+        stats.forEach((name, endpoint) ->
+                Assertions.assertEquals(0, endpoint.serverErrors(), "Server errors on " + name));
+    }
+
+    private void run(Duration duration) throws InterruptedException {
+        long deadline = System.nanoTime() + duration.toNanos();
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        for (int i = 0; i < CLIENTS; i++) {
+            clients.submit(() -> {
+                while (System.nanoTime() < deadline) {
+                    String operation = operations.get(ThreadLocalRandom.current().nextInt(operations.size()));
+                    HttpRequest request = request(operation);
+                    long start = System.nanoTime();
+                    int status;
+                    try {
+                        status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                    } catch (IOException e) {
+                        status = 599;
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    stats.get(operation).record(System.nanoTime() - start, status);
+                }
+            });
+        }
+        clients.shutdown();
+        if (!clients.awaitTermination(duration.plusMinutes(1).toMillis(), TimeUnit.MILLISECONDS)) {
+            clients.shutdownNow();
+        }
+    }
+
+    @SneakyThrows
+    private HttpRequest request(String operation) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String url = String.format(URL, port);
+        String byId = url + "/" + (firstId + random.nextLong(ROWS));
+        TaskStatus status = TaskStatus.values()[random.nextInt(TaskStatus.values().length)];
+        return switch (operation) {
+            case "list" -> HttpRequest.newBuilder(URI.create(url + "?page=" + random.nextInt(100) +
+                    (random.nextBoolean() ? "&status=" + URLEncoder.encode(status.getStatus(), StandardCharsets.UTF_8) : ""))).GET().build();
+            case "get" -> HttpRequest.newBuilder(URI.create(byId)).GET().build();
+            case "create" -> HttpRequest.newBuilder(URI.create(url))
+                    .header("Content-Type", JSON)
+                    .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(task(status))))
+                    .build();
+            case "update" -> HttpRequest.newBuilder(URI.create(byId))
+                    .header("Content-Type", JSON)
+                    .PUT(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(task(status))))
+                    .build();
+            case "patch" -> HttpRequest.newBuilder(URI.create(byId))
+                    .header("Content-Type", JSON)
+                    .method("PATCH", HttpRequest.BodyPublishers.ofString(
+                            objectMapper.writeValueAsString(UpdateStatusDto.builder().status(status.getStatus()).build())))
+                    .build();
+            case "delete" -> HttpRequest.newBuilder(URI.create(byId)).DELETE().build();
+            default -> throw new IllegalArgumentException("Unknown operation: " + operation);
+        };
+    }
+
+    private static TaskDto task(TaskStatus status) {
+        return TaskDto.builder()
+                .title("Load " + ThreadLocalRandom.current().nextInt(1_000_000))
+                .description("Created by the load test")
+                .status(status.getStatus())
+                .build();
+    }
+
+}
@@ -0,0 +1,102 @@
+package com.miratech.miratechtechtask.repositories;
+
+import com.miratech.miratechtechtask.dto.FileFormat;
+import com.miratech.miratechtechtask.dto.TaskChangeType;
+import com.miratech.miratechtechtask.dto.TaskStatus;
+import com.miratech.miratechtechtask.entities.Task;
+import com.miratech.miratechtechtask.entities.TaskChange;
+import com.miratech.miratechtechtask.services.TaskManagementService;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Imports into an empty task table whose ID sequence starts afresh, the state of a new database. Runs in its own
+ * application context and database, as it resets the sequence.
+ */
+@AutoConfigureEmbeddedDatabase(provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY)
+@ActiveProfiles(profiles = {"test"})
+@SpringBootTest
+@DirtiesContext
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@DisplayName("Task import into an empty table tests")
+public class TaskCopyInTest {
+    private static final int TASKS = 120;
+
+    @Autowired
+    private TaskManagementService taskService;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TaskChangeRepository taskChangeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    public void emptyTable() {
+        taskChangeRepository.deleteAllInBatch();
+        taskRepository.deleteAllInBatch();
+        jdbcTemplate.execute("ALTER SEQUENCE miratech_schema.task_id_seq RESTART WITH 1");
+    }
+
+    @AfterAll
+    public void cleanup() {
+        taskChangeRepository.deleteAllInBatch();
+        taskRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @SneakyThrows
+    @DisplayName("imported IDs start at 1, are recorded as created and do not collide with IDs allocated afterwards")
+    void testImportIntoEmptyTable() {
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < TASKS; i++) {
+            ndjson.append("{\"title\":\"Imported ").append(i)
+                    .append("\",\"description\":\"Imported\",\"status\":\"pending\"}\n");
+        }
+        taskService.importTasks(FileFormat.NDJSON,
+                new ByteArrayInputStream(ndjson.toString().getBytes(StandardCharsets.UTF_8)), new ByteArrayOutputStream());
+
+        List<Task> imported = taskRepository.findAll();
+        assertEquals(TASKS, imported.size());
+        Set<Long> ids = new HashSet<>();
+        imported.forEach(task -> ids.add(task.getId()));
+        assertEquals(TASKS, ids.size());
+        assertTrue(ids.stream().allMatch(id -> id >= 1), () -> "IDs below 1: " + ids);
+
+        List<TaskChange> changes = taskChangeRepository.findAll();
+        assertEquals(TASKS, changes.size());
+        assertTrue(changes.stream().allMatch(change -> change.getType() == TaskChangeType.CREATED));
+        Set<Long> changed = new HashSet<>();
+        changes.forEach(change -> changed.add(change.getTaskId()));
+        assertEquals(ids, changed);
+
+        Task saved = taskRepository.save(Task.builder()
+                .title("Saved")
+                .description("Saved")
+                .status(TaskStatus.PENDING)
+                .build());
+        assertFalse(ids.contains(saved.getId()));
+        assertEquals(TASKS + 1, taskRepository.count());
+    }
+
+}
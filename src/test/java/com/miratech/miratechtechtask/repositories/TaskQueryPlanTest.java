@@ -0,0 +1,229 @@
+package com.miratech.miratechtechtask.repositories;
+
+import com.miratech.miratechtechtask.dto.CountMode;
+import com.miratech.miratechtechtask.dto.TaskField;
+import com.miratech.miratechtechtask.dto.TaskSortKey;
+import com.miratech.miratechtechtask.dto.TaskStatus;
+import com.miratech.miratechtechtask.services.TaskManagementService;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import lombok.extern.log4j.Log4j2;
+import org.flywaydb.test.annotation.FlywayTest;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Explains the statements that listing requests actually issue, for every filter and sort, against a seeded
+ * table and fails when any of them reads the task table with a sequential scan. Runs in its own application
+ * context and database: the seeded rows would break the expectations of the controller tests.
+ */
+@FlywayTest
+@AutoConfigureEmbeddedDatabase(provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY)
+@ActiveProfiles(profiles = {"test"})
+@SpringBootTest
+@DirtiesContext
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Log4j2
+@DisplayName("Task query plan tests")
+public class TaskQueryPlanTest {
+    private static final int ROWS = 100_000;
+    private static final int TITLES = 5_000;
+    private static final int PAGE_SIZE = 10;
+    private static final String TITLE = "Title 42";
+
+    @Autowired
+    private TaskManagementService taskService;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private RecordingStatementInspector inspector;
+
+    @TestConfiguration
+    static class InspectorConfig {
+
+        @Bean
+        RecordingStatementInspector recordingStatementInspector() {
+            return new RecordingStatementInspector();
+        }
+
+        @Bean
+        HibernatePropertiesCustomizer statementInspectorCustomizer(RecordingStatementInspector inspector) {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, inspector);
+        }
+    }
+
+    /**
+     * Records the SQL Hibernate sends to the database.
+     */
+    static class RecordingStatementInspector implements StatementInspector {
+
+        private final List<String> statements = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+
+        List<String> drain() {
+            List<String> drained = new ArrayList<>(statements);
+            statements.clear();
+            return drained;
+        }
+    }
+
+    /**
+     * Seeds a table in which completed tasks dominate, as they do once the application has been in use,
+     * and refreshes statistics and the visibility map so that the planner sees the real distribution.
+     */
+    @BeforeAll
+    public void seed() {
+        jdbcTemplate.update("""
+                INSERT INTO miratech_schema.task (id, title, description, status)
+                SELECT nextval('miratech_schema.task_id_seq'), 'Title ' || (i % ?), 'Description ' || i,
+                       (CASE WHEN i % 10 < 6 THEN 'COMPLETED'
+                             ELSE (ARRAY ['PENDING', 'IN_PROGRESS', 'TO_DO', 'IN_TESTING'])[i % 10 - 5]
+                        END)::miratech_schema.task_status_type
+                FROM generate_series(1, ?) i
+                """, TITLES, ROWS);
+        // the pass right after the bulk insert leaves the visibility map unset, which index-only scans depend on
+        jdbcTemplate.execute("VACUUM miratech_schema.task");
+        jdbcTemplate.execute("VACUUM ANALYZE miratech_schema.task");
+    }
+
+    @AfterAll
+    public void cleanup() {
+        taskRepository.deleteAllInBatch();
+    }
+
+    static Stream<Arguments> listings() {
+        List<String> statuses = new ArrayList<>(Arrays.stream(TaskStatus.values()).map(TaskStatus::label).toList());
+        statuses.add(null);
+        List<String> sorts = Arrays.stream(TaskSortKey.values())
+                .flatMap(key -> Stream.of(key.property(), key.property() + ",desc"))
+                .toList();
+        return Stream.of(null, TITLE)
+                .flatMap(title -> statuses.stream()
+                        .flatMap(status -> sorts.stream()
+                                .flatMap(sort -> Stream.of(0, 5)
+                                        .map(page -> Arguments.of(title, status, sort, page)))));
+    }
+
+    @ParameterizedTest(name = "title={0}, status={1}, sort={2}, page={3}")
+    @MethodSource("listings")
+    @DisplayName("getAll uses indexes")
+    void testGetAllUsesIndexes(String title, String status, String sort, int page) {
+        inspector.drain();
+        taskService.getAll(PageRequest.of(page, PAGE_SIZE, TaskSortKey.toSort(List.of(sort))), title, status, CountMode.EXACT);
+        List<String> statements = inspector.drain().stream()
+                // counting every row of an unfiltered table reads all of it whichever path is taken
+                .filter(sql -> title != null || status != null || !sql.startsWith("select count"))
+                .toList();
+        assertFalse(statements.isEmpty());
+        for (String sql : statements) {
+            String plan = explain(sql, title, status == null ? null : TaskStatus.fromStatus(status).name());
+            log.debug("{}\n{}", sql, plan);
+            assertFalse(plan.contains("Seq Scan on task"), () -> "Sequential scan for " + sql + "\n" + plan);
+        }
+    }
+
+    @Test
+    @DisplayName("getAllFields selects the requested columns only")
+    void testGetAllFieldsSelectsFields() {
+        inspector.drain();
+        taskService.getAllFields(PageRequest.of(0, PAGE_SIZE, TaskSortKey.toSort(List.of("status"))), null, null,
+                CountMode.NONE, EnumSet.of(TaskField.ID, TaskField.TITLE));
+        List<String> statements = inspector.drain();
+        assertEquals(1, statements.size());
+        String select = statements.get(0).substring(0, statements.get(0).indexOf(" from "));
+        assertTrue(select.contains(".id") && select.contains(".title"), select);
+        assertFalse(select.contains(".description") || select.contains(".status") || select.contains(".version"), select);
+    }
+
+    /**
+     * Prepares the statement and explains its execution. Hibernate binds positional parameters, so their
+     * values are chosen from the types PostgreSQL infers: titles for text, statuses for the enum, and the
+     * page size for the limit and offset.
+     */
+    private String explain(String sql, String title, String statusName) {
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("PREPARE listing AS " + numbered(sql));
+                try {
+                    List<String> arguments = new ArrayList<>();
+                    try (ResultSet types = statement.executeQuery(
+                            "SELECT parameter_types FROM pg_prepared_statements WHERE name = 'listing'")) {
+                        types.next();
+                        Array array = types.getArray(1);
+                        for (Object type : (Object[]) array.getArray()) {
+                            String name = type.toString();
+                            String value = name.endsWith("task_status_type") ? statusName
+                                    : name.equals("character varying") || name.equals("text") ? title
+                                    : String.valueOf(PAGE_SIZE);
+                            arguments.add("'" + value + "'");
+                        }
+                    }
+                    String execute = arguments.isEmpty() ? "EXECUTE listing"
+                            : "EXECUTE listing(" + String.join(", ", arguments) + ")";
+                    try (ResultSet plan = statement.executeQuery("EXPLAIN " + execute)) {
+                        List<String> lines = new ArrayList<>();
+                        while (plan.next()) {
+                            lines.add(plan.getString(1));
+                        }
+                        return lines.stream().collect(Collectors.joining("\n"));
+                    }
+                } finally {
+                    statement.execute("DEALLOCATE listing");
+                }
+            }
+        });
+    }
+
+    private static String numbered(String sql) {
+        StringBuilder numbered = new StringBuilder(sql.length() + 8);
+        int parameter = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c == '?') {
+                numbered.append('$').append(++parameter);
+            } else {
+                numbered.append(c);
+            }
+        }
+        return numbered.toString();
+    }
+
+}
@@ -0,0 +1,110 @@
+package com.miratech.miratechtechtask.services.impl;
+
+import com.miratech.miratechtechtask.configs.ChangeFeedProperties;
+import com.miratech.miratechtechtask.dto.TaskChangeOffset;
+import com.miratech.miratechtechtask.dto.TaskChangeType;
+import com.miratech.miratechtechtask.dto.TaskStatus;
+import com.miratech.miratechtechtask.entities.TaskChange;
+import com.miratech.miratechtechtask.mappers.TaskMapperImpl;
+import com.miratech.miratechtechtask.repositories.TaskChangeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("Task change relay tests")
+class TaskChangeRelayTest {
+
+    private static final int CHANGES = 20;
+
+    private static final long TIMEOUT_SECONDS = 10;
+
+    private TaskChangeRelay relay;
+
+    @BeforeEach
+    void setup() {
+        TaskChangeRepository repository = mock(TaskChangeRepository.class);
+        // one change per transaction, read one at a time
+        when(repository.findCommittedAfter(anyLong(), anyLong(), anyInt())).thenAnswer(invocation -> {
+            long after = invocation.getArgument(1, Long.class);
+            return LongStream.rangeClosed(after + 1, Math.min(after + 1, CHANGES))
+                    .mapToObj(id -> new TaskChange(id, id, id, TaskChangeType.CREATED, "Relay", "Change " + id,
+                            TaskStatus.PENDING, null, 0L, Instant.now()))
+                    .toList();
+        });
+        when(repository.deleteOlderThan(any())).thenReturn(0);
+        relay = new TaskChangeRelay(repository, new TaskMapperImpl(),
+                new ChangeFeedProperties(Duration.ofMillis(10), 1, 2, Duration.ofMillis(500), Duration.ofDays(7)));
+        relay.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        relay.stop();
+    }
+
+    @Test
+    @DisplayName("Client that does not read holds up only itself and is disconnected")
+    void testStalledSubscriber() throws InterruptedException {
+        CountDownLatch stalled = new CountDownLatch(1);
+        CountDownLatch released = new CountDownLatch(1);
+        CountDownLatch disconnected = new CountDownLatch(1);
+        relay.subscribe(new SseEmitter() {
+            @Override
+            public void send(Set<DataWithMediaType> items) throws IOException {
+                // the socket buffer is full: the write blocks until the client reads
+                stalled.countDown();
+                try {
+                    released.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new IOException("Broken pipe");
+            }
+
+            @Override
+            public void complete() {
+                disconnected.countDown();
+            }
+        }, TaskChangeOffset.START);
+        Assertions.assertTrue(stalled.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        AtomicInteger received = new AtomicInteger();
+        CountDownLatch all = new CountDownLatch(1);
+        relay.subscribe(new SseEmitter() {
+            @Override
+            public void send(Set<DataWithMediaType> items) {
+                // id, event name and data of one change per batch, heartbeats have a single item
+                if (items.size() > 1 && received.incrementAndGet() == CHANGES) {
+                    all.countDown();
+                }
+            }
+        }, TaskChangeOffset.START);
+
+        try {
+            Assertions.assertTrue(all.await(TIMEOUT_SECONDS, TimeUnit.SECONDS),
+                    "Received " + received.get() + " of " + CHANGES + " changes");
+            Assertions.assertTrue(disconnected.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        } finally {
+            released.countDown();
+        }
+    }
+
+}
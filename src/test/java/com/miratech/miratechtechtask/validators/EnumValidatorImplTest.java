@@ -0,0 +1,45 @@
+package com.miratech.miratechtechtask.validators;
+
+import com.miratech.miratechtechtask.dto.TaskDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EmptySource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EnumValidatorImplTest {
+
+    private EnumValidatorImpl validator;
+
+    @BeforeEach
+    void setUp() throws NoSuchFieldException {
+        validator = new EnumValidatorImpl();
+        validator.initialize(TaskDto.class.getDeclaredField("status").getAnnotation(EnumValidator.class));
+    }
+
+    @DisplayName("Test 'isValid()' accepts statuses ignoring case")
+    @ParameterizedTest(name = "''{0}'' is valid")
+    @ValueSource(strings = {"pending", "COMPLETED", "in progress", "To Do", "IN testing"})
+    void testIsValid(String value) {
+        assertTrue(validator.isValid(value, null));
+    }
+
+    @DisplayName("Test 'isValid()' rejects unknown statuses")
+    @ParameterizedTest(name = "''{0}'' is invalid")
+    @EmptySource
+    @ValueSource(strings = {" ", "wrong", "in_progress", "IN_PROGRESS", "pending "})
+    void testIsNotValid(String value) {
+        assertFalse(validator.isValid(value, null));
+    }
+
+    @DisplayName("Test 'isValid()' leaves null to @NotNull")
+    @Test
+    void testIsValidNull() {
+        assertTrue(validator.isValid(null, null));
+    }
+
+}